@@ -0,0 +1,60 @@
+package com.example.miapp.benchmarks;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Embedded H2 database shared by the benchmarks that start the application context.
+ */
+final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Builds the command-line arguments pointing the application at an in-memory H2 database.
+     * SQL logging is turned off so the console output does not dominate the measurements.
+     *
+     * @param extra Additional {@code --key=value} arguments.
+     * @return The application arguments.
+     */
+    static String[] arguments(String... extra) {
+        String[] base = {
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.org.springframework=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+        };
+        String[] arguments = new String[base.length + extra.length];
+        System.arraycopy(base, 0, arguments, 0, base.length);
+        System.arraycopy(extra, 0, arguments, base.length, extra.length);
+        return arguments;
+    }
+
+    /**
+     * Seeds the doctors, patients and past appointments with set-based inserts and moves the
+     * ID generators past the seeded rows.
+     *
+     * @param jdbcTemplate The template bound to the benchmark database.
+     * @param doctors      The number of doctors.
+     * @param rows         The number of patients and appointments.
+     */
+    static void seed(JdbcTemplate jdbcTemplate, int doctors, int rows) {
+        jdbcTemplate.update("insert into doctor (id, version, first_name, last_name, phone, email) "
+                + "select x, 0, 'John', 'Smith', '3000000000', concat('doctor', x, '@hospital.com') from system_range(1, ?)", doctors);
+        jdbcTemplate.update("insert into patient (id, version, first_name, last_name, birth_date, phone, address) "
+                + "select x, 0, 'Jane', 'Doe', date '1990-01-01', concat('300', x), '123 Calle Falsa' from system_range(1, ?)", rows);
+        jdbcTemplate.update("insert into appointment (id, date, patient_id, doctor_id, reason, status) "
+                + "select x, dateadd('MINUTE', 30 * x, timestamp '2020-01-01 00:00:00'), x, mod(x, ?) + 1, 'Routine checkup', 'C' "
+                + "from system_range(1, ?)", doctors, rows);
+        jdbcTemplate.execute("alter table doctor alter column id restart with " + (doctors + 1));
+        jdbcTemplate.execute("alter table patient alter column id restart with " + (rows + 1));
+        jdbcTemplate.execute("alter sequence appointment_seq restart with " + (rows + 1000));
+    }
+}
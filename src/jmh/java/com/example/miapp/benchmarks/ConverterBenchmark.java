@@ -0,0 +1,151 @@
+package com.example.miapp.benchmarks;
+
+import com.example.miapp.dto.AppointmentDto;
+import com.example.miapp.dto.PatientDto;
+import com.example.miapp.dto.PatientRoomDto;
+import com.example.miapp.entity.Appointment;
+import com.example.miapp.entity.AppointmentStatus;
+import com.example.miapp.entity.Patient;
+import com.example.miapp.entity.PatientRoom;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the MapStruct mappers of every entity, and compares the in-place update of a managed entity with
+ * the {@code toBuilder()} copy it replaced.
+ * <p>
+ * The generated mapper implementations are instantiated directly; none of them has collaborators. Run with
+ * {@code -prof gc} to see the bytes allocated per conversion ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+
+    private static final String MAPPER_PACKAGE = "com.example.miapp.mapper.";
+
+    /**
+     * State for the entity-to-DTO conversions.
+     */
+    @State(Scope.Thread)
+    public static class ToDtoState {
+
+        @Param({"Appointment", "Doctor", "DoctorSpecialty", "MedicalRecord", "Patient", "PatientRoom", "Room", "Specialty"})
+        public String entity;
+
+        MethodHandle converter;
+        Object source;
+
+        @Setup
+        public void setUp() throws Throwable {
+            Object dto = SampleData.dto(entity, 1);
+            source = SampleData.entity(entity, 1);
+            converter = bind(entity, "toDto", MethodType.methodType(dto.getClass(), source.getClass()));
+        }
+    }
+
+    /**
+     * State for the DTO-to-entity conversions.
+     */
+    @State(Scope.Thread)
+    public static class ToEntityState {
+
+        @Param({"Appointment", "Doctor", "DoctorSpecialty", "MedicalRecord", "Patient", "PatientRoom", "Room", "Specialty"})
+        public String entity;
+
+        MethodHandle converter;
+        Object source;
+
+        @Setup
+        public void setUp() throws Throwable {
+            source = SampleData.dto(entity, 1);
+            Object target = SampleData.entity(entity, 1);
+            converter = bind(entity, "toEntity", MethodType.methodType(target.getClass(), source.getClass()));
+        }
+    }
+
+    /**
+     * State for the updates of an existing entity, for the entities whose services used to copy it.
+     */
+    @State(Scope.Thread)
+    public static class UpdateState {
+
+        @Param({"Appointment", "Patient", "PatientRoom"})
+        public String entity;
+
+        MethodHandle updater;
+        Object dto;
+        Object target;
+
+        @Setup
+        public void setUp() throws Throwable {
+            dto = SampleData.dto(entity, 1);
+            target = SampleData.entity(entity, 1);
+            updater = bind(entity, "updateEntity", MethodType.methodType(void.class, dto.getClass(), target.getClass()));
+        }
+    }
+
+    @Benchmark
+    public Object toDto(ToDtoState state) throws Throwable {
+        return state.converter.invoke(state.source);
+    }
+
+    @Benchmark
+    public Object toEntity(ToEntityState state) throws Throwable {
+        return state.converter.invoke(state.source);
+    }
+
+    /**
+     * Copies the DTO onto the existing entity, as the services now do.
+     */
+    @Benchmark
+    public Object updateInPlace(UpdateState state) throws Throwable {
+        state.updater.invoke(state.dto, state.target);
+        return state.target;
+    }
+
+    /**
+     * Rebuilds the entity with the DTO fields, as the services did before the mappers.
+     */
+    @Benchmark
+    public Object updateByCopy(UpdateState state) {
+        return switch (state.target) {
+            case Appointment appointment -> {
+                AppointmentDto dto = (AppointmentDto) state.dto;
+                yield appointment.toBuilder().date(dto.getDate()).reason(dto.getReason())
+                        .status(AppointmentStatus.fromLabel(dto.getStatus())).build();
+            }
+            case Patient patient -> {
+                PatientDto dto = (PatientDto) state.dto;
+                yield patient.toBuilder().firstName(dto.getFirstName()).lastName(dto.getLastName())
+                        .birthDate(dto.getBirthDate()).phone(dto.getPhone()).address(dto.getAddress()).build();
+            }
+            case PatientRoom patientRoom -> {
+                PatientRoomDto dto = (PatientRoomDto) state.dto;
+                yield patientRoom.toBuilder().checkInDate(dto.getCheckInDate()).checkOutDate(dto.getCheckOutDate())
+                        .observations(dto.getObservations()).build();
+            }
+            default -> throw new IllegalStateException("Unexpected entity: " + state.entity);
+        };
+    }
+
+    /**
+     * Looks up a method of the generated mapper of an entity and binds it to a new mapper instance.
+     *
+     * @param entity The simple name of the entity.
+     * @param name   The name of the mapper method.
+     * @param type   The method type.
+     * @return The handle taking the method arguments.
+     */
+    private static MethodHandle bind(String entity, String name, MethodType type) throws Throwable {
+        Class<?> mapperClass = Class.forName(MAPPER_PACKAGE + entity + "MapperImpl");
+        MethodHandle handle = MethodHandles.publicLookup().findVirtual(mapperClass, name, type);
+        return handle.bindTo(mapperClass.getDeclaredConstructor().newInstance());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.miapp.benchmarks;
+
+import com.example.miapp.api.ApiApplication;
+import com.example.miapp.entity.Patient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the flush of a persistence context holding {@link #entities} managed patients, of which
+ * {@link #dirty} are changed before each flush.
+ * <p>
+ * Without bytecode enhancement Hibernate diffs every managed patient against its loaded snapshot on flush;
+ * enhanced patients record their own changes, so only the dirty ones are visited. Compare a default build with
+ * one built with {@code mvn clean -DskipEnhance ...} and run with {@code -p enhanced=false}; the setup fails when
+ * the compiled entities do not match {@link #enhanced}, so each result row states which build it measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 5, jvmArgsAppend = "-Xmx4g")
+public class FlushBenchmark {
+
+    private static final int DOCTORS = 100;
+
+    /** Number of patients loaded into the persistence context. */
+    @Param({"10000"})
+    public int entities;
+
+    /** Number of patients changed before each flush. */
+    @Param({"1", "100"})
+    public int dirty;
+
+    /** Whether the entities are expected to be bytecode-enhanced. */
+    @Param({"true"})
+    public boolean enhanced;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private List<Patient> patients;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (SelfDirtinessTracker.class.isAssignableFrom(Patient.class) != enhanced) {
+            throw new IllegalStateException("The entities are " + (enhanced ? "not " : "") + "enhanced: "
+                    + (enhanced ? "rebuild without -DskipEnhance" : "rebuild with mvn clean -DskipEnhance") + ".");
+        }
+        context = new SpringApplicationBuilder(ApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(BenchmarkDatabase.arguments());
+        BenchmarkDatabase.seed(context.getBean(JdbcTemplate.class), DOCTORS, entities);
+
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        entityManager.getTransaction().begin();
+        patients = entityManager.createQuery("select p from Patient p order by p.id", Patient.class)
+                .setMaxResults(entities)
+                .getResultList();
+    }
+
+    /**
+     * Commits the updates of the iteration and starts a new transaction, so the database's undo log does not grow
+     * over the whole trial. The persistence context is application-managed and keeps its patients across commits.
+     */
+    @TearDown(Level.Iteration)
+    public void commit() {
+        entityManager.getTransaction().commit();
+        entityManager.getTransaction().begin();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.getTransaction().rollback();
+        entityManager.close();
+        context.close();
+    }
+
+    /**
+     * Changes the address of the next {@link #dirty} patients and flushes the persistence context.
+     */
+    @Benchmark
+    public void flush() {
+        round++;
+        String address = "Calle " + round;
+        for (int i = 0; i < dirty; i++) {
+            patients.get((round * dirty + i) % patients.size()).setAddress(address);
+        }
+        entityManager.flush();
+    }
+}
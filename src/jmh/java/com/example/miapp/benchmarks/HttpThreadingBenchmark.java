@@ -0,0 +1,103 @@
+package com.example.miapp.benchmarks;
+
+import com.example.miapp.api.ApiApplication;
+import com.example.miapp.services.DoctorScheduleIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test comparing the Tomcat platform thread pool with virtual threads
+ * ({@code spring.threads.virtual.enabled}) on blocking JDBC endpoints.
+ * <p>
+ * The throughput mode reports requests per millisecond and the sample-time mode the latency
+ * percentiles, including p99. The server keeps the default 200 platform request threads; the
+ * 256 client threads keep more requests in flight than that.
+ * <p>
+ * Security auto-configuration is excluded: the generated in-memory user is re-encoded with BCrypt
+ * on first login, and hashing every Basic credential would dominate the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(256)
+public class HttpThreadingBenchmark {
+
+    private static final int DOCTORS = 100;
+    private static final int ROWS = 10_000;
+    private static final String[] SECURITY_AUTO_CONFIGURATIONS = {
+            "org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration",
+            "org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration",
+            "org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration"
+    };
+
+    /** Whether requests are served on virtual threads. */
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest listAppointments;
+    private HttpRequest doctorAvailability;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ApiApplication.class)
+                .run(BenchmarkDatabase.arguments(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.autoconfigure.exclude=" + String.join(",", SECURITY_AUTO_CONFIGURATIONS)));
+        BenchmarkDatabase.seed(context.getBean(JdbcTemplate.class), DOCTORS, ROWS);
+        context.getBean(DoctorScheduleIndex.class).rebuild();
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        listAppointments = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/appointments?limit=50")).build();
+        doctorAvailability = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                        + "/api/doctors/1/availability?from=2031-01-01T00:00:00&to=2031-01-08T00:00:00")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int listAppointments() throws IOException, InterruptedException {
+        return send(listAppointments);
+    }
+
+    @Benchmark
+    public int doctorAvailability() throws IOException, InterruptedException {
+        return send(doctorAvailability);
+    }
+
+    /**
+     * Sends a request and fails the iteration if the server does not answer 200.
+     *
+     * @param request The request to send.
+     * @return The response body length.
+     */
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.miapp.benchmarks;
+
+import com.example.miapp.dto.AppointmentDto;
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.PatientDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Measures the Jackson serialization of list responses, with an {@link ObjectMapper} configured
+ * the way Spring MVC builds it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    /** Number of items in the serialized page. */
+    @Param({"50", "200", "1000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private CursorPage<AppointmentDto> appointmentPage;
+    private CursorPage<PatientDto> patientPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<AppointmentDto> appointments = LongStream.rangeClosed(1, size).mapToObj(SampleData::appointmentDto).toList();
+        List<PatientDto> patients = LongStream.rangeClosed(1, size).mapToObj(SampleData::patientDto).toList();
+        appointmentPage = CursorPage.<AppointmentDto>builder().items(appointments).nextCursor("aWQ6NTA").limit(size).build();
+        patientPage = CursorPage.<PatientDto>builder().items(patients).nextCursor("aWQ6NTA").limit(size).build();
+    }
+
+    @Benchmark
+    public byte[] serializeAppointmentPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(appointmentPage);
+    }
+
+    @Benchmark
+    public byte[] serializePatientPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(patientPage);
+    }
+}
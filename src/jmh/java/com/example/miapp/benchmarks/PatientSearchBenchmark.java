@@ -0,0 +1,55 @@
+package com.example.miapp.benchmarks;
+
+import com.example.miapp.services.PatientSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link PatientSearchIndex#search} over synthetic patients.
+ * <p>
+ * The index is filled through {@link PatientSearchIndex#track}, which applies at once outside a transaction,
+ * so no database is needed. Names are drawn from small pools, as in real data, so common words match many
+ * patients while full names narrow them down.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PatientSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+            "Jane", "John", "María", "José", "Luis", "Ana", "Carlos", "Laura", "Andrés", "Sofía",
+            "Miguel", "Valentina", "Juan", "Camila", "Diego", "Isabella", "Jorge", "Daniela", "Pedro", "Lucía"};
+    private static final String[] LAST_NAMES = {
+            "Doe", "Smith", "García", "Rodríguez", "Martínez", "Hernández", "López", "González", "Pérez", "Sánchez",
+            "Ramírez", "Torres", "Flores", "Rivera", "Gómez", "Díaz", "Reyes", "Morales", "Jiménez", "Castro"};
+
+    @Param({"1000000"})
+    public int patients;
+
+    @Param({"gar", "maria", "maria garcia", "ez", "300 123", "4567"})
+    public String query;
+
+    private PatientSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new PatientSearchIndex(null, 1_000);
+        SplittableRandom random = new SplittableRandom(42);
+        for (long id = 1; id <= patients; id++) {
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + (id % 50 == 0 ? "-" + id : "");
+            index.track(id, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], lastName,
+                    "+57 300 " + String.format("%07d", random.nextInt(10_000_000)));
+        }
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return index.search(query, 20);
+    }
+}
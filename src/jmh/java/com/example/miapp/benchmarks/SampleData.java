@@ -0,0 +1,97 @@
+package com.example.miapp.benchmarks;
+
+import com.example.miapp.dto.*;
+import com.example.miapp.entity.*;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * Fully populated sample entities and DTOs shared by the benchmarks.
+ */
+final class SampleData {
+
+    private static final Date DAY = new Date(1_893_456_000_000L);
+    private static final Date BIRTH_DATE = new Date(631_152_000_000L);
+
+    private SampleData() {
+    }
+
+    /**
+     * Builds a sample entity for a service.
+     *
+     * @param service The simple name of the entity handled by the service (e.g., Appointment).
+     * @param id      The ID of the entity.
+     * @return The sample entity.
+     */
+    static Object entity(String service, long id) {
+        Patient patient = Patient.builder().id(id).firstName("Jane").lastName("Doe").birthDate(BIRTH_DATE)
+                .phone("+57 3000000000").address("123 Calle Falsa").build();
+        Doctor doctor = Doctor.builder().id(id).firstName("John").lastName("Smith")
+                .phone("+57 3000000001").email("doctor" + id + "@hospital.com").build();
+        Room room = Room.builder().id(id).number("R" + id).floor("3").type("General").occupancyStatus(OccupancyStatus.AVAILABLE).build();
+        Specialty specialty = Specialty.builder().id(id).name("Cardiology").description("Heart and blood vessels").build();
+        return switch (service) {
+            case "Appointment" -> Appointment.builder().id(id).date(LocalDateTime.of(2030, 1, 1, 10, 0))
+                    .patient(patient).doctor(doctor).reason("Routine checkup").status(AppointmentStatus.SCHEDULED).build();
+            case "Doctor" -> doctor;
+            case "DoctorSpecialty" -> DoctorSpecialty.builder().id(id).doctor(doctor).specialty(specialty)
+                    .certificationDate(DAY).experienceLevel("Senior").build();
+            case "MedicalRecord" -> MedicalRecord.builder().id(id).diagnosis("Hypertension").treatment("Lifestyle changes")
+                    .entryDate(DAY).patient(patient).responsibleDoctor(doctor).build();
+            case "Patient" -> patient;
+            case "PatientRoom" -> PatientRoom.builder().id(id).patient(patient).room(room)
+                    .checkInDate(DAY).checkOutDate(DAY).observations("Stable").build();
+            case "Room" -> room;
+            case "Specialty" -> specialty;
+            default -> throw new IllegalArgumentException("Unknown service: " + service);
+        };
+    }
+
+    /**
+     * Builds a sample DTO for a service.
+     *
+     * @param service The simple name of the entity handled by the service (e.g., Appointment).
+     * @param id      The ID of the DTO.
+     * @return The sample DTO.
+     */
+    static Object dto(String service, long id) {
+        return switch (service) {
+            case "Appointment" -> appointmentDto(id);
+            case "Doctor" -> DoctorDto.builder().id(id).firstName("John").lastName("Smith")
+                    .phone("+57 3000000001").email("doctor" + id + "@hospital.com").build();
+            case "DoctorSpecialty" -> DoctorSpecialtyDto.builder().id(id).doctorId(id).specialtyId(id)
+                    .certificationDate(DAY).experienceLevel("Senior").build();
+            case "MedicalRecord" -> MedicalRecordDto.builder().id(id).diagnosis("Hypertension").treatment("Lifestyle changes")
+                    .entryDate(DAY).patientId(id).responsibleDoctorId(id).build();
+            case "Patient" -> patientDto(id);
+            case "PatientRoom" -> PatientRoomDto.builder().id(id).patientId(id).roomId(id)
+                    .checkInDate(DAY).checkOutDate(DAY).observations("Stable").build();
+            case "Room" -> RoomDto.builder().id(id).number("R" + id).floor("3").type("General").occupancyStatus("Available").build();
+            case "Specialty" -> SpecialtyDto.builder().id(id).name("Cardiology").description("Heart and blood vessels").build();
+            default -> throw new IllegalArgumentException("Unknown service: " + service);
+        };
+    }
+
+    /**
+     * Builds a sample appointment DTO.
+     *
+     * @param id The ID of the DTO.
+     * @return The sample {@link AppointmentDto}.
+     */
+    static AppointmentDto appointmentDto(long id) {
+        return AppointmentDto.builder().id(id).date(LocalDateTime.of(2030, 1, 1, 10, 0))
+                .patientId(id).doctorId(id).reason("Routine checkup").status("Scheduled").build();
+    }
+
+    /**
+     * Builds a sample patient DTO.
+     *
+     * @param id The ID of the DTO.
+     * @return The sample {@link PatientDto}.
+     */
+    static PatientDto patientDto(long id) {
+        return PatientDto.builder().id(id).firstName("Jane").lastName("Doe").birthDate(BIRTH_DATE)
+                .phone("+57 3000000000").address("123 Calle Falsa").build();
+    }
+}
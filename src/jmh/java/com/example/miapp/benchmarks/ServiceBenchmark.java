@@ -0,0 +1,105 @@
+package com.example.miapp.benchmarks;
+
+import com.example.miapp.api.ApiApplication;
+import com.example.miapp.dto.AppointmentDto;
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.PatientDto;
+import com.example.miapp.services.AppointmentService;
+import com.example.miapp.services.CursorPaginator;
+import com.example.miapp.services.DoctorScheduleIndex;
+import com.example.miapp.services.PatientService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the service layer end to end (transaction, queries, mapping) against an embedded H2
+ * database seeded with {@link #rows} patients and appointments.
+ * The application context runs without the web layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ServiceBenchmark {
+
+    private static final int DOCTORS = 100;
+    private static final int PAGE_SIZE = 50;
+
+    /** Number of seeded patients and appointments. */
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private AppointmentService appointmentService;
+    private PatientService patientService;
+    private String middleCursor;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(BenchmarkDatabase.arguments());
+        BenchmarkDatabase.seed(context.getBean(JdbcTemplate.class), DOCTORS, rows);
+        context.getBean(DoctorScheduleIndex.class).rebuild();
+
+        appointmentService = context.getBean(AppointmentService.class);
+        patientService = context.getBean(PatientService.class);
+        middleCursor = context.getBean(CursorPaginator.class).encodeCursor((long) rows / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPage<AppointmentDto> getAllAppointmentsFirstPage() {
+        return appointmentService.getAllAppointments(null, null, null, null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPage<AppointmentDto> getAllAppointmentsMiddlePage() {
+        return appointmentService.getAllAppointments(null, null, null, null, middleCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPage<AppointmentDto> getAppointmentsByDoctorAndDateRange() {
+        LocalDateTime from = LocalDateTime.of(2020, 3, 1, 0, 0);
+        return appointmentService.getAllAppointments(1L, from, from.plusMonths(1), null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPage<PatientDto> getAllPatientsMiddlePage() {
+        return patientService.getAllPatients(middleCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public AppointmentDto saveAppointment() {
+        long next = sequence.incrementAndGet();
+        AppointmentDto dto = AppointmentDto.builder()
+                .date(LocalDateTime.of(2031, 1, 1, 0, 0).plusMinutes(30 * next))
+                .patientId(next % rows + 1)
+                .doctorId(next % DOCTORS + 1)
+                .reason("Routine checkup")
+                .status("Scheduled")
+                .build();
+        return appointmentService.saveAppointment(dto);
+    }
+
+    @Benchmark
+    public PatientDto savePatient() {
+        PatientDto dto = SampleData.patientDto(0);
+        dto.setId(null);
+        return patientService.savePatient(dto);
+    }
+}
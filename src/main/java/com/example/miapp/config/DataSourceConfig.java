@@ -0,0 +1,114 @@
+package com.example.miapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single auto-configured pool with a write pool on the primary database and read-only pools on
+ * its replicas.
+ * <p>
+ * The write pool is configured as before, from {@code spring.datasource} and {@code spring.datasource.hikari};
+ * the read pools from {@link ReadDataSourceProperties} and {@code app.datasource.read.hikari}, inheriting the
+ * driver properties of the write pool. The {@code dataSource} used by JPA routes read-only transactions to the
+ * healthy replicas in turn. Every pool reports {@code hikaricp.connections.active}, {@code .idle},
+ * {@code .pending} and the {@code .acquire} timer, tagged with its pool name.
+ */
+@Configuration
+@EnableConfigurationProperties(ReadDataSourceProperties.class)
+public class DataSourceConfig {
+
+    /**
+     * Creates the pool of read-write transactions.
+     *
+     * @param properties    The primary connection settings.
+     * @param meterRegistry The registry the pool metrics are reported to.
+     * @return The write pool, tuned by {@code spring.datasource.hikari}.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("write");
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    /**
+     * Creates the replicas of read-only transactions: one pool per entry of {@code app.datasource.read.replicas},
+     * or a single {@code read} pool on {@code app.datasource.read.url} (by default the primary database).
+     *
+     * @param properties      The primary connection settings, used for the unset read settings.
+     * @param readProperties  The read connection settings.
+     * @param writeDataSource The write pool, whose driver properties are inherited.
+     * @param environment     The environment the {@code app.datasource.read.hikari} settings are bound from.
+     * @param meterRegistry   The registry the pool and replica metrics are reported to.
+     * @return The replicas, closed with the context.
+     */
+    @Bean
+    public ReadReplicas readReplicas(DataSourceProperties properties, ReadDataSourceProperties readProperties,
+                                     @Qualifier("writeDataSource") HikariDataSource writeDataSource,
+                                     Environment environment, MeterRegistry meterRegistry) {
+        List<ReadDataSourceProperties.Replica> settings = readProperties.getReplicas();
+        if (settings.isEmpty()) {
+            ReadDataSourceProperties.Replica single = new ReadDataSourceProperties.Replica();
+            single.setName("read");
+            single.setUrl(readProperties.getUrl());
+            single.setUsername(readProperties.getUsername());
+            single.setPassword(readProperties.getPassword());
+            settings = List.of(single);
+        }
+        Binder binder = Binder.get(environment);
+        List<ReadReplicas.Replica> replicas = new ArrayList<>();
+        for (int index = 0; index < settings.size(); index++) {
+            ReadDataSourceProperties.Replica replica = settings.get(index);
+            String name = StringUtils.hasText(replica.getName()) ? replica.getName() : "read-" + index;
+            HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            if (StringUtils.hasText(replica.getUrl())) {
+                pool.setJdbcUrl(replica.getUrl());
+            }
+            if (StringUtils.hasText(replica.getUsername())) {
+                pool.setUsername(replica.getUsername());
+            }
+            if (StringUtils.hasText(replica.getPassword())) {
+                pool.setPassword(replica.getPassword());
+            }
+            pool.setDataSourceProperties(writeDataSource.getDataSourceProperties());
+            pool.setReadOnly(true);
+            binder.bind("app.datasource.read.hikari", Bindable.ofInstance(pool));
+            pool.setPoolName(name);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new ReadReplicas.Replica(name, pool));
+        }
+        return new ReadReplicas(replicas, readProperties.getMaxLag(), readProperties.getLagQuery(), meterRegistry);
+    }
+
+    /**
+     * Creates the data source used by JPA, handing out connections of the pool matching the transaction.
+     *
+     * @param writeDataSource The write pool.
+     * @param readReplicas    The replicas of read-only transactions.
+     * @return The routing data source.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource, ReadReplicas readReplicas) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(writeDataSource, readReplicas));
+    }
+}
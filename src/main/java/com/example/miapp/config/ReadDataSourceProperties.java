@@ -0,0 +1,63 @@
+package com.example.miapp.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connection settings of the read-only pools, bound from {@code app.datasource.read}.
+ * Unset connection values fall back to {@code spring.datasource}; every pool is tuned by
+ * {@code app.datasource.read.hikari}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.datasource.read")
+public class ReadDataSourceProperties {
+
+    /** JDBC URL of the single database serving read-only transactions when no replicas are listed; defaults to the primary database. */
+    private String url;
+
+    /** Login user; defaults to {@code spring.datasource.username}. */
+    private String username;
+
+    /** Login password; defaults to {@code spring.datasource.password}. */
+    private String password;
+
+    /** Replicas serving read-only transactions in turn; when empty, a single pool on {@code url} is used. */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** Replicas lagging further behind the primary are taken out of rotation until they catch up. */
+    private Duration maxLag = Duration.ofSeconds(10);
+
+    /**
+     * Query returning the replication lag of a replica in seconds, from its {@code Seconds_Behind_Source} (or
+     * {@code Seconds_Behind_Master}) column or else its first column, e.g. {@code SHOW REPLICA STATUS}.
+     * No rows means no lag; a null lag means replication is stopped. When unset, replicas are only checked for
+     * connectivity.
+     */
+    private String lagQuery;
+
+    /**
+     * Connection settings of a single replica.
+     */
+    @Getter
+    @Setter
+    public static class Replica {
+
+        /** Name of the replica, used as its pool name; defaults to {@code read-<index>}. */
+        private String name;
+
+        /** JDBC URL of the replica. */
+        private String url;
+
+        /** Login user; defaults to {@code spring.datasource.username}. */
+        private String username;
+
+        /** Login password; defaults to {@code spring.datasource.password}. */
+        private String password;
+    }
+}
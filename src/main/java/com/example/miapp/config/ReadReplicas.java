@@ -0,0 +1,188 @@
+package com.example.miapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The replicas serving read-only transactions, handed out in turn among the healthy ones.
+ * <p>
+ * A replica is ejected from the rotation when a connection cannot be obtained from it, or when {@link #check()}
+ * finds it unreachable or lagging more than the tolerated replication lag; it rejoins once a check succeeds.
+ * Checks run every {@code app.datasource.read.health-check-interval}. The number of replicas in rotation is
+ * exported as {@code datasource.replicas.healthy}.
+ */
+@Slf4j
+public class ReadReplicas implements AutoCloseable {
+
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * A replica and its health.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    @ToString(of = "name")
+    public static final class Replica {
+
+        /** Name of the replica, as used in the logs. */
+        private final String name;
+
+        /** The connection pool of the replica. */
+        private final DataSource dataSource;
+
+        /** Whether the replica is in rotation. */
+        private volatile boolean healthy = true;
+    }
+
+    /**
+     * Creates the replica set; all replicas start in rotation.
+     *
+     * @param replicas      The replicas.
+     * @param maxLag        The tolerated replication lag.
+     * @param lagQuery      The query returning the lag of a replica, or null to only check connectivity.
+     * @param meterRegistry The registry the number of healthy replicas is reported to, or null.
+     */
+    public ReadReplicas(List<Replica> replicas, Duration maxLag, String lagQuery, MeterRegistry meterRegistry) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one read replica is required");
+        }
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        if (meterRegistry != null) {
+            Gauge.builder("datasource.replicas.healthy", this, ReadReplicas::healthyCount)
+                    .description("Read replicas in rotation")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Returns all replicas, healthy or not.
+     *
+     * @return The replicas.
+     */
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Picks the next healthy replica, round robin.
+     *
+     * @return The replica, or null if none is healthy.
+     */
+    public Replica next() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int offset = 0; offset < replicas.size(); offset++) {
+            Replica replica = replicas.get((start + offset) % replicas.size());
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes a replica out of rotation until its next successful check.
+     *
+     * @param replica The replica.
+     * @param reason  Why it is ejected.
+     */
+    public void eject(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Read replica {} taken out of rotation: {}", replica.name, reason);
+        }
+    }
+
+    /**
+     * Checks the connectivity and replication lag of every replica, ejecting or readmitting it.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.read.health-check-interval:5s}")
+    public void check() {
+        for (Replica replica : replicas) {
+            String problem;
+            try {
+                problem = probe(replica);
+            } catch (SQLException ex) {
+                problem = ex.getMessage();
+            }
+            if (problem != null) {
+                eject(replica, problem);
+            } else if (!replica.healthy) {
+                replica.healthy = true;
+                log.info("Read replica {} back in rotation", replica.name);
+            }
+        }
+    }
+
+    /**
+     * Closes the connection pools of the replicas.
+     */
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        }
+    }
+
+    /**
+     * Checks a replica.
+     *
+     * @param replica The replica.
+     * @return Why the replica is unhealthy, or null if it is healthy.
+     * @throws SQLException If the replica cannot be reached.
+     */
+    private String probe(Replica replica) throws SQLException {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (lagQuery == null) {
+                return connection.isValid(1) ? null : "connection is not valid";
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                long lag = resultSet.getLong(lagColumn(resultSet.getMetaData()));
+                if (resultSet.wasNull()) {
+                    return "replication is not running";
+                }
+                return lag > maxLag.toSeconds() ? "replication lag of " + lag + "s exceeds " + maxLag.toSeconds() + "s" : null;
+            }
+        }
+    }
+
+    private int healthyCount() {
+        return (int) replicas.stream().filter(Replica::isHealthy).count();
+    }
+
+    private static int lagColumn(ResultSetMetaData metaData) throws SQLException {
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            String label = metaData.getColumnLabel(column);
+            if (label.equalsIgnoreCase("Seconds_Behind_Source") || label.equalsIgnoreCase("Seconds_Behind_Master")) {
+                return column;
+            }
+        }
+        return 1;
+    }
+}
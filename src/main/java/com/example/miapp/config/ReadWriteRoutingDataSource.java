@@ -0,0 +1,71 @@
+package com.example.miapp.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes connections of read-only transactions ({@code @Transactional(readOnly = true)}) to the healthy
+ * {@link ReadReplicas} in turn and all others to the primary.
+ * <p>
+ * A replica that fails to hand out a connection is ejected and the next one is tried; when no replica is
+ * healthy, read-only transactions run on the primary. The read-only flag of a transaction is only published
+ * once the transaction manager has begun it, after the JPA provider asked for a connection. This data source
+ * must therefore sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which
+ * defers the actual lookup to the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /** Lookup key of the primary. */
+    private static final String PRIMARY = "primary";
+
+    private final ReadReplicas replicas;
+
+    /**
+     * Creates the router.
+     *
+     * @param primary  The data source of read-write transactions and of work outside transactions.
+     * @param replicas The replicas of read-only transactions.
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, ReadReplicas replicas) {
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.getReplicas().forEach(replica -> targets.put(replica, replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        while (key instanceof ReadReplicas.Replica replica) {
+            try {
+                return getResolvedDataSources().get(replica).getConnection();
+            } catch (SQLException ex) {
+                replicas.eject(replica, ex.getMessage());
+                key = determineCurrentLookupKey();
+            }
+        }
+        return getResolvedDataSources().get(PRIMARY).getConnection();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadReplicas.Replica replica = replicas.next();
+            if (replica != null) {
+                return replica;
+            }
+        }
+        return PRIMARY;
+    }
+}
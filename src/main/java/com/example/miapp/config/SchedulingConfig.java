@@ -0,0 +1,16 @@
+package com.example.miapp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} maintenance tasks, such as rolling the room occupancy window forward every night,
+ * and {@code @Async} methods. Both run on the auto-configured executors, which use virtual threads when
+ * {@code spring.threads.virtual.enabled} is set.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,92 @@
+package com.example.miapp.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.OptionalLong;
+
+/**
+ * Configures the in-process JCache (Caffeine) provider backing the Hibernate second-level cache.
+ * <p>
+ * Each region listed under {@code app.cache.regions} is created with its own TTL and size bound;
+ * Hibernate creates any other region it needs (e.g. update timestamps) with the provider defaults.
+ * The statistics Caffeine keeps for each configured region are exported through actuator as {@code cache.gets}
+ * (tagged {@code result=hit|miss}), {@code cache.puts} and {@code cache.removals}, tagged with the region name;
+ * they do not need Hibernate statistics.
+ */
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    /**
+     * Creates the JCache manager used by Hibernate, with one cache per configured region.
+     *
+     * @param properties The configured cache regions.
+     * @return The {@link CacheManager} handed over to Hibernate.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(SecondLevelCacheProperties properties) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        properties.getRegions().forEach((name, region) -> {
+            if (cacheManager.getCache(name) == null) {
+                cacheManager.createCache(name, toConfiguration(region));
+            }
+        });
+        return cacheManager;
+    }
+
+    /**
+     * Hands the configured cache manager over to Hibernate's JCache region factory.
+     *
+     * @param hibernateCacheManager The cache manager holding the configured regions.
+     * @return The customizer registering the cache manager.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    /**
+     * Exports the hit, miss, put and removal counts of every configured region.
+     *
+     * @param hibernateCacheManager The cache manager holding the configured regions.
+     * @param properties            The configured cache regions.
+     * @return The binder registering one set of cache meters per region.
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager, SecondLevelCacheProperties properties) {
+        return registry -> properties.getRegions().keySet().forEach(name -> {
+            Cache<Object, Object> cache = hibernateCacheManager.getCache(name);
+            if (cache != null) {
+                JCacheMetrics.monitor(registry, cache);
+            }
+        });
+    }
+
+    /**
+     * Builds the Caffeine configuration of a region.
+     *
+     * @param region The region settings.
+     * @return The corresponding {@link CaffeineConfiguration}.
+     */
+    private CaffeineConfiguration<Object, Object> toConfiguration(SecondLevelCacheProperties.Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        configuration.setMaximumSize(OptionalLong.of(region.getMaxSize()));
+        configuration.setExpireAfterWrite(OptionalLong.of(region.getTtl().toNanos()));
+        return configuration;
+    }
+}
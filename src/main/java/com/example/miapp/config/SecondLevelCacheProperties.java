@@ -0,0 +1,35 @@
+package com.example.miapp.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of the Hibernate second-level cache regions, bound from {@code app.cache}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache")
+public class SecondLevelCacheProperties {
+
+    /** Cache regions, keyed by region name (as declared on the entities and cacheable queries). */
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    /**
+     * Settings of a single cache region.
+     */
+    @Getter
+    @Setter
+    public static class Region {
+
+        /** Time after which an entry is evicted, counted from its creation or last update. */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /** Maximum number of entries kept in the region. */
+        private long maxSize = 10_000;
+    }
+}
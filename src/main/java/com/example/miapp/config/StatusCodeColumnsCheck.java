@@ -0,0 +1,85 @@
+package com.example.miapp.config;
+
+import com.example.miapp.entity.AppointmentStatusConverter;
+import com.example.miapp.entity.OccupancyStatusConverter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Refuses to start on a database whose status columns still hold the full status names.
+ * <p>
+ * {@link AppointmentStatusConverter} and {@link OccupancyStatusConverter} read one character per status. On a
+ * column that was never converted with {@code db/mysql/status_codes.sql}, Hibernate reads only the first
+ * character of the stored name, so "Canceled" comes back as {@code C} (Completed) and is written back that way on
+ * the next update. The columns are therefore required to be one character wide, which the migration guarantees,
+ * before anything is read. Runs after the entity manager factory, so a schema managed by {@code ddl-auto} exists.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class StatusCodeColumnsCheck implements InitializingBean {
+
+    /** Status columns stored as one-character codes, by table. */
+    private static final Map<String, String> STATUS_COLUMNS = Map.of(
+            "appointment", "status",
+            "room", "occupancy_status");
+
+    private final DataSource dataSource;
+
+    public StatusCodeColumnsCheck(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Checks the width of every status column; tables that do not exist yet are skipped.
+     *
+     * @throws IllegalStateException If a status column is wider than one character.
+     * @throws SQLException          If the database metadata cannot be read.
+     */
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (Map.Entry<String, String> column : STATUS_COLUMNS.entrySet()) {
+                Integer width = columnWidth(metaData, connection, column.getKey(), column.getValue());
+                if (width != null && width > 1) {
+                    throw new IllegalStateException("Column " + column.getKey() + "." + column.getValue() + " is "
+                            + width + " characters wide, but statuses are stored as one-character codes. "
+                            + "Convert the database with db/mysql/status_codes.sql before starting the application.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks up the declared width of a column, trying the name as written and in upper case (as H2 stores it).
+     *
+     * @param metaData   The database metadata.
+     * @param connection The connection the metadata belongs to.
+     * @param table      The table name.
+     * @param column     The column name.
+     * @return The column width in characters, or null if the column does not exist.
+     * @throws SQLException If the metadata cannot be read.
+     */
+    private Integer columnWidth(DatabaseMetaData metaData, Connection connection, String table, String column)
+            throws SQLException {
+        for (boolean upperCase : new boolean[]{false, true}) {
+            String tableName = upperCase ? table.toUpperCase(Locale.ROOT) : table;
+            String columnName = upperCase ? column.toUpperCase(Locale.ROOT) : column;
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(), tableName, columnName)) {
+                if (columns.next()) {
+                    return columns.getInt("COLUMN_SIZE");
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -1,14 +1,28 @@
 package com.example.miapp.controller;
 
 import com.example.miapp.dto.AppointmentDto;
+import com.example.miapp.dto.AppointmentStatusDto;
+import com.example.miapp.dto.BatchItemResult;
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.MultiGetResult;
+import com.example.miapp.dto.StatusChangeDto;
 import com.example.miapp.services.AppointmentService;
+import com.example.miapp.services.JsonMergePatch;
+import com.example.miapp.services.SchedulingConflictException;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Controller for managing appointment-related operations.
@@ -21,13 +35,52 @@ public class AppointmentController {
     private final AppointmentService appointmentService;
 
     /**
-     * Retrieves all appointments.
+     * Retrieves one page of appointments, ordered by ID (by date and then ID when filtered by date range),
+     * optionally filtered by status, doctor and date range.
      *
-     * @return List of {@link AppointmentDto} containing all appointments.
+     * @param doctorId Optional ID of the doctor; requires {@code from} and {@code to}.
+     * @param from     Optional start of the date range (inclusive), in ISO-8601 format.
+     * @param to       Optional end of the date range (exclusive), in ISO-8601 format.
+     * @param status   Optional status (Scheduled, Completed or Canceled).
+     * @param after    Opaque cursor returned with the previous page; omit it for the first page.
+     * @param limit    Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link AppointmentDto} with the cursor of the next page.
      */
     @GetMapping
-    public ResponseEntity<List<AppointmentDto>> getAllAppointments() {
-        return ResponseEntity.ok(appointmentService.getAllAppointments());
+    public ResponseEntity<CursorPage<AppointmentDto>> getAllAppointments(
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(appointmentService.getAllAppointments(doctorId, from, to, status, after, limit));
+    }
+
+    /**
+     * Retrieves several appointments by ID in one request, e.g. {@code ?ids=3,1,2}.
+     *
+     * @param ids The IDs of the appointments, comma-separated or repeated.
+     * @return {@link MultiGetResult} with the {@link AppointmentDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResult<AppointmentDto>> getAppointmentsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(appointmentService.getAppointmentsByIds(ids));
+    }
+
+    /**
+     * Exports all appointments as newline-delimited JSON.
+     * The response is streamed row by row instead of being built in memory.
+     *
+     * @return Streaming body writing one {@link AppointmentDto} per line.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAppointments() {
+        StreamingResponseBody body = appointmentService::exportAppointments;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
@@ -53,6 +106,18 @@ public class AppointmentController {
         return ResponseEntity.ok(appointmentService.saveAppointment(appointmentDto));
     }
 
+    /**
+     * Creates or updates a batch of appointments.
+     * Items with an ID update the existing appointment; the others are created.
+     *
+     * @param appointmentDtos The appointments to create or update.
+     * @return One {@link BatchItemResult} per submitted item, in request order.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult<AppointmentDto>>> createAppointments(@RequestBody List<AppointmentDto> appointmentDtos) {
+        return ResponseEntity.ok(appointmentService.saveAppointments(appointmentDtos));
+    }
+
     /**
      * Updates an existing appointment.
      *
@@ -66,6 +131,51 @@ public class AppointmentController {
         return ResponseEntity.ok(appointmentService.updateAppointment(id, appointmentDto));
     }
 
+    /**
+     * Partially updates an appointment with a JSON Merge Patch: fields absent from the patch keep their value
+     * and {@code null} clears a field.
+     *
+     * @param id    The ID of the appointment to update.
+     * @param patch The merge patch ({@code application/merge-patch+json}).
+     * @return The updated {@link AppointmentDto}.
+     * @throws EntityNotFoundException If the appointment does not exist.
+     */
+    @PatchMapping(value = "/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<AppointmentDto> patchAppointment(@PathVariable Long id, @RequestBody JsonNode patch) {
+        return ResponseEntity.ok(appointmentService.patchAppointment(id, patch));
+    }
+
+    /**
+     * Changes the status of an appointment asynchronously.
+     * The change is queued and written in a batch with other changes; a later change of the same
+     * appointment arriving before the write replaces it.
+     *
+     * @param id                   The ID of the appointment.
+     * @param appointmentStatusDto The new status.
+     * @return Response with status 202 (Accepted) and the {@link StatusChangeDto} to track the change.
+     * @throws EntityNotFoundException If the appointment does not exist.
+     */
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<StatusChangeDto> updateAppointmentStatus(@PathVariable Long id,
+                                                                   @Valid @RequestBody AppointmentStatusDto appointmentStatusDto) {
+        StatusChangeDto change = appointmentService.updateAppointmentStatus(id, appointmentStatusDto.getStatus());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/appointments/status-changes/" + change.getTrackingId()))
+                .body(change);
+    }
+
+    /**
+     * Retrieves the state of a queued status change.
+     *
+     * @param trackingId The tracking ID returned when the change was accepted.
+     * @return {@link StatusChangeDto} with the current state of the change.
+     * @throws EntityNotFoundException If the tracking ID is unknown or has expired.
+     */
+    @GetMapping("/status-changes/{trackingId}")
+    public ResponseEntity<StatusChangeDto> getStatusChange(@PathVariable String trackingId) {
+        return ResponseEntity.ok(appointmentService.getStatusChange(trackingId));
+    }
+
     /**
      * Deletes an appointment by its ID.
      *
@@ -89,4 +199,37 @@ public class AppointmentController {
     public ResponseEntity<String> handleEntityNotFoundException(EntityNotFoundException ex) {
         return ResponseEntity.status(404).body(ex.getMessage());
     }
+
+    /**
+     * Handles exceptions related to invalid arguments (e.g., a malformed pagination cursor).
+     *
+     * @param ex The exception thrown.
+     * @return ResponseEntity with status 400 (Bad Request) and error message.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(400).body(ex.getMessage());
+    }
+
+    /**
+     * Handles scheduling conflicts (e.g., a doctor already booked at that time).
+     *
+     * @param ex The exception thrown.
+     * @return ResponseEntity with status 409 (Conflict) and error message.
+     */
+    @ExceptionHandler(SchedulingConflictException.class)
+    public ResponseEntity<String> handleSchedulingConflictException(SchedulingConflictException ex) {
+        return ResponseEntity.status(409).body(ex.getMessage());
+    }
+
+    /**
+     * Handles status changes rejected because the queue is full.
+     *
+     * @param ex The exception thrown.
+     * @return ResponseEntity with status 503 (Service Unavailable) and error message.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleRejectedExecutionException(RejectedExecutionException ex) {
+        return ResponseEntity.status(503).body(ex.getMessage());
+    }
 }
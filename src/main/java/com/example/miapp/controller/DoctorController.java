@@ -1,13 +1,26 @@
 package com.example.miapp.controller;
 
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.DoctorAvailabilityDto;
 import com.example.miapp.dto.DoctorDto;
+import com.example.miapp.dto.MultiGetResult;
+import com.example.miapp.entity.Doctor;
+import com.example.miapp.services.EntityVersionCache;
 import com.example.miapp.services.DoctorService;
+import com.example.miapp.services.JsonMergePatch;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -19,27 +32,66 @@ import java.util.List;
 public class DoctorController {
 
     private final DoctorService doctorService;
+    private final EntityVersionCache entityVersionCache;
 
     /**
-     * Retrieves all doctors.
+     * Retrieves one page of doctors, ordered by ID.
      *
-     * @return List of {@link DoctorDto} containing all doctors.
+     * @param after Opaque cursor returned with the previous page; omit it for the first page.
+     * @param limit Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link DoctorDto} with the cursor of the next page.
      */
     @GetMapping
-    public ResponseEntity<List<DoctorDto>> getAllDoctors() {
-        return ResponseEntity.ok(doctorService.getAllDoctors());
+    public ResponseEntity<CursorPage<DoctorDto>> getAllDoctors(@RequestParam(required = false) String after,
+                                                               @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(doctorService.getAllDoctors(after, limit));
     }
 
     /**
-     * Retrieves a doctor by its ID.
+     * Retrieves several doctors by ID in one request, e.g. {@code ?ids=3,1,2}.
      *
-     * @param id The ID of the doctor.
-     * @return {@link DoctorDto} containing the requested doctor details.
+     * @param ids The IDs of the doctors, comma-separated or repeated.
+     * @return {@link MultiGetResult} with the {@link DoctorDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResult<DoctorDto>> getDoctorsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(doctorService.getDoctorsByIds(ids));
+    }
+
+    /**
+     * Retrieves a doctor by its ID, with its version as a strong ETag.
+     * If {@code If-None-Match} matches the last known version, 304 (Not Modified) is returned without
+     * loading the doctor.
+     *
+     * @param id          The ID of the doctor.
+     * @param ifNoneMatch Optional ETags the client already holds.
+     * @return {@link DoctorDto} containing the requested doctor details, or 304 (Not Modified).
      * @throws EntityNotFoundException If the doctor does not exist.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<DoctorDto> getDoctorById(@PathVariable Long id) {
-        return ResponseEntity.ok(doctorService.getDoctorById(id));
+    public ResponseEntity<DoctorDto> getDoctorById(@PathVariable Long id,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ETags.conditionalGet(ifNoneMatch, entityVersionCache.get(Doctor.class, id),
+                () -> doctorService.getDoctorById(id), DoctorDto::getVersion);
+    }
+
+    /**
+     * Retrieves the booked and free appointment slots of a doctor within a time range.
+     *
+     * @param id   The ID of the doctor.
+     * @param from The start of the range (inclusive), in ISO-8601 format.
+     * @param to   The end of the range (exclusive), in ISO-8601 format.
+     * @return The {@link DoctorAvailabilityDto} of the doctor.
+     * @throws EntityNotFoundException  If the doctor does not exist.
+     * @throws IllegalArgumentException If the range is invalid.
+     */
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<DoctorAvailabilityDto> getDoctorAvailability(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(doctorService.getDoctorAvailability(id, from, to));
     }
 
     /**
@@ -55,15 +107,41 @@ public class DoctorController {
 
     /**
      * Updates an existing doctor.
+     * With {@code If-Match}, the update is only applied if the doctor is still at that version.
      *
      * @param id        The ID of the doctor to update.
+     * @param ifMatch   Optional ETag of the version the update is based on.
      * @param doctorDto The new data for the doctor.
-     * @return The updated {@link DoctorDto}.
-     * @throws EntityNotFoundException If the doctor does not exist.
+     * @return The updated {@link DoctorDto}, with its new ETag.
+     * @throws EntityNotFoundException           If the doctor does not exist.
+     * @throws OptimisticLockingFailureException If the doctor has been modified since that version.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<DoctorDto> updateDoctor(@PathVariable Long id, @Valid @RequestBody DoctorDto doctorDto) {
-        return ResponseEntity.ok(doctorService.updateDoctor(id, doctorDto));
+    public ResponseEntity<DoctorDto> updateDoctor(@PathVariable Long id,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                  @Valid @RequestBody DoctorDto doctorDto) {
+        DoctorDto updated = doctorService.updateDoctor(id, doctorDto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
+    }
+
+    /**
+     * Partially updates a doctor with a JSON Merge Patch: fields absent from the patch keep their value
+     * and {@code null} clears a field. With {@code If-Match}, the patch is only applied if the doctor is still
+     * at that version.
+     *
+     * @param id      The ID of the doctor to update.
+     * @param ifMatch Optional ETag of the version the patch is based on.
+     * @param patch   The merge patch ({@code application/merge-patch+json}).
+     * @return The updated {@link DoctorDto}, with its new ETag.
+     * @throws EntityNotFoundException           If the doctor does not exist.
+     * @throws OptimisticLockingFailureException If the doctor has been modified since that version.
+     */
+    @PatchMapping(value = "/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<DoctorDto> patchDoctor(@PathVariable Long id,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 @RequestBody JsonNode patch) {
+        DoctorDto updated = doctorService.patchDoctor(id, patch, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
     }
 
     /**
@@ -89,4 +167,29 @@ public class DoctorController {
     public ResponseEntity<String> handleEntityNotFoundException(EntityNotFoundException ex) {
         return ResponseEntity.status(404).body(ex.getMessage());
     }
+
+    /**
+     * Handles exceptions related to invalid arguments (e.g., a malformed pagination cursor).
+     *
+     * @param ex The exception thrown.
+     * @return ResponseEntity with status 400 (Bad Request) and error message.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(400).body(ex.getMessage());
+    }
+
+    /**
+     * Handles updates based on an outdated version of the doctor.
+     *
+     * @param ex      The exception thrown.
+     * @param request The failed request.
+     * @return ResponseEntity with status 412 (Precondition Failed) if the request carried {@code If-Match},
+     * 409 (Conflict) otherwise, and error message.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex,
+                                                                          WebRequest request) {
+        return ResponseEntity.status(ETags.conflictStatus(request.getHeader(HttpHeaders.IF_MATCH))).body(ex.getMessage());
+    }
 }
@@ -1,10 +1,15 @@
 package com.example.miapp.controller;
 
+import com.example.miapp.dto.CursorPage;
 import com.example.miapp.dto.DoctorSpecialtyDto;
+import com.example.miapp.dto.MultiGetResult;
 import com.example.miapp.services.DoctorSpecialtyService;
+import com.example.miapp.services.JsonMergePatch;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,13 +26,28 @@ public class DoctorSpecialtyController {
     private final DoctorSpecialtyService doctorSpecialtyService;
 
     /**
-     * Retrieves all doctor-specialty assignments.
+     * Retrieves one page of doctor-specialty assignments, ordered by ID.
      *
-     * @return List of {@link DoctorSpecialtyDto} containing all assignments.
+     * @param after Opaque cursor returned with the previous page; omit it for the first page.
+     * @param limit Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link DoctorSpecialtyDto} with the cursor of the next page.
      */
     @GetMapping
-    public ResponseEntity<List<DoctorSpecialtyDto>> getAllDoctorSpecialties() {
-        return ResponseEntity.ok(doctorSpecialtyService.getAllDoctorSpecialties());
+    public ResponseEntity<CursorPage<DoctorSpecialtyDto>> getAllDoctorSpecialties(@RequestParam(required = false) String after,
+                                                                                  @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(doctorSpecialtyService.getAllDoctorSpecialties(after, limit));
+    }
+
+    /**
+     * Retrieves several doctor-specialty assignments by ID in one request, e.g. {@code ?ids=3,1,2}.
+     *
+     * @param ids The IDs of the doctor-specialty assignments, comma-separated or repeated.
+     * @return {@link MultiGetResult} with the {@link DoctorSpecialtyDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResult<DoctorSpecialtyDto>> getDoctorSpecialtiesByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(doctorSpecialtyService.getDoctorSpecialtiesByIds(ids));
     }
 
     /**
@@ -66,6 +86,20 @@ public class DoctorSpecialtyController {
         return ResponseEntity.ok(doctorSpecialtyService.updateDoctorSpecialty(id, doctorSpecialtyDto));
     }
 
+    /**
+     * Partially updates a doctor-specialty assignment with a JSON Merge Patch: fields absent from the patch keep their value
+     * and {@code null} clears a field.
+     *
+     * @param id    The ID of the doctor-specialty assignment to update.
+     * @param patch The merge patch ({@code application/merge-patch+json}).
+     * @return The updated {@link DoctorSpecialtyDto}.
+     * @throws EntityNotFoundException If the doctor-specialty assignment does not exist.
+     */
+    @PatchMapping(value = "/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<DoctorSpecialtyDto> patchDoctorSpecialty(@PathVariable Long id, @RequestBody JsonNode patch) {
+        return ResponseEntity.ok(doctorSpecialtyService.patchDoctorSpecialty(id, patch));
+    }
+
     /**
      * Deletes a doctor-specialty assignment by its ID.
      *
@@ -89,4 +123,15 @@ public class DoctorSpecialtyController {
     public ResponseEntity<String> handleEntityNotFoundException(EntityNotFoundException ex) {
         return ResponseEntity.status(404).body(ex.getMessage());
     }
+
+    /**
+     * Handles exceptions related to invalid arguments (e.g., a malformed pagination cursor).
+     *
+     * @param ex The exception thrown.
+     * @return ResponseEntity with status 400 (Bad Request) and error message.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(400).body(ex.getMessage());
+    }
 }
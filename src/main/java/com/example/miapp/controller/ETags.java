@@ -0,0 +1,110 @@
+package com.example.miapp.controller;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Helpers for the strong ETags derived from entity versions, and the conditional requests using them.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Builds the ETag of an entity version.
+     *
+     * @param version The entity version.
+     * @return The quoted ETag.
+     */
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Answers a conditional GET: 304 (Not Modified) when {@code If-None-Match} matches the cached version or,
+     * failing that, the loaded one; otherwise 200 with the loaded body and its ETag.
+     *
+     * @param ifNoneMatch   The {@code If-None-Match} header, or null.
+     * @param cachedVersion The last known version of the entity, or null; when it matches, nothing is loaded.
+     * @param loader        Loads the body.
+     * @param versionOf     Extracts the version of the loaded body.
+     * @param <T>           The body type.
+     * @return The response.
+     */
+    static <T> ResponseEntity<T> conditionalGet(String ifNoneMatch, Long cachedVersion, Supplier<T> loader,
+                                                Function<T, Long> versionOf) {
+        if (cachedVersion != null && matches(ifNoneMatch, cachedVersion)) {
+            return notModified(cachedVersion);
+        }
+        T body = loader.get();
+        long version = versionOf.apply(body);
+        if (matches(ifNoneMatch, version)) {
+            return notModified(version);
+        }
+        return ResponseEntity.ok().eTag(of(version)).body(body);
+    }
+
+    /**
+     * Extracts the version an update is based on from an {@code If-Match} header.
+     *
+     * @param ifMatch The {@code If-Match} header, or null.
+     * @return The expected version, or null if the header is absent or {@code *}.
+     * @throws IllegalArgumentException If the header is not a single strong ETag of a version.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("If-Match must be a single strong ETag, e.g. \"3\".");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Unknown ETag in If-Match: " + tag);
+        }
+    }
+
+    /**
+     * Picks the status of an update that lost against a concurrent one: 412 (Precondition Failed) when the client
+     * made it conditional with {@code If-Match}, 409 (Conflict) when no precondition was sent.
+     *
+     * @param ifMatch The {@code If-Match} header of the request, or null.
+     * @return The HTTP status code.
+     */
+    static int conflictStatus(String ifMatch) {
+        return expectedVersion(ifMatch) != null ? 412 : 409;
+    }
+
+    /**
+     * Checks whether an {@code If-None-Match} header matches a version, using weak comparison.
+     *
+     * @param ifNoneMatch The header value, or null.
+     * @param version     The entity version.
+     * @return True if the header is {@code *} or lists the version's ETag.
+     */
+    private static boolean matches(String ifNoneMatch, long version) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String etag = of(version);
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> ResponseEntity<T> notModified(long version) {
+        return ResponseEntity.status(304).eTag(of(version)).build();
+    }
+}
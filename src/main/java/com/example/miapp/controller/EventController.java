@@ -0,0 +1,48 @@
+package com.example.miapp.controller;
+
+import com.example.miapp.dto.ChangeEventDto;
+import com.example.miapp.services.ChangeEventStreams;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Controller streaming the committed changes of all entities as Server-Sent Events.
+ */
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class EventController {
+
+    private final ChangeEventStreams changeEventStreams;
+
+    /**
+     * Opens a stream of {@link ChangeEventDto}, sent as {@code change} events whose ID is their sequence.
+     * A {@code reset} event means that changes were missed and the client should reload its data.
+     *
+     * @param lastEventId The ID of the last event received, sent by {@code EventSource} when it reconnects.
+     * @param since       The sequence of the last event seen, for clients resuming explicitly; ignored when
+     *                    {@code Last-Event-ID} is present. Without either, only new changes are sent.
+     * @return The event stream.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                   @RequestParam(required = false) Long since) {
+        return changeEventStreams.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
+    /**
+     * Handles RejectedExecutionException and returns a 503 status.
+     *
+     * @param ex The exception thrown when too many streams are open.
+     * @return Response entity with error message.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleRejectedExecutionException(RejectedExecutionException ex) {
+        return ResponseEntity.status(503).body(ex.getMessage());
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.miapp.controller;
 
+import com.example.miapp.dto.CursorPage;
 import com.example.miapp.dto.MedicalRecordDto;
+import com.example.miapp.dto.MultiGetResult;
+import com.example.miapp.services.JsonMergePatch;
 import com.example.miapp.services.MedicalRecordService;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,13 +26,28 @@ public class MedicalRecordController {
     private final MedicalRecordService medicalRecordService;
 
     /**
-     * Retrieves all medical records.
+     * Retrieves one page of medical records, ordered by ID.
      *
-     * @return List of {@link MedicalRecordDto} containing all medical records.
+     * @param after Opaque cursor returned with the previous page; omit it for the first page.
+     * @param limit Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link MedicalRecordDto} with the cursor of the next page.
      */
     @GetMapping
-    public ResponseEntity<List<MedicalRecordDto>> getAllMedicalRecords() {
-        return ResponseEntity.ok(medicalRecordService.getAllMedicalRecords());
+    public ResponseEntity<CursorPage<MedicalRecordDto>> getAllMedicalRecords(@RequestParam(required = false) String after,
+                                                                             @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(medicalRecordService.getAllMedicalRecords(after, limit));
+    }
+
+    /**
+     * Retrieves several medical records by ID in one request, e.g. {@code ?ids=3,1,2}.
+     *
+     * @param ids The IDs of the medical records, comma-separated or repeated.
+     * @return {@link MultiGetResult} with the {@link MedicalRecordDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResult<MedicalRecordDto>> getMedicalRecordsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(medicalRecordService.getMedicalRecordsByIds(ids));
     }
 
     /**
@@ -66,6 +86,20 @@ public class MedicalRecordController {
         return ResponseEntity.ok(medicalRecordService.updateMedicalRecord(id, medicalRecordDto));
     }
 
+    /**
+     * Partially updates a medical record with a JSON Merge Patch: fields absent from the patch keep their value
+     * and {@code null} clears a field.
+     *
+     * @param id    The ID of the medical record to update.
+     * @param patch The merge patch ({@code application/merge-patch+json}).
+     * @return The updated {@link MedicalRecordDto}.
+     * @throws EntityNotFoundException If the medical record does not exist.
+     */
+    @PatchMapping(value = "/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<MedicalRecordDto> patchMedicalRecord(@PathVariable Long id, @RequestBody JsonNode patch) {
+        return ResponseEntity.ok(medicalRecordService.patchMedicalRecord(id, patch));
+    }
+
     /**
      * Deletes a medical record by its ID.
      *
@@ -89,4 +123,15 @@ public class MedicalRecordController {
     public ResponseEntity<String> handleEntityNotFoundException(EntityNotFoundException ex) {
         return ResponseEntity.status(404).body(ex.getMessage());
     }
+
+    /**
+     * Handles exceptions related to invalid arguments (e.g., a malformed pagination cursor).
+     *
+     * @param ex The exception thrown.
+     * @return ResponseEntity with status 400 (Bad Request) and error message.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(400).body(ex.getMessage());
+    }
 }
@@ -1,12 +1,22 @@
 package com.example.miapp.controller;
 
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.MultiGetResult;
 import com.example.miapp.dto.PatientDto;
+import com.example.miapp.entity.Patient;
+import com.example.miapp.services.EntityVersionCache;
+import com.example.miapp.services.JsonMergePatch;
 import com.example.miapp.services.PatientService;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -19,27 +29,61 @@ import java.util.List;
 public class PatientController {
 
     private final PatientService patientService;
+    private final EntityVersionCache entityVersionCache;
 
     /**
-     * Retrieves all patients.
+     * Retrieves one page of patients, ordered by ID.
      *
-     * @return List of {@link PatientDto} containing all patients.
+     * @param after Opaque cursor returned with the previous page; omit it for the first page.
+     * @param limit Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link PatientDto} with the cursor of the next page.
      */
     @GetMapping
-    public ResponseEntity<List<PatientDto>> getAllPatients() {
-        return ResponseEntity.ok(patientService.getAllPatients());
+    public ResponseEntity<CursorPage<PatientDto>> getAllPatients(@RequestParam(required = false) String after,
+                                                                 @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(patientService.getAllPatients(after, limit));
     }
 
     /**
-     * Retrieves a patient by its ID.
+     * Retrieves several patients by ID in one request, e.g. {@code ?ids=3,1,2}.
      *
-     * @param id The ID of the patient.
-     * @return {@link PatientDto} containing the requested patient details.
+     * @param ids The IDs of the patients, comma-separated or repeated.
+     * @return {@link MultiGetResult} with the {@link PatientDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResult<PatientDto>> getPatientsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(patientService.getPatientsByIds(ids));
+    }
+
+    /**
+     * Searches patients by partial first name, last name or phone number, best match first.
+     *
+     * @param q     Words to find in the names (at least two letters each) and digits to find in the phone number.
+     * @param limit Requested number of results, capped at the server-side maximum.
+     * @return List of matching {@link PatientDto}.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<PatientDto>> searchPatients(@RequestParam String q,
+                                                           @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(patientService.searchPatients(q, limit));
+    }
+
+    /**
+     * Retrieves a patient by its ID, with its version as a strong ETag.
+     * If {@code If-None-Match} matches the last known version, 304 (Not Modified) is returned without
+     * loading the patient.
+     *
+     * @param id          The ID of the patient.
+     * @param ifNoneMatch Optional ETags the client already holds.
+     * @return {@link PatientDto} containing the requested patient details, or 304 (Not Modified).
      * @throws EntityNotFoundException If the patient does not exist.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<PatientDto> getPatientById(@PathVariable Long id) {
-        return ResponseEntity.ok(patientService.getPatientById(id));
+    public ResponseEntity<PatientDto> getPatientById(@PathVariable Long id,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ETags.conditionalGet(ifNoneMatch, entityVersionCache.get(Patient.class, id),
+                () -> patientService.getPatientById(id), PatientDto::getVersion);
     }
 
     /**
@@ -55,15 +99,41 @@ public class PatientController {
 
     /**
      * Updates an existing patient.
+     * With {@code If-Match}, the update is only applied if the patient is still at that version.
      *
      * @param id         The ID of the patient to update.
+     * @param ifMatch    Optional ETag of the version the update is based on.
      * @param patientDto The new data for the patient.
-     * @return The updated {@link PatientDto}.
-     * @throws EntityNotFoundException If the patient does not exist.
+     * @return The updated {@link PatientDto}, with its new ETag.
+     * @throws EntityNotFoundException           If the patient does not exist.
+     * @throws OptimisticLockingFailureException If the patient has been modified since that version.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<PatientDto> updatePatient(@PathVariable Long id, @Valid @RequestBody PatientDto patientDto) {
-        return ResponseEntity.ok(patientService.updatePatient(id, patientDto));
+    public ResponseEntity<PatientDto> updatePatient(@PathVariable Long id,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                    @Valid @RequestBody PatientDto patientDto) {
+        PatientDto updated = patientService.updatePatient(id, patientDto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
+    }
+
+    /**
+     * Partially updates a patient with a JSON Merge Patch: fields absent from the patch keep their value
+     * and {@code null} clears a field. With {@code If-Match}, the patch is only applied if the patient is still
+     * at that version.
+     *
+     * @param id      The ID of the patient to update.
+     * @param ifMatch Optional ETag of the version the patch is based on.
+     * @param patch   The merge patch ({@code application/merge-patch+json}).
+     * @return The updated {@link PatientDto}, with its new ETag.
+     * @throws EntityNotFoundException           If the patient does not exist.
+     * @throws OptimisticLockingFailureException If the patient has been modified since that version.
+     */
+    @PatchMapping(value = "/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<PatientDto> patchPatient(@PathVariable Long id,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                   @RequestBody JsonNode patch) {
+        PatientDto updated = patientService.patchPatient(id, patch, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
     }
 
     /**
@@ -89,4 +159,29 @@ public class PatientController {
     public ResponseEntity<String> handleEntityNotFoundException(EntityNotFoundException ex) {
         return ResponseEntity.status(404).body(ex.getMessage());
     }
+
+    /**
+     * Handles exceptions related to invalid arguments (e.g., a malformed pagination cursor).
+     *
+     * @param ex The exception thrown.
+     * @return ResponseEntity with status 400 (Bad Request) and error message.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(400).body(ex.getMessage());
+    }
+
+    /**
+     * Handles updates based on an outdated version of the patient.
+     *
+     * @param ex      The exception thrown.
+     * @param request The failed request.
+     * @return ResponseEntity with status 412 (Precondition Failed) if the request carried {@code If-Match},
+     * 409 (Conflict) otherwise, and error message.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex,
+                                                                          WebRequest request) {
+        return ResponseEntity.status(ETags.conflictStatus(request.getHeader(HttpHeaders.IF_MATCH))).body(ex.getMessage());
+    }
 }
@@ -1,13 +1,22 @@
 package com.example.miapp.controller;
 
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.MultiGetResult;
 import com.example.miapp.dto.PatientRoomDto;
+import com.example.miapp.services.JsonMergePatch;
+import com.example.miapp.services.OccupancyConflictException;
 import com.example.miapp.services.PatientRoomService;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -21,13 +30,50 @@ public class PatientRoomController {
     private final PatientRoomService patientRoomService;
 
     /**
-     * Retrieves all patient-room assignments.
+     * Retrieves one page of patient-room assignments, ordered by ID, optionally restricted to the stays
+     * in one room overlapping a date range.
      *
-     * @return List of {@link PatientRoomDto} containing all assignments.
+     * @param roomId Optional ID of the room; requires {@code from} and {@code to}.
+     * @param from   Optional start of the date range (inclusive), in ISO-8601 format.
+     * @param to     Optional end of the date range (exclusive), in ISO-8601 format.
+     * @param after  Opaque cursor returned with the previous page; omit it for the first page.
+     * @param limit  Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link PatientRoomDto} with the cursor of the next page.
      */
     @GetMapping
-    public ResponseEntity<List<PatientRoomDto>> getAllPatientRooms() {
-        return ResponseEntity.ok(patientRoomService.getAllPatientRooms());
+    public ResponseEntity<CursorPage<PatientRoomDto>> getAllPatientRooms(
+            @RequestParam(required = false) Long roomId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(patientRoomService.getAllPatientRooms(roomId, from, to, after, limit));
+    }
+
+    /**
+     * Retrieves several patient-room relations by ID in one request, e.g. {@code ?ids=3,1,2}.
+     *
+     * @param ids The IDs of the patient-room relations, comma-separated or repeated.
+     * @return {@link MultiGetResult} with the {@link PatientRoomDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResult<PatientRoomDto>> getPatientRoomsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(patientRoomService.getPatientRoomsByIds(ids));
+    }
+
+    /**
+     * Exports all patient-room assignments as newline-delimited JSON.
+     * The response is streamed row by row instead of being built in memory.
+     *
+     * @return Streaming body writing one {@link PatientRoomDto} per line.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPatientRooms() {
+        StreamingResponseBody body = patientRoomService::exportPatientRooms;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
@@ -66,6 +112,20 @@ public class PatientRoomController {
         return ResponseEntity.ok(patientRoomService.updatePatientRoom(id, patientRoomDto));
     }
 
+    /**
+     * Partially updates a patient-room relation with a JSON Merge Patch: fields absent from the patch keep their value
+     * and {@code null} clears a field.
+     *
+     * @param id    The ID of the patient-room relation to update.
+     * @param patch The merge patch ({@code application/merge-patch+json}).
+     * @return The updated {@link PatientRoomDto}.
+     * @throws EntityNotFoundException If the patient-room relation does not exist.
+     */
+    @PatchMapping(value = "/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<PatientRoomDto> patchPatientRoom(@PathVariable Long id, @RequestBody JsonNode patch) {
+        return ResponseEntity.ok(patientRoomService.patchPatientRoom(id, patch));
+    }
+
     /**
      * Deletes a patient-room assignment by its ID.
      *
@@ -100,4 +160,15 @@ public class PatientRoomController {
     public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
         return ResponseEntity.status(400).body(ex.getMessage());
     }
+
+    /**
+     * Handles occupancy conflicts (e.g., a room already occupied on those dates).
+     *
+     * @param ex The exception thrown.
+     * @return ResponseEntity with status 409 (Conflict) and error message.
+     */
+    @ExceptionHandler(OccupancyConflictException.class)
+    public ResponseEntity<String> handleOccupancyConflictException(OccupancyConflictException ex) {
+        return ResponseEntity.status(409).body(ex.getMessage());
+    }
 }
@@ -1,14 +1,26 @@
 package com.example.miapp.controller;
 
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.MultiGetResult;
 import com.example.miapp.dto.RoomDto;
+import com.example.miapp.entity.Room;
+import com.example.miapp.services.EntityVersionCache;
+import com.example.miapp.services.JsonMergePatch;
 import com.example.miapp.services.RoomService;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -20,27 +32,69 @@ import java.util.List;
 public class RoomController {
 
     private final RoomService roomService;
+    private final EntityVersionCache entityVersionCache;
 
     /**
-     * Retrieves all rooms.
+     * Retrieves one page of rooms, ordered by ID, optionally filtered by occupancy status.
      *
-     * @return List of {@link RoomDto} containing all rooms.
+     * @param status Optional occupancy status (Available or Occupied).
+     * @param after  Opaque cursor returned with the previous page; omit it for the first page.
+     * @param limit  Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link RoomDto} with the cursor of the next page.
      */
     @GetMapping
-    public ResponseEntity<List<RoomDto>> getAllRooms() {
-        return ResponseEntity.ok(roomService.getAllRooms());
+    public ResponseEntity<CursorPage<RoomDto>> getAllRooms(@RequestParam(required = false) String status,
+                                                           @RequestParam(required = false) String after,
+                                                           @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(roomService.getAllRooms(status, after, limit));
     }
 
     /**
-     * Retrieves a room by its ID.
+     * Retrieves several rooms by ID in one request, e.g. {@code ?ids=3,1,2}.
      *
-     * @param id The ID of the room.
-     * @return {@link RoomDto} containing the requested room details.
+     * @param ids The IDs of the rooms, comma-separated or repeated.
+     * @return {@link MultiGetResult} with the {@link RoomDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResult<RoomDto>> getRoomsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(roomService.getRoomsByIds(ids));
+    }
+
+    /**
+     * Retrieves a room by its ID, with its version as a strong ETag.
+     * If {@code If-None-Match} matches the last known version, 304 (Not Modified) is returned without
+     * loading the room.
+     *
+     * @param id          The ID of the room.
+     * @param ifNoneMatch Optional ETags the client already holds.
+     * @return {@link RoomDto} containing the requested room details, or 304 (Not Modified).
      * @throws EntityNotFoundException If the room does not exist.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<RoomDto> getRoomById(@PathVariable Long id) {
-        return ResponseEntity.ok(roomService.getRoomById(id));
+    public ResponseEntity<RoomDto> getRoomById(@PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ETags.conditionalGet(ifNoneMatch, entityVersionCache.get(Room.class, id),
+                () -> roomService.getRoomById(id), RoomDto::getVersion);
+    }
+
+    /**
+     * Retrieves the rooms free for a whole stay.
+     *
+     * @param from  The check-in date (inclusive), in ISO-8601 format.
+     * @param to    The check-out date (exclusive), in ISO-8601 format.
+     * @param type  Optional room type filter.
+     * @param floor Optional floor filter.
+     * @return List of {@link RoomDto} available for the range.
+     * @throws IllegalArgumentException If the range is invalid.
+     */
+    @GetMapping("/available")
+    public ResponseEntity<List<RoomDto>> getAvailableRooms(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String floor) {
+        return ResponseEntity.ok(roomService.getAvailableRooms(from, to, type, floor));
     }
 
     /**
@@ -56,15 +110,41 @@ public class RoomController {
 
     /**
      * Updates an existing room.
+     * With {@code If-Match}, the update is only applied if the room is still at that version.
      *
      * @param id      The ID of the room to update.
+     * @param ifMatch Optional ETag of the version the update is based on.
      * @param roomDto The new data for the room.
-     * @return The updated {@link RoomDto}.
-     * @throws EntityNotFoundException If the room does not exist.
+     * @return The updated {@link RoomDto}, with its new ETag.
+     * @throws EntityNotFoundException           If the room does not exist.
+     * @throws OptimisticLockingFailureException If the room has been modified since that version.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<RoomDto> updateRoom(@PathVariable Long id, @Valid @RequestBody RoomDto roomDto) {
-        return ResponseEntity.ok(roomService.updateRoom(id, roomDto));
+    public ResponseEntity<RoomDto> updateRoom(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @Valid @RequestBody RoomDto roomDto) {
+        RoomDto updated = roomService.updateRoom(id, roomDto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
+    }
+
+    /**
+     * Partially updates a room with a JSON Merge Patch: fields absent from the patch keep their value
+     * and {@code null} clears a field. With {@code If-Match}, the patch is only applied if the room is still
+     * at that version.
+     *
+     * @param id      The ID of the room to update.
+     * @param ifMatch Optional ETag of the version the patch is based on.
+     * @param patch   The merge patch ({@code application/merge-patch+json}).
+     * @return The updated {@link RoomDto}, with its new ETag.
+     * @throws EntityNotFoundException           If the room does not exist.
+     * @throws OptimisticLockingFailureException If the room has been modified since that version.
+     */
+    @PatchMapping(value = "/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<RoomDto> patchRoom(@PathVariable Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @RequestBody JsonNode patch) {
+        RoomDto updated = roomService.patchRoom(id, patch, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
     }
 
     /**
@@ -90,4 +170,29 @@ public class RoomController {
     public ResponseEntity<String> handleEntityNotFoundException(EntityNotFoundException ex) {
         return ResponseEntity.status(404).body(ex.getMessage());
     }
+
+    /**
+     * Handles exceptions related to invalid arguments (e.g., a malformed pagination cursor).
+     *
+     * @param ex The exception thrown.
+     * @return ResponseEntity with status 400 (Bad Request) and error message.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(400).body(ex.getMessage());
+    }
+
+    /**
+     * Handles updates based on an outdated version of the room.
+     *
+     * @param ex      The exception thrown.
+     * @param request The failed request.
+     * @return ResponseEntity with status 412 (Precondition Failed) if the request carried {@code If-Match},
+     * 409 (Conflict) otherwise, and error message.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex,
+                                                                          WebRequest request) {
+        return ResponseEntity.status(ETags.conflictStatus(request.getHeader(HttpHeaders.IF_MATCH))).body(ex.getMessage());
+    }
 }
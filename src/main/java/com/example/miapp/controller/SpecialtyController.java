@@ -1,10 +1,15 @@
 package com.example.miapp.controller;
 
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.MultiGetResult;
 import com.example.miapp.dto.SpecialtyDto;
+import com.example.miapp.services.JsonMergePatch;
 import com.example.miapp.services.SpecialtyService;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,13 +26,28 @@ public class SpecialtyController {
     private final SpecialtyService specialtyService;
 
     /**
-     * Retrieves all specialties.
+     * Retrieves one page of specialties, ordered by ID.
      *
-     * @return List of {@link SpecialtyDto} containing all specialties.
+     * @param after Opaque cursor returned with the previous page; omit it for the first page.
+     * @param limit Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link SpecialtyDto} with the cursor of the next page.
      */
     @GetMapping
-    public ResponseEntity<List<SpecialtyDto>> getAllSpecialties() {
-        return ResponseEntity.ok(specialtyService.getAllSpecialties());
+    public ResponseEntity<CursorPage<SpecialtyDto>> getAllSpecialties(@RequestParam(required = false) String after,
+                                                                      @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(specialtyService.getAllSpecialties(after, limit));
+    }
+
+    /**
+     * Retrieves several specialties by ID in one request, e.g. {@code ?ids=3,1,2}.
+     *
+     * @param ids The IDs of the specialties, comma-separated or repeated.
+     * @return {@link MultiGetResult} with the {@link SpecialtyDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<MultiGetResult<SpecialtyDto>> getSpecialtiesByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(specialtyService.getSpecialtiesByIds(ids));
     }
 
     /**
@@ -66,6 +86,20 @@ public class SpecialtyController {
         return ResponseEntity.ok(specialtyService.updateSpecialty(id, specialtyDto));
     }
 
+    /**
+     * Partially updates a specialty with a JSON Merge Patch: fields absent from the patch keep their value
+     * and {@code null} clears a field.
+     *
+     * @param id    The ID of the specialty to update.
+     * @param patch The merge patch ({@code application/merge-patch+json}).
+     * @return The updated {@link SpecialtyDto}.
+     * @throws EntityNotFoundException If the specialty does not exist.
+     */
+    @PatchMapping(value = "/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<SpecialtyDto> patchSpecialty(@PathVariable Long id, @RequestBody JsonNode patch) {
+        return ResponseEntity.ok(specialtyService.patchSpecialty(id, patch));
+    }
+
     /**
      * Deletes a specialty by its ID.
      *
@@ -89,4 +123,15 @@ public class SpecialtyController {
     public ResponseEntity<String> handleEntityNotFoundException(EntityNotFoundException ex) {
         return ResponseEntity.status(404).body(ex.getMessage());
     }
+
+    /**
+     * Handles exceptions related to invalid arguments (e.g., a malformed pagination cursor).
+     *
+     * @param ex The exception thrown.
+     * @return ResponseEntity with status 400 (Bad Request) and error message.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(400).body(ex.getMessage());
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.miapp.dto;
 
+import com.example.miapp.entity.AppointmentStatus;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
@@ -40,4 +41,18 @@ public class AppointmentDto {
     /** Status of the appointment (e.g., Scheduled, Completed, Canceled). */
     @Pattern(regexp = "^(Scheduled|Completed|Canceled)$", message = "Status must be 'Scheduled', 'Completed', or 'Canceled'")
     private String status;
+
+    /**
+     * Creates the DTO from the columns selected by the repository projections.
+     *
+     * @param id        The ID of the appointment.
+     * @param date      The date and time of the appointment.
+     * @param patientId The ID of the patient.
+     * @param doctorId  The ID of the doctor.
+     * @param reason    The reason for the appointment.
+     * @param status    The stored status, exposed through its label.
+     */
+    public AppointmentDto(Long id, LocalDateTime date, Long patientId, Long doctorId, String reason, AppointmentStatus status) {
+        this(id, date, patientId, doctorId, reason, status == null ? null : status.getLabel());
+    }
 }
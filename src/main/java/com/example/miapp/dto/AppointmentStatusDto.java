@@ -0,0 +1,22 @@
+package com.example.miapp.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.*;
+
+/**
+ * DTO carrying the new status of an appointment.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class AppointmentStatusDto {
+
+    /** New status of the appointment (Scheduled, Completed or Canceled). Cannot be null. */
+    @NotNull(message = "Status cannot be null")
+    @Pattern(regexp = "^(Scheduled|Completed|Canceled)$", message = "Status must be 'Scheduled', 'Completed', or 'Canceled'")
+    private String status;
+}
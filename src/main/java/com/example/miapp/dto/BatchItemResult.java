@@ -0,0 +1,36 @@
+package com.example.miapp.dto;
+
+import lombok.*;
+
+/**
+ * DTO describing the outcome of one item of a batch request.
+ *
+ * @param <T> the type of the item.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class BatchItemResult<T> {
+
+    /** Outcome of a batch item. */
+    public enum Outcome {
+        CREATED,
+        UPDATED,
+        FAILED
+    }
+
+    /** Position of the item in the request list. */
+    private int index;
+
+    /** Outcome of the item. */
+    private Outcome outcome;
+
+    /** The saved item, or the submitted item when the outcome is {@link Outcome#FAILED}. */
+    private T item;
+
+    /** Reason of the failure; null when the item was saved. */
+    private String error;
+}
@@ -0,0 +1,42 @@
+package com.example.miapp.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * DTO describing a committed change of an entity, as published on the change event stream.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class ChangeEventDto {
+
+    /** Kind of change. */
+    public enum Type {
+        /** The entity was created. */
+        CREATED,
+        /** The entity was modified. */
+        UPDATED,
+        /** The entity was deleted. */
+        DELETED
+    }
+
+    /** Position of the event in the stream; strictly increasing, also across restarts. */
+    private long sequence;
+
+    /** Simple class name of the changed entity, e.g. {@code Patient}. */
+    private String entity;
+
+    /** ID of the changed entity. */
+    private Long entityId;
+
+    /** Kind of change. */
+    private Type type;
+
+    /** When the change was committed. */
+    private Instant committedAt;
+}
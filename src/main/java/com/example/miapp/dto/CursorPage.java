@@ -0,0 +1,28 @@
+package com.example.miapp.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * DTO for transferring one page of a keyset-paginated listing.
+ *
+ * @param <T> the type of the items in the page.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class CursorPage<T> {
+
+    /** Items of the current page, ordered by ascending ID (or by date and then ID for date-range listings). */
+    private List<T> items;
+
+    /** Opaque cursor to pass as {@code after} to fetch the next page; null when there are no more items. */
+    private String nextCursor;
+
+    /** Effective page size applied by the server. */
+    private int limit;
+}
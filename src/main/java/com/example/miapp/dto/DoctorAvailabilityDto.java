@@ -0,0 +1,36 @@
+package com.example.miapp.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO describing the booked and free appointment slots of a doctor within a time range.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class DoctorAvailabilityDto {
+
+    /** ID of the doctor. */
+    private Long doctorId;
+
+    /** Start of the requested range (inclusive). */
+    private LocalDateTime from;
+
+    /** End of the requested range (exclusive). */
+    private LocalDateTime to;
+
+    /** Duration of one appointment slot, in minutes. */
+    private long slotMinutes;
+
+    /** Start times of the appointments overlapping the range. */
+    private List<LocalDateTime> bookedSlots;
+
+    /** Start times of the free slots within the range. */
+    private List<LocalDateTime> freeSlots;
+}
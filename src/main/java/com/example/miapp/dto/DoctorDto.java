@@ -1,5 +1,6 @@
 package com.example.miapp.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
@@ -36,4 +37,8 @@ public class DoctorDto {
     @NotNull(message = "Email cannot be null")
     @Email(message = "Email should be valid")
     private String email;
+
+    /** Version of the doctor, also sent as its ETag. Read-only: ignored in request bodies. */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
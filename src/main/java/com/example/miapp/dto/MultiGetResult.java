@@ -0,0 +1,25 @@
+package com.example.miapp.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * DTO for transferring the outcome of a multi-get request (several entities fetched by ID).
+ *
+ * @param <T> the type of the items.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class MultiGetResult<T> {
+
+    /** Items found, in the order their IDs were requested; a repeated ID is returned once. */
+    private List<T> items;
+
+    /** Requested IDs with no matching entity, in request order. */
+    private List<Long> missingIds;
+}
@@ -1,5 +1,6 @@
 package com.example.miapp.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
@@ -42,4 +43,8 @@ public class PatientDto {
     @NotNull(message = "Address cannot be null")
     @Size(max = 255, message = "Address must not exceed 255 characters")
     private String address;
+
+    /** Version of the patient, also sent as its ETag. Read-only: ignored in request bodies. */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
@@ -1,5 +1,6 @@
 package com.example.miapp.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
@@ -36,4 +37,8 @@ public class RoomDto {
     /** Occupancy status (Available, Occupied). Must follow a valid pattern. */
     @Pattern(regexp = "^(Available|Occupied)$", message = "Occupancy status must be 'Available' or 'Occupied'")
     private String occupancyStatus;
+
+    /** Version of the room, also sent as its ETag. Read-only: ignored in request bodies. */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
@@ -0,0 +1,42 @@
+package com.example.miapp.dto;
+
+import lombok.*;
+
+/**
+ * DTO tracking a queued appointment status change.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@ToString
+public class StatusChangeDto {
+
+    /** State of a queued status change. */
+    public enum State {
+        /** Waiting in the queue. */
+        PENDING,
+        /** Written to the database. */
+        APPLIED,
+        /** Replaced by a later change of the same appointment before being written. */
+        SUPERSEDED,
+        /** Could not be written; see {@code error}. */
+        FAILED
+    }
+
+    /** Identifier returned when the change was accepted. */
+    private String trackingId;
+
+    /** ID of the appointment. */
+    private Long appointmentId;
+
+    /** Requested status. */
+    private String status;
+
+    /** Current state of the change. */
+    private State state;
+
+    /** Reason of the failure; null unless the state is {@link State#FAILED}. */
+    private String error;
+}
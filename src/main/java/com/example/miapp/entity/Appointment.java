@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.FutureOrPresent;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
@@ -11,7 +12,13 @@ import java.time.LocalDateTime;
  * Represents a scheduled appointment between a patient and a doctor.
  */
 @Entity
-@Table(name = "appointment")
+@DynamicUpdate
+@Table(name = "appointment", indexes = {
+        @Index(name = "idx_appointment_date", columnList = "date"),
+        @Index(name = "idx_appointment_doctor_date", columnList = "doctor_id, date"),
+        @Index(name = "idx_appointment_patient", columnList = "patient_id"),
+        @Index(name = "idx_appointment_status", columnList = "status")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,9 +27,13 @@ import java.time.LocalDateTime;
 @ToString
 public class Appointment {
 
-    /** Unique identifier for the appointment. */
+    /**
+     * Unique identifier for the appointment.
+     * Drawn from a pooled sequence so inserts can be sent in JDBC batches.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_seq")
+    @SequenceGenerator(name = "appointment_seq", sequenceName = "appointment_seq", allocationSize = 50)
     private Long id;
 
     /** Date and time of the appointment. Must be in the present or future. */
@@ -45,7 +56,7 @@ public class Appointment {
     @Column(nullable = false, length = 255)
     private String reason;
 
-    /** Status of the appointment (e.g., Scheduled, Completed, Canceled). */
-    @Column(nullable = false, length = 20)
-    private String status;
+    /** Status of the appointment, stored as a one-character code (see {@link AppointmentStatusConverter}). */
+    @Column(nullable = false, length = 1)
+    private AppointmentStatus status;
 }
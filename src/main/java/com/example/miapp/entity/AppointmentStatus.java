@@ -0,0 +1,57 @@
+package com.example.miapp.entity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Status of an appointment, stored as a one-character code by {@link AppointmentStatusConverter}.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum AppointmentStatus {
+
+    SCHEDULED("Scheduled", 'S'),
+    COMPLETED("Completed", 'C'),
+    CANCELED("Canceled", 'X');
+
+    /** Name exposed by the API. */
+    private final String label;
+
+    /** Code stored in the database. */
+    private final char code;
+
+    /**
+     * Finds the status with the given API name.
+     *
+     * @param label The API name (e.g., Scheduled).
+     * @return The matching {@link AppointmentStatus}, or null if the label is null.
+     * @throws IllegalArgumentException If no status has that name.
+     */
+    public static AppointmentStatus fromLabel(String label) {
+        if (label == null) {
+            return null;
+        }
+        for (AppointmentStatus status : values()) {
+            if (status.label.equals(label)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown appointment status: " + label);
+    }
+
+    /**
+     * Finds the status stored with the given code.
+     *
+     * @param code The stored code.
+     * @return The matching {@link AppointmentStatus}.
+     * @throws IllegalArgumentException If no status has that code.
+     */
+    public static AppointmentStatus fromCode(char code) {
+        for (AppointmentStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown appointment status code: " + code);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.miapp.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores an {@link AppointmentStatus} as its one-character code.
+ */
+@Converter(autoApply = true)
+public class AppointmentStatusConverter implements AttributeConverter<AppointmentStatus, Character> {
+
+    @Override
+    public Character convertToDatabaseColumn(AppointmentStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public AppointmentStatus convertToEntityAttribute(Character code) {
+        return code == null ? null : AppointmentStatus.fromCode(code);
+    }
+}
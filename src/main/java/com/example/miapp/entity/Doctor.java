@@ -3,28 +3,41 @@ package com.example.miapp.entity;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.List;
 
 /**
  * Represents a doctor in the hospital system.
+ * <p>
+ * Equality is by ID only, so references to doctors can be replaced without loading them (see {@link Patient}).
  */
 @Entity
+@DynamicUpdate
 @Table(name = "doctor")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctor")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder(toBuilder = true)
 @ToString(exclude = {"appointments", "doctorSpecialties"})
-@EqualsAndHashCode(exclude = {"appointments", "doctorSpecialties"})
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Doctor {
 
     /** Unique identifier for the doctor. */
     @Id
+    @EqualsAndHashCode.Include
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /** Version used for optimistic locking, incremented on every update and exposed as the ETag of the doctor. */
+    @Version
+    private long version;
+
     /** Doctor's first name. */
     @Column(nullable = false, length = 50)
     private String firstName;
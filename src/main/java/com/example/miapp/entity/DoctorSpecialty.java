@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.PastOrPresent;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.Date;
 
@@ -12,6 +13,7 @@ import java.util.Date;
  * Represents the relation between a doctor and a specialty.
  */
 @Entity
+@DynamicUpdate
 @Table(name = "doctor_specialty")
 @Getter
 @Setter
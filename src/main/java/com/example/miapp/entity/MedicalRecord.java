@@ -3,6 +3,7 @@ package com.example.miapp.entity;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.Date;
 
@@ -10,6 +11,7 @@ import java.util.Date;
  * Represents a patient's medical history.
  */
 @Entity
+@DynamicUpdate
 @Table(name = "medical_record")
 @Getter
 @Setter
@@ -0,0 +1,56 @@
+package com.example.miapp.entity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Occupancy status of a room, stored as a one-character code by {@link OccupancyStatusConverter}.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum OccupancyStatus {
+
+    AVAILABLE("Available", 'A'),
+    OCCUPIED("Occupied", 'O');
+
+    /** Name exposed by the API. */
+    private final String label;
+
+    /** Code stored in the database. */
+    private final char code;
+
+    /**
+     * Finds the status with the given API name.
+     *
+     * @param label The API name (e.g., Available).
+     * @return The matching {@link OccupancyStatus}, or null if the label is null.
+     * @throws IllegalArgumentException If no status has that name.
+     */
+    public static OccupancyStatus fromLabel(String label) {
+        if (label == null) {
+            return null;
+        }
+        for (OccupancyStatus status : values()) {
+            if (status.label.equals(label)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown occupancy status: " + label);
+    }
+
+    /**
+     * Finds the status stored with the given code.
+     *
+     * @param code The stored code.
+     * @return The matching {@link OccupancyStatus}.
+     * @throws IllegalArgumentException If no status has that code.
+     */
+    public static OccupancyStatus fromCode(char code) {
+        for (OccupancyStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown occupancy status code: " + code);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.miapp.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores an {@link OccupancyStatus} as its one-character code.
+ */
+@Converter(autoApply = true)
+public class OccupancyStatusConverter implements AttributeConverter<OccupancyStatus, Character> {
+
+    @Override
+    public Character convertToDatabaseColumn(OccupancyStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public OccupancyStatus convertToEntityAttribute(Character code) {
+        return code == null ? null : OccupancyStatus.fromCode(code);
+    }
+}
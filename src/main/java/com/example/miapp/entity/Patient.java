@@ -4,29 +4,44 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Past;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.Date;
 import java.util.List;
 
 /**
  * Represents a patient in the hospital system.
+ * <p>
+ * The medical record of a patient is only mapped from the {@link MedicalRecord} side: an inverse
+ * {@code @OneToOne} cannot be proxied, so it would cost an extra {@code medical_record} select for every
+ * patient loaded.
+ * <p>
+ * Patients are equal when their IDs are: replacing the patient of an appointment, stay or medical record compares
+ * the old and new values, and comparing any other attribute would load a reference obtained with
+ * {@code getReferenceById}.
  */
 @Entity
-@Table(name = "patient")
+@DynamicUpdate
+@Table(name = "patient", indexes = @Index(name = "idx_patient_phone", columnList = "phone"))
 @Getter
 @Setter
 @Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
-@ToString(exclude = {"appointments", "medicalRecord", "patientRooms"})
-@EqualsAndHashCode(exclude = {"appointments", "medicalRecord", "patientRooms"})
+@ToString(exclude = {"appointments", "patientRooms"})
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Patient {
 
     /** Unique identifier for the patient. */
     @Id
+    @EqualsAndHashCode.Include
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /** Version used for optimistic locking, incremented on every update and exposed as the ETag of the patient. */
+    @Version
+    private long version;
+
     /** Patient's first name. */
     @Column(nullable = false, length = 50)
     private String firstName;
@@ -53,11 +68,6 @@ public class Patient {
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Appointment> appointments;
 
-    /** Medical record associated with the patient. */
-    @JsonManagedReference
-    @OneToOne(mappedBy = "patient", cascade = CascadeType.ALL)
-    private MedicalRecord medicalRecord;
-
     /** List of rooms occupied by the patient. */
     @JsonManagedReference
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL)
@@ -6,6 +6,7 @@ import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.PastOrPresent;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.Date;
 
@@ -13,7 +14,8 @@ import java.util.Date;
  * Represents the relation between a patient and a room.
  */
 @Entity
-@Table(name = "patient_room")
+@DynamicUpdate
+@Table(name = "patient_room", indexes = @Index(name = "idx_patient_room_room_check_in", columnList = "room_id, checkInDate"))
 @Getter
 @Setter
 @Builder(toBuilder=true)
@@ -3,28 +3,41 @@ package com.example.miapp.entity;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.List;
 
 /**
  * Represents a hospital room.
+ * <p>
+ * Rooms are compared by ID, for the same reason as {@link Patient}.
  */
 @Entity
-@Table(name = "room")
+@DynamicUpdate
+@Table(name = "room", indexes = @Index(name = "idx_room_occupancy_status", columnList = "occupancyStatus"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "room")
 @Getter
 @Setter
 @Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString(exclude = "patientRooms")
-@EqualsAndHashCode(exclude = "patientRooms")
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Room {
 
     /** Unique identifier for the room. */
     @Id
+    @EqualsAndHashCode.Include
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /** Version used for optimistic locking, incremented on every update and exposed as the ETag of the room. */
+    @Version
+    private long version;
+
     /** Room number. */
     @Column(nullable = false, unique = true, length = 10)
     private String number;
@@ -37,9 +50,9 @@ public class Room {
     @Column(nullable = false, length = 20)
     private String type;
 
-    /** Occupancy status (Available, Occupied). */
-    @Column(nullable = false, length = 15)
-    private String occupancyStatus;
+    /** Occupancy status, stored as a one-character code (see {@link OccupancyStatusConverter}). */
+    @Column(nullable = false, length = 1)
+    private OccupancyStatus occupancyStatus;
 
     /** List of patients who occupied this room. */
     @JsonManagedReference
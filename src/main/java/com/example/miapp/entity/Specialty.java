@@ -3,25 +3,34 @@ package com.example.miapp.entity;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.List;
 
 /**
  * Represents a medical specialty.
+ * <p>
+ * Compared by ID only, like {@link Patient}.
  */
 @Entity
+@DynamicUpdate
 @Table(name = "specialty")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "specialty")
 @Getter
 @Setter
 @Builder(toBuilder=true)
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString(exclude = "doctorSpecialties")
-@EqualsAndHashCode(exclude = "doctorSpecialties")
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Specialty {
 
     /** Unique identifier for the specialty. */
     @Id
+    @EqualsAndHashCode.Include
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
@@ -0,0 +1,57 @@
+package com.example.miapp.mapper;
+
+import com.example.miapp.dto.AppointmentDto;
+import com.example.miapp.entity.Appointment;
+import com.example.miapp.entity.AppointmentStatus;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Maps between {@link Appointment} entities and {@link AppointmentDto}s; the implementation is generated at
+ * compile time. The status is exposed through its label; the patient and doctor are resolved by the service.
+ */
+@Mapper(config = MapperSettings.class)
+public interface AppointmentMapper {
+
+    /**
+     * Converts an {@link Appointment} entity to an {@link AppointmentDto}.
+     *
+     * @param appointment The entity to convert.
+     * @return The corresponding {@link AppointmentDto}.
+     */
+    @Mapping(target = "patientId", source = "patient.id")
+    @Mapping(target = "doctorId", source = "doctor.id")
+    AppointmentDto toDto(Appointment appointment);
+
+    /**
+     * Converts an {@link AppointmentDto} to a new {@link Appointment} entity, without its patient and doctor.
+     *
+     * @param dto The DTO to convert.
+     * @return The corresponding {@link Appointment} entity.
+     * @throws IllegalArgumentException If the status is unknown.
+     */
+    @Mapping(target = "patient", ignore = true)
+    @Mapping(target = "doctor", ignore = true)
+    Appointment toEntity(AppointmentDto dto);
+
+    /**
+     * Copies the date, reason and status of an {@link AppointmentDto} onto a managed {@link Appointment}, in place.
+     *
+     * @param dto         The updated data.
+     * @param appointment The entity to update.
+     * @throws IllegalArgumentException If the status is unknown.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "patient", ignore = true)
+    @Mapping(target = "doctor", ignore = true)
+    void updateEntity(AppointmentDto dto, @MappingTarget Appointment appointment);
+
+    default String toLabel(AppointmentStatus status) {
+        return status == null ? null : status.getLabel();
+    }
+
+    default AppointmentStatus toStatus(String label) {
+        return AppointmentStatus.fromLabel(label);
+    }
+}
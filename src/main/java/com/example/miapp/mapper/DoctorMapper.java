@@ -0,0 +1,45 @@
+package com.example.miapp.mapper;
+
+import com.example.miapp.dto.DoctorDto;
+import com.example.miapp.entity.Doctor;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Maps between {@link Doctor} entities and {@link DoctorDto}s; the implementation is generated at compile time.
+ */
+@Mapper(config = MapperSettings.class)
+public interface DoctorMapper {
+
+    /**
+     * Converts a {@link Doctor} entity to a {@link DoctorDto}.
+     *
+     * @param doctor The entity to convert.
+     * @return The corresponding {@link DoctorDto}.
+     */
+    DoctorDto toDto(Doctor doctor);
+
+    /**
+     * Converts a {@link DoctorDto} to a new {@link Doctor} entity, without associations.
+     *
+     * @param dto The DTO to convert.
+     * @return The corresponding {@link Doctor} entity.
+     */
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "appointments", ignore = true)
+    @Mapping(target = "doctorSpecialties", ignore = true)
+    Doctor toEntity(DoctorDto dto);
+
+    /**
+     * Copies the editable fields of a {@link DoctorDto} onto a managed {@link Doctor}, in place.
+     *
+     * @param dto    The updated data.
+     * @param doctor The entity to update.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "appointments", ignore = true)
+    @Mapping(target = "doctorSpecialties", ignore = true)
+    void updateEntity(DoctorDto dto, @MappingTarget Doctor doctor);
+}
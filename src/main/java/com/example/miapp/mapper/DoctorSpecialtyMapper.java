@@ -0,0 +1,48 @@
+package com.example.miapp.mapper;
+
+import com.example.miapp.dto.DoctorSpecialtyDto;
+import com.example.miapp.entity.DoctorSpecialty;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Maps between {@link DoctorSpecialty} entities and {@link DoctorSpecialtyDto}s; the implementation is generated
+ * at compile time. The doctor and specialty are resolved by the service.
+ */
+@Mapper(config = MapperSettings.class)
+public interface DoctorSpecialtyMapper {
+
+    /**
+     * Converts a {@link DoctorSpecialty} entity to a {@link DoctorSpecialtyDto}.
+     *
+     * @param doctorSpecialty The entity to convert.
+     * @return The corresponding {@link DoctorSpecialtyDto}.
+     */
+    @Mapping(target = "doctorId", source = "doctor.id")
+    @Mapping(target = "specialtyId", source = "specialty.id")
+    DoctorSpecialtyDto toDto(DoctorSpecialty doctorSpecialty);
+
+    /**
+     * Converts a {@link DoctorSpecialtyDto} to a new {@link DoctorSpecialty} entity, without its doctor and
+     * specialty.
+     *
+     * @param dto The DTO to convert.
+     * @return The corresponding {@link DoctorSpecialty} entity.
+     */
+    @Mapping(target = "doctor", ignore = true)
+    @Mapping(target = "specialty", ignore = true)
+    DoctorSpecialty toEntity(DoctorSpecialtyDto dto);
+
+    /**
+     * Copies the certification date and experience level of a {@link DoctorSpecialtyDto} onto a managed
+     * {@link DoctorSpecialty}, in place.
+     *
+     * @param dto             The updated data.
+     * @param doctorSpecialty The entity to update.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "doctor", ignore = true)
+    @Mapping(target = "specialty", ignore = true)
+    void updateEntity(DoctorSpecialtyDto dto, @MappingTarget DoctorSpecialty doctorSpecialty);
+}
@@ -0,0 +1,16 @@
+package com.example.miapp.mapper;
+
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.MapperConfig;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Settings shared by every mapper: Spring beans injected through their constructor, and a compilation error
+ * for any entity or DTO property left unmapped, so a new field cannot be silently dropped.
+ */
+@MapperConfig(componentModel = MappingConstants.ComponentModel.SPRING,
+        injectionStrategy = InjectionStrategy.CONSTRUCTOR,
+        unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface MapperSettings {
+}
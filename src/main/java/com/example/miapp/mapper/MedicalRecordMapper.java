@@ -0,0 +1,49 @@
+package com.example.miapp.mapper;
+
+import com.example.miapp.dto.MedicalRecordDto;
+import com.example.miapp.entity.MedicalRecord;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Maps between {@link MedicalRecord} entities and {@link MedicalRecordDto}s; the implementation is generated at
+ * compile time. The patient and responsible doctor are resolved by the service.
+ */
+@Mapper(config = MapperSettings.class)
+public interface MedicalRecordMapper {
+
+    /**
+     * Converts a {@link MedicalRecord} entity to a {@link MedicalRecordDto}.
+     *
+     * @param medicalRecord The entity to convert.
+     * @return The corresponding {@link MedicalRecordDto}.
+     */
+    @Mapping(target = "patientId", source = "patient.id")
+    @Mapping(target = "responsibleDoctorId", source = "responsibleDoctor.id")
+    MedicalRecordDto toDto(MedicalRecord medicalRecord);
+
+    /**
+     * Converts a {@link MedicalRecordDto} to a new {@link MedicalRecord} entity, without its patient and doctor.
+     * The ID is left unset, as records are always created with a generated one.
+     *
+     * @param dto The DTO to convert.
+     * @return The corresponding {@link MedicalRecord} entity.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "patient", ignore = true)
+    @Mapping(target = "responsibleDoctor", ignore = true)
+    MedicalRecord toEntity(MedicalRecordDto dto);
+
+    /**
+     * Copies the diagnosis, treatment and entry date of a {@link MedicalRecordDto} onto a managed
+     * {@link MedicalRecord}, in place.
+     *
+     * @param dto           The updated data.
+     * @param medicalRecord The entity to update.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "patient", ignore = true)
+    @Mapping(target = "responsibleDoctor", ignore = true)
+    void updateEntity(MedicalRecordDto dto, @MappingTarget MedicalRecord medicalRecord);
+}
@@ -0,0 +1,45 @@
+package com.example.miapp.mapper;
+
+import com.example.miapp.dto.PatientDto;
+import com.example.miapp.entity.Patient;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Maps between {@link Patient} entities and {@link PatientDto}s; the implementation is generated at compile time.
+ */
+@Mapper(config = MapperSettings.class)
+public interface PatientMapper {
+
+    /**
+     * Converts a {@link Patient} entity to a {@link PatientDto}.
+     *
+     * @param patient The entity to convert.
+     * @return The corresponding {@link PatientDto}.
+     */
+    PatientDto toDto(Patient patient);
+
+    /**
+     * Converts a {@link PatientDto} to a new {@link Patient} entity, without associations.
+     *
+     * @param dto The DTO to convert.
+     * @return The corresponding {@link Patient} entity.
+     */
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "appointments", ignore = true)
+    @Mapping(target = "patientRooms", ignore = true)
+    Patient toEntity(PatientDto dto);
+
+    /**
+     * Copies the editable fields of a {@link PatientDto} onto a managed {@link Patient}, in place.
+     *
+     * @param dto     The updated data.
+     * @param patient The entity to update.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "appointments", ignore = true)
+    @Mapping(target = "patientRooms", ignore = true)
+    void updateEntity(PatientDto dto, @MappingTarget Patient patient);
+}
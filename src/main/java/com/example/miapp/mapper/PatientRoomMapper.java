@@ -0,0 +1,46 @@
+package com.example.miapp.mapper;
+
+import com.example.miapp.dto.PatientRoomDto;
+import com.example.miapp.entity.PatientRoom;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Maps between {@link PatientRoom} entities and {@link PatientRoomDto}s; the implementation is generated at
+ * compile time. The patient and room are resolved by the service.
+ */
+@Mapper(config = MapperSettings.class)
+public interface PatientRoomMapper {
+
+    /**
+     * Converts a {@link PatientRoom} entity to a {@link PatientRoomDto}.
+     *
+     * @param patientRoom The entity to convert.
+     * @return The corresponding {@link PatientRoomDto}.
+     */
+    @Mapping(target = "patientId", source = "patient.id")
+    @Mapping(target = "roomId", source = "room.id")
+    PatientRoomDto toDto(PatientRoom patientRoom);
+
+    /**
+     * Converts a {@link PatientRoomDto} to a new {@link PatientRoom} entity, without its patient and room.
+     *
+     * @param dto The DTO to convert.
+     * @return The corresponding {@link PatientRoom} entity.
+     */
+    @Mapping(target = "patient", ignore = true)
+    @Mapping(target = "room", ignore = true)
+    PatientRoom toEntity(PatientRoomDto dto);
+
+    /**
+     * Copies the dates and observations of a {@link PatientRoomDto} onto a managed {@link PatientRoom}, in place.
+     *
+     * @param dto         The updated data.
+     * @param patientRoom The entity to update.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "patient", ignore = true)
+    @Mapping(target = "room", ignore = true)
+    void updateEntity(PatientRoomDto dto, @MappingTarget PatientRoom patientRoom);
+}
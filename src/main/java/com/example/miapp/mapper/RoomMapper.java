@@ -0,0 +1,55 @@
+package com.example.miapp.mapper;
+
+import com.example.miapp.dto.RoomDto;
+import com.example.miapp.entity.OccupancyStatus;
+import com.example.miapp.entity.Room;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Maps between {@link Room} entities and {@link RoomDto}s; the implementation is generated at compile time.
+ * The occupancy status is exposed through its label.
+ */
+@Mapper(config = MapperSettings.class)
+public interface RoomMapper {
+
+    /**
+     * Converts a {@link Room} entity to a {@link RoomDto}.
+     *
+     * @param room The entity to convert.
+     * @return The corresponding {@link RoomDto}.
+     */
+    RoomDto toDto(Room room);
+
+    /**
+     * Converts a {@link RoomDto} to a new {@link Room} entity, without associations.
+     *
+     * @param dto The DTO to convert.
+     * @return The corresponding {@link Room} entity.
+     * @throws IllegalArgumentException If the occupancy status is unknown.
+     */
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "patientRooms", ignore = true)
+    Room toEntity(RoomDto dto);
+
+    /**
+     * Copies the editable fields of a {@link RoomDto} onto a managed {@link Room}, in place.
+     *
+     * @param dto  The updated data.
+     * @param room The entity to update.
+     * @throws IllegalArgumentException If the occupancy status is unknown.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "patientRooms", ignore = true)
+    void updateEntity(RoomDto dto, @MappingTarget Room room);
+
+    default String toLabel(OccupancyStatus status) {
+        return status == null ? null : status.getLabel();
+    }
+
+    default OccupancyStatus toStatus(String label) {
+        return OccupancyStatus.fromLabel(label);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.miapp.mapper;
+
+import com.example.miapp.dto.SpecialtyDto;
+import com.example.miapp.entity.Specialty;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+/**
+ * Maps between {@link Specialty} entities and {@link SpecialtyDto}s; the implementation is generated at compile
+ * time.
+ */
+@Mapper(config = MapperSettings.class)
+public interface SpecialtyMapper {
+
+    /**
+     * Converts a {@link Specialty} entity to a {@link SpecialtyDto}.
+     *
+     * @param specialty The entity to convert.
+     * @return The corresponding {@link SpecialtyDto}.
+     */
+    SpecialtyDto toDto(Specialty specialty);
+
+    /**
+     * Converts a {@link SpecialtyDto} to a new {@link Specialty} entity, without associations.
+     *
+     * @param dto The DTO to convert.
+     * @return The corresponding {@link Specialty} entity.
+     */
+    @Mapping(target = "doctorSpecialties", ignore = true)
+    Specialty toEntity(SpecialtyDto dto);
+
+    /**
+     * Copies the editable fields of a {@link SpecialtyDto} onto a managed {@link Specialty}, in place.
+     *
+     * @param dto       The updated data.
+     * @param specialty The entity to update.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "doctorSpecialties", ignore = true)
+    void updateEntity(SpecialtyDto dto, @MappingTarget Specialty specialty);
+}
@@ -1,12 +1,24 @@
 package com.example.miapp.repository;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.miapp.dto.AppointmentDto;
 import com.example.miapp.entity.Appointment;
+import com.example.miapp.entity.AppointmentStatus;
+import jakarta.persistence.QueryHint;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for managing Appointment entities.
@@ -20,4 +32,172 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
      * @return a list of appointments.
      */
     List<Appointment> findByDateAfter(LocalDateTime date);
+
+    /**
+     * Finds the appointments whose ID is greater than the given cursor, ordered by ID,
+     * projected straight into DTOs so the foreign keys are read without loading the referenced entities.
+     * @param id the last ID already returned.
+     * @param limit the maximum number of rows to read.
+     * @return a list of AppointmentDto.
+     */
+    @Query("select new com.example.miapp.dto.AppointmentDto(a.id, a.date, a.patient.id, a.doctor.id, a.reason, a.status) "
+            + "from Appointment a where a.id > :id order by a.id")
+    List<AppointmentDto> findDtoPage(@Param("id") Long id, Limit limit);
+
+    /**
+     * Finds one page of the appointments with a given status, ordered by ID.
+     * Served by the {@code idx_appointment_status} index, whose entries are ordered by status and then ID.
+     * @param status the status of the appointments.
+     * @param id the last ID already returned.
+     * @param limit the maximum number of rows to read.
+     * @return a list of AppointmentDto.
+     */
+    @Query("select new com.example.miapp.dto.AppointmentDto(a.id, a.date, a.patient.id, a.doctor.id, a.reason, a.status) "
+            + "from Appointment a where a.status = :status and a.id > :id order by a.id")
+    List<AppointmentDto> findDtoPageByStatus(@Param("status") AppointmentStatus status, @Param("id") Long id, Limit limit);
+
+    /**
+     * Finds one page of the appointments of a doctor within a date range, ordered by date and then ID.
+     * Served by the {@code idx_appointment_doctor_date} index, which also yields the rows in that order.
+     * @param doctorId the ID of the doctor.
+     * @param from the start of the range (inclusive).
+     * @param to the end of the range (exclusive).
+     * @param status the status of the appointments, or null for any status.
+     * @param afterDate the date of the last appointment already returned ({@code from} for the first page).
+     * @param id the ID of the last appointment already returned (0 for the first page).
+     * @param limit the maximum number of rows to read.
+     * @return a list of AppointmentDto.
+     */
+    @Query("select new com.example.miapp.dto.AppointmentDto(a.id, a.date, a.patient.id, a.doctor.id, a.reason, a.status) "
+            + "from Appointment a where a.doctor.id = :doctorId and a.date >= :from and a.date < :to "
+            + "and (:status is null or a.status = :status) "
+            + "and (a.date > :afterDate or (a.date = :afterDate and a.id > :id)) order by a.date, a.id")
+    List<AppointmentDto> findDtoPageByDoctorAndDateRange(@Param("doctorId") Long doctorId, @Param("from") LocalDateTime from,
+                                                         @Param("to") LocalDateTime to, @Param("status") AppointmentStatus status,
+                                                         @Param("afterDate") LocalDateTime afterDate, @Param("id") Long id,
+                                                         Limit limit);
+
+    /**
+     * Finds one page of the appointments within a date range, ordered by date and then ID.
+     * Served by the {@code idx_appointment_date} index; an ID order would make the database walk the primary key
+     * instead and filter every appointment by date.
+     * @param from the start of the range (inclusive).
+     * @param to the end of the range (exclusive).
+     * @param status the status of the appointments, or null for any status.
+     * @param afterDate the date of the last appointment already returned ({@code from} for the first page).
+     * @param id the ID of the last appointment already returned (0 for the first page).
+     * @param limit the maximum number of rows to read.
+     * @return a list of AppointmentDto.
+     */
+    @Query("select new com.example.miapp.dto.AppointmentDto(a.id, a.date, a.patient.id, a.doctor.id, a.reason, a.status) "
+            + "from Appointment a where a.date >= :from and a.date < :to "
+            + "and (:status is null or a.status = :status) "
+            + "and (a.date > :afterDate or (a.date = :afterDate and a.id > :id)) order by a.date, a.id")
+    List<AppointmentDto> findDtoPageByDateRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                @Param("status") AppointmentStatus status,
+                                                @Param("afterDate") LocalDateTime afterDate, @Param("id") Long id, Limit limit);
+
+    /**
+     * Finds an appointment by ID, projected straight into a DTO.
+     * @param id the ID of the appointment.
+     * @return an Optional containing the AppointmentDto if found.
+     */
+    @Query("select new com.example.miapp.dto.AppointmentDto(a.id, a.date, a.patient.id, a.doctor.id, a.reason, a.status) "
+            + "from Appointment a where a.id = :id")
+    Optional<AppointmentDto> findDtoById(@Param("id") Long id);
+
+    /**
+     * Finds the appointments with the given IDs, projected straight into DTOs.
+     * @param ids the IDs of the appointments.
+     * @return a list of AppointmentDto, in no particular order; unknown IDs are skipped.
+     */
+    @Query("select new com.example.miapp.dto.AppointmentDto(a.id, a.date, a.patient.id, a.doctor.id, a.reason, a.status) "
+            + "from Appointment a where a.id in :ids")
+    List<AppointmentDto> findDtoByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Streams all appointments ordered by ID, projected straight into DTOs and fetched from the JDBC cursor
+     * in chunks, so neither the appointments nor the patients and doctors they refer to are loaded.
+     * The stream must be consumed inside a transaction and closed after use.
+     * @return a stream of AppointmentDto.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.miapp.dto.AppointmentDto(a.id, a.date, a.patient.id, a.doctor.id, a.reason, a.status) "
+            + "from Appointment a order by a.id")
+    Stream<AppointmentDto> streamDtoAll();
+
+    /**
+     * Streams the schedule slots of the appointments starting at or after a date, skipping the given status.
+     * The stream must be consumed inside a transaction and closed after use.
+     * @param from the earliest appointment date to include.
+     * @param excludedStatus the status of the appointments to skip (e.g., Canceled).
+     * @return a stream of appointment slots.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select a.id as id, a.doctor.id as doctorId, a.date as date from Appointment a "
+            + "where a.date >= :from and a.status <> :excludedStatus")
+    Stream<AppointmentSlot> streamSlotsFrom(@Param("from") LocalDateTime from, @Param("excludedStatus") AppointmentStatus excludedStatus);
+
+    /**
+     * Finds the IDs of the appointments of a patient.
+     * @param patientId the ID of the patient.
+     * @return a list of appointment IDs.
+     */
+    @Query("select a.id from Appointment a where a.patient.id = :patientId")
+    List<Long> findIdsByPatientId(@Param("patientId") Long patientId);
+
+    /**
+     * Finds the IDs of the appointments of a doctor.
+     * @param doctorId the ID of the doctor.
+     * @return a list of appointment IDs.
+     */
+    @Query("select a.id from Appointment a where a.doctor.id = :doctorId")
+    List<Long> findIdsByDoctorId(@Param("doctorId") Long doctorId);
+
+    /**
+     * Finds the schedule slot of an appointment.
+     * @param id the ID of the appointment.
+     * @return an Optional containing the slot if the appointment exists.
+     */
+    @Query("select a.id as id, a.doctor.id as doctorId, a.date as date from Appointment a where a.id = :id")
+    Optional<AppointmentSlot> findSlotById(@Param("id") Long id);
+
+    /**
+     * Finds the schedule slots of the given appointments; IDs that do not exist are skipped.
+     * @param ids the IDs of the appointments.
+     * @return a list of appointment slots.
+     */
+    @Query("select a.id as id, a.doctor.id as doctorId, a.date as date from Appointment a where a.id in :ids")
+    List<AppointmentSlot> findSlotsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Sets the status of the given appointments in a single statement, without loading them.
+     * @param ids the IDs of the appointments.
+     * @param status the new status.
+     * @return the number of updated rows.
+     */
+    @Modifying
+    @Query("update Appointment a set a.status = :status where a.id in :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") AppointmentStatus status);
+
+    /**
+     * Deletes the appointments of a patient in a single statement, without loading them.
+     * @param patientId the ID of the patient.
+     * @return the number of deleted rows.
+     */
+    @Modifying
+    @Query("delete from Appointment a where a.patient.id = :patientId")
+    int deleteByPatientId(@Param("patientId") Long patientId);
+
+    /**
+     * Deletes the appointments of a doctor in a single statement, without loading them.
+     * @param doctorId the ID of the doctor.
+     * @return the number of deleted rows.
+     */
+    @Modifying
+    @Query("delete from Appointment a where a.doctor.id = :doctorId")
+    int deleteByDoctorId(@Param("doctorId") Long doctorId);
 }
@@ -0,0 +1,18 @@
+package com.example.miapp.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the columns needed to place an appointment in a doctor's schedule.
+ */
+public interface AppointmentSlot {
+
+    /** @return the ID of the appointment. */
+    Long getId();
+
+    /** @return the ID of the doctor assigned to the appointment. */
+    Long getDoctorId();
+
+    /** @return the date and time of the appointment. */
+    LocalDateTime getDate();
+}
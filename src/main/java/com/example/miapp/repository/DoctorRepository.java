@@ -1,10 +1,18 @@
 package com.example.miapp.repository;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.miapp.entity.Doctor;
+import jakarta.persistence.QueryHint;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -14,9 +22,30 @@ import java.util.Optional;
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
 
     /**
-     * Finds a doctor by email.
+     * Finds a doctor by email. The result is kept in the query cache.
      * @param email the doctor's email.
      * @return an Optional containing the doctor if found.
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference-queries")
+    })
     Optional<Doctor> findByEmail(String email);
+
+    /**
+     * Finds the doctors whose ID is greater than the given cursor, ordered by ID.
+     * @param id the last ID already returned.
+     * @param limit the maximum number of rows to read.
+     * @return a list of doctors.
+     */
+    List<Doctor> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Deletes a doctor in a single statement, without loading it or cascading to its children.
+     * @param id the ID of the doctor.
+     * @return the number of deleted rows, 0 if the doctor does not exist.
+     */
+    @Modifying
+    @Query("delete from Doctor d where d.id = :id")
+    int deleteRowById(@Param("id") Long id);
 }
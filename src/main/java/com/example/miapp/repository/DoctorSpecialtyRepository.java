@@ -1,13 +1,68 @@
 package com.example.miapp.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.miapp.dto.DoctorSpecialtyDto;
 import com.example.miapp.entity.DoctorSpecialty;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository for managing DoctorSpecialty entities.
  */
 @Repository
 public interface DoctorSpecialtyRepository extends JpaRepository<DoctorSpecialty, Long> {
+
+    /**
+     * Finds the doctor-specialty relations whose ID is greater than the given cursor, ordered by ID,
+     * projected straight into DTOs so the foreign keys are read without loading the referenced entities.
+     * @param id the last ID already returned.
+     * @param limit the maximum number of rows to read.
+     * @return a list of DoctorSpecialtyDto.
+     */
+    @Query("select new com.example.miapp.dto.DoctorSpecialtyDto(ds.id, ds.doctor.id, ds.specialty.id, ds.certificationDate, ds.experienceLevel) "
+            + "from DoctorSpecialty ds where ds.id > :id order by ds.id")
+    List<DoctorSpecialtyDto> findDtoPage(@Param("id") Long id, Limit limit);
+
+    /**
+     * Finds a doctor-specialty relation by ID, projected straight into a DTO.
+     * @param id the ID of the doctor-specialty relation.
+     * @return an Optional containing the DoctorSpecialtyDto if found.
+     */
+    @Query("select new com.example.miapp.dto.DoctorSpecialtyDto(ds.id, ds.doctor.id, ds.specialty.id, ds.certificationDate, ds.experienceLevel) "
+            + "from DoctorSpecialty ds where ds.id = :id")
+    Optional<DoctorSpecialtyDto> findDtoById(@Param("id") Long id);
+
+    /**
+     * Finds the doctor-specialty relations with the given IDs, projected straight into DTOs.
+     * @param ids the IDs of the doctor-specialty relations.
+     * @return a list of DoctorSpecialtyDto, in no particular order; unknown IDs are skipped.
+     */
+    @Query("select new com.example.miapp.dto.DoctorSpecialtyDto(ds.id, ds.doctor.id, ds.specialty.id, ds.certificationDate, ds.experienceLevel) "
+            + "from DoctorSpecialty ds where ds.id in :ids")
+    List<DoctorSpecialtyDto> findDtoByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the IDs of the specialty assignments of a doctor.
+     * @param doctorId the ID of the doctor.
+     * @return a list of doctor-specialty relation IDs.
+     */
+    @Query("select ds.id from DoctorSpecialty ds where ds.doctor.id = :doctorId")
+    List<Long> findIdsByDoctorId(@Param("doctorId") Long doctorId);
+
+    /**
+     * Deletes the specialty assignments of a doctor in a single statement, without loading them.
+     * @param doctorId the ID of the doctor.
+     * @return the number of deleted rows.
+     */
+    @Modifying
+    @Query("delete from DoctorSpecialty ds where ds.doctor.id = :doctorId")
+    int deleteByDoctorId(@Param("doctorId") Long doctorId);
 }
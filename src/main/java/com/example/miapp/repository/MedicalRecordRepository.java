@@ -1,13 +1,68 @@
 package com.example.miapp.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.miapp.dto.MedicalRecordDto;
 import com.example.miapp.entity.MedicalRecord;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository for managing MedicalRecord entities.
  */
 @Repository
 public interface MedicalRecordRepository extends JpaRepository<MedicalRecord, Long> {
+
+    /**
+     * Finds the medical records whose ID is greater than the given cursor, ordered by ID,
+     * projected straight into DTOs so the foreign keys are read without loading the referenced entities.
+     * @param id the last ID already returned.
+     * @param limit the maximum number of rows to read.
+     * @return a list of MedicalRecordDto.
+     */
+    @Query("select new com.example.miapp.dto.MedicalRecordDto(mr.id, mr.diagnosis, mr.treatment, mr.entryDate, mr.responsibleDoctor.id, mr.patient.id) "
+            + "from MedicalRecord mr where mr.id > :id order by mr.id")
+    List<MedicalRecordDto> findDtoPage(@Param("id") Long id, Limit limit);
+
+    /**
+     * Finds a medical record by ID, projected straight into a DTO.
+     * @param id the ID of the medical record.
+     * @return an Optional containing the MedicalRecordDto if found.
+     */
+    @Query("select new com.example.miapp.dto.MedicalRecordDto(mr.id, mr.diagnosis, mr.treatment, mr.entryDate, mr.responsibleDoctor.id, mr.patient.id) "
+            + "from MedicalRecord mr where mr.id = :id")
+    Optional<MedicalRecordDto> findDtoById(@Param("id") Long id);
+
+    /**
+     * Finds the medical records with the given IDs, projected straight into DTOs.
+     * @param ids the IDs of the medical records.
+     * @return a list of MedicalRecordDto, in no particular order; unknown IDs are skipped.
+     */
+    @Query("select new com.example.miapp.dto.MedicalRecordDto(mr.id, mr.diagnosis, mr.treatment, mr.entryDate, mr.responsibleDoctor.id, mr.patient.id) "
+            + "from MedicalRecord mr where mr.id in :ids")
+    List<MedicalRecordDto> findDtoByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the IDs of the medical records of a patient.
+     * @param patientId the ID of the patient.
+     * @return a list of medical record IDs.
+     */
+    @Query("select mr.id from MedicalRecord mr where mr.patient.id = :patientId")
+    List<Long> findIdsByPatientId(@Param("patientId") Long patientId);
+
+    /**
+     * Deletes the medical record of a patient in a single statement, without loading it.
+     * @param patientId the ID of the patient.
+     * @return the number of deleted rows.
+     */
+    @Modifying
+    @Query("delete from MedicalRecord mr where mr.patient.id = :patientId")
+    int deleteByPatientId(@Param("patientId") Long patientId);
 }
@@ -0,0 +1,19 @@
+package com.example.miapp.repository;
+
+/**
+ * Projection of the columns a patient is searched by.
+ */
+public interface PatientName {
+
+    /** @return the ID of the patient. */
+    Long getId();
+
+    /** @return the first name of the patient. */
+    String getFirstName();
+
+    /** @return the last name of the patient. */
+    String getLastName();
+
+    /** @return the phone number of the patient. */
+    String getPhone();
+}
@@ -1,11 +1,20 @@
 package com.example.miapp.repository;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.miapp.entity.Patient;
+import jakarta.persistence.QueryHint;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for managing Patient entities.
@@ -19,4 +28,30 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
      * @return an Optional containing the patient if found.
      */
     Optional<Patient> findByPhone(String phone);
+
+    /**
+     * Finds the patients whose ID is greater than the given cursor, ordered by ID.
+     * @param id the last ID already returned.
+     * @param limit the maximum number of rows to read.
+     * @return a list of patients.
+     */
+    List<Patient> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Streams the searchable columns of all patients, to build the in-memory search index.
+     * The stream must be consumed inside a transaction and closed after use.
+     * @return a stream of patient names and phones.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p.id as id, p.firstName as firstName, p.lastName as lastName, p.phone as phone from Patient p order by p.id")
+    Stream<PatientName> streamNames();
+
+    /**
+     * Deletes a patient in a single statement, without loading it or cascading to its children.
+     * @param id the ID of the patient.
+     * @return the number of deleted rows, 0 if the patient does not exist.
+     */
+    @Modifying
+    @Query("delete from Patient p where p.id = :id")
+    int deleteRowById(@Param("id") Long id);
 }
@@ -1,13 +1,115 @@
 package com.example.miapp.repository;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.miapp.dto.PatientRoomDto;
 import com.example.miapp.entity.PatientRoom;
+import jakarta.persistence.QueryHint;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for managing PatientRoom entities.
  */
 @Repository
 public interface PatientRoomRepository extends JpaRepository<PatientRoom, Long> {
+
+    /**
+     * Finds the patient-room relations whose ID is greater than the given cursor, ordered by ID,
+     * projected straight into DTOs so the foreign keys are read without loading the referenced entities.
+     * @param id the last ID already returned.
+     * @param limit the maximum number of rows to read.
+     * @return a list of PatientRoomDto.
+     */
+    @Query("select new com.example.miapp.dto.PatientRoomDto(pr.id, pr.patient.id, pr.room.id, pr.checkInDate, pr.checkOutDate, pr.observations) "
+            + "from PatientRoom pr where pr.id > :id order by pr.id")
+    List<PatientRoomDto> findDtoPage(@Param("id") Long id, Limit limit);
+
+    /**
+     * Finds one page of the stays in a room overlapping a date range, ordered by ID.
+     * A stay overlaps when it checks in before the end of the range and checks out after its start
+     * (or has no check-out date). Served by the {@code idx_patient_room_room_check_in} index.
+     * @param roomId the ID of the room.
+     * @param from the start of the range (inclusive).
+     * @param to the end of the range (exclusive).
+     * @param id the last ID already returned.
+     * @param limit the maximum number of rows to read.
+     * @return a list of PatientRoomDto.
+     */
+    @Query("select new com.example.miapp.dto.PatientRoomDto(pr.id, pr.patient.id, pr.room.id, pr.checkInDate, pr.checkOutDate, pr.observations) "
+            + "from PatientRoom pr where pr.room.id = :roomId and pr.checkInDate < :to "
+            + "and (pr.checkOutDate is null or pr.checkOutDate > :from) and pr.id > :id order by pr.id")
+    List<PatientRoomDto> findDtoPageByRoomAndDateRange(@Param("roomId") Long roomId, @Param("from") Date from,
+                                                       @Param("to") Date to, @Param("id") Long id, Limit limit);
+
+    /**
+     * Finds a patient-room relation by ID, projected straight into a DTO.
+     * @param id the ID of the patient-room relation.
+     * @return an Optional containing the PatientRoomDto if found.
+     */
+    @Query("select new com.example.miapp.dto.PatientRoomDto(pr.id, pr.patient.id, pr.room.id, pr.checkInDate, pr.checkOutDate, pr.observations) "
+            + "from PatientRoom pr where pr.id = :id")
+    Optional<PatientRoomDto> findDtoById(@Param("id") Long id);
+
+    /**
+     * Finds the patient-room relations with the given IDs, projected straight into DTOs.
+     * @param ids the IDs of the patient-room relations.
+     * @return a list of PatientRoomDto, in no particular order; unknown IDs are skipped.
+     */
+    @Query("select new com.example.miapp.dto.PatientRoomDto(pr.id, pr.patient.id, pr.room.id, pr.checkInDate, pr.checkOutDate, pr.observations) "
+            + "from PatientRoom pr where pr.id in :ids")
+    List<PatientRoomDto> findDtoByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Streams all patient-room relations ordered by ID, projected straight into DTOs and fetched from the JDBC
+     * cursor in chunks, so neither the relations nor the patients and rooms they refer to are loaded.
+     * The stream must be consumed inside a transaction and closed after use.
+     * @return a stream of PatientRoomDto.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.miapp.dto.PatientRoomDto(pr.id, pr.patient.id, pr.room.id, pr.checkInDate, pr.checkOutDate, pr.observations) "
+            + "from PatientRoom pr order by pr.id")
+    Stream<PatientRoomDto> streamDtoAll();
+
+    /**
+     * Streams the stays that have not ended before a date.
+     * The stream must be consumed inside a transaction and closed after use.
+     * @param from the earliest check-out date to include; open-ended stays are always included.
+     * @return a stream of room stays.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select pr.id as id, pr.room.id as roomId, pr.checkInDate as checkInDate, pr.checkOutDate as checkOutDate "
+            + "from PatientRoom pr where pr.checkOutDate is null or pr.checkOutDate >= :from")
+    Stream<RoomStay> streamStaysFrom(@Param("from") Date from);
+
+    /**
+     * Finds the IDs of the room stays of a patient.
+     * @param patientId the ID of the patient.
+     * @return a list of patient-room relation IDs.
+     */
+    @Query("select pr.id from PatientRoom pr where pr.patient.id = :patientId")
+    List<Long> findIdsByPatientId(@Param("patientId") Long patientId);
+
+    /**
+     * Deletes the room stays of a patient in a single statement, without loading them.
+     * @param patientId the ID of the patient.
+     * @return the number of deleted rows.
+     */
+    @Modifying
+    @Query("delete from PatientRoom pr where pr.patient.id = :patientId")
+    int deleteByPatientId(@Param("patientId") Long patientId);
 }
@@ -1,9 +1,14 @@
 package com.example.miapp.repository;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.example.miapp.entity.OccupancyStatus;
 import com.example.miapp.entity.Room;
+import jakarta.persistence.QueryHint;
 
 import java.util.List;
 
@@ -14,9 +19,31 @@ import java.util.List;
 public interface RoomRepository extends JpaRepository<Room, Long> {
 
     /**
-     * Finds all available rooms.
+     * Finds all available rooms. The result is kept in the query cache.
      * @param occupancyStatus the status of the room.
      * @return a list of available rooms.
      */
-    List<Room> findByOccupancyStatus(String occupancyStatus);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference-queries")
+    })
+    List<Room> findByOccupancyStatus(OccupancyStatus occupancyStatus);
+
+    /**
+     * Finds the rooms whose ID is greater than the given cursor, ordered by ID.
+     * @param id the last ID already returned.
+     * @param limit the maximum number of rows to read.
+     * @return a list of rooms.
+     */
+    List<Room> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Finds the rooms with a given occupancy status whose ID is greater than the given cursor, ordered by ID.
+     * Served by the {@code idx_room_occupancy_status} index.
+     * @param occupancyStatus the status of the rooms.
+     * @param id the last ID already returned.
+     * @param limit the maximum number of rows to read.
+     * @return a list of rooms.
+     */
+    List<Room> findByOccupancyStatusAndIdGreaterThanOrderByIdAsc(OccupancyStatus occupancyStatus, Long id, Limit limit);
 }
@@ -0,0 +1,21 @@
+package com.example.miapp.repository;
+
+import java.util.Date;
+
+/**
+ * Projection of the columns needed to place a patient stay in a room's occupancy calendar.
+ */
+public interface RoomStay {
+
+    /** @return the ID of the patient-room relation. */
+    Long getId();
+
+    /** @return the ID of the room. */
+    Long getRoomId();
+
+    /** @return the check-in date of the stay. */
+    Date getCheckInDate();
+
+    /** @return the check-out date of the stay, or null if it is open-ended. */
+    Date getCheckOutDate();
+}
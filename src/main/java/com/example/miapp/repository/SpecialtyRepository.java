@@ -1,13 +1,24 @@
 package com.example.miapp.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import com.example.miapp.entity.Specialty;
 
+import java.util.List;
+
 /**
  * Repository for managing Specialty entities.
  */
 @Repository
 public interface SpecialtyRepository extends JpaRepository<Specialty, Long> {
+
+    /**
+     * Finds the specialties whose ID is greater than the given cursor, ordered by ID.
+     * @param id the last ID already returned.
+     * @param limit the maximum number of rows to read.
+     * @return a list of specialties.
+     */
+    List<Specialty> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
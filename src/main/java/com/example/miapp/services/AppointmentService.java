@@ -1,19 +1,42 @@
 package com.example.miapp.services;
 
 import com.example.miapp.dto.AppointmentDto;
+import com.example.miapp.dto.MultiGetResult;
+import com.example.miapp.dto.BatchItemResult;
+import com.example.miapp.dto.ChangeEventDto;
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.StatusChangeDto;
 import com.example.miapp.entity.Appointment;
+import com.example.miapp.entity.AppointmentStatus;
 import com.example.miapp.entity.Doctor;
 import com.example.miapp.entity.Patient;
+import com.example.miapp.mapper.AppointmentMapper;
 import com.example.miapp.repository.AppointmentRepository;
+import com.example.miapp.repository.AppointmentSlot;
 import com.example.miapp.repository.PatientRepository;
 import com.example.miapp.repository.DoctorRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing appointment-related operations.
@@ -23,19 +46,71 @@ import java.util.stream.Collectors;
 public class AppointmentService {
 
     private final AppointmentRepository appointmentRepository;
+    private final AppointmentMapper appointmentMapper;
+    private final JsonMergePatch jsonMergePatch;
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
+    private final CursorPaginator cursorPaginator;
+    private final MultiGetLoader multiGetLoader;
+    private final NdjsonExporter ndjsonExporter;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final AppointmentStatusQueue appointmentStatusQueue;
+    private final ChangeEventLog changeEventLog;
+    private final Validator validator;
+
+    @Value("${app.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    /**
+     * Retrieves one page of appointments using keyset pagination.
+     * The appointments can be restricted to a status and to a date range, optionally for a single doctor.
+     * Pages are ordered by ID, or by date and then ID when a date range is given, so the date indexes serve them.
+     *
+     * @param doctorId Optional ID of the doctor; requires a date range.
+     * @param from     Optional start of the date range (inclusive); requires {@code to}.
+     * @param to       Optional end of the date range (exclusive); requires {@code from}.
+     * @param status   Optional status label (Scheduled, Completed or Canceled).
+     * @param after    Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit    Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link AppointmentDto} containing appointment details.
+     * @throws IllegalArgumentException If the filters, the cursor or the limit are invalid.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AppointmentDto> getAllAppointments(Long doctorId, LocalDateTime from, LocalDateTime to,
+                                                         String status, String after, Integer limit) {
+        int pageSize = cursorPaginator.resolveLimit(limit);
+        AppointmentStatus appointmentStatus = AppointmentStatus.fromLabel(status);
+        if (doctorId == null && from == null && to == null) {
+            Long afterId = cursorPaginator.decodeCursor(after);
+            List<AppointmentDto> rows = appointmentStatus == null
+                    ? appointmentRepository.findDtoPage(afterId, cursorPaginator.fetchLimit(pageSize))
+                    : appointmentRepository.findDtoPageByStatus(appointmentStatus, afterId, cursorPaginator.fetchLimit(pageSize));
+            return cursorPaginator.toPage(rows, pageSize, AppointmentDto::getId);
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Filtering appointments requires 'from' before 'to'.");
+        }
+        CursorPaginator.DateKey afterKey = cursorPaginator.decodeDateCursor(after, from);
+        List<AppointmentDto> rows = doctorId != null
+                ? appointmentRepository.findDtoPageByDoctorAndDateRange(doctorId, from, to, appointmentStatus,
+                        afterKey.date(), afterKey.id(), cursorPaginator.fetchLimit(pageSize))
+                : appointmentRepository.findDtoPageByDateRange(from, to, appointmentStatus,
+                        afterKey.date(), afterKey.id(), cursorPaginator.fetchLimit(pageSize));
+        return cursorPaginator.toDatePage(rows, pageSize, AppointmentDto::getDate, AppointmentDto::getId);
+    }
 
     /**
-     * Retrieves all appointments from the database.
+     * Streams all appointments as newline-delimited JSON, ordered by ID.
      *
-     * @return List of {@link AppointmentDto} containing appointment details.
+     * @param outputStream The output stream the {@link AppointmentDto} lines are written to.
+     * @return The number of exported appointments.
+     * @throws IOException If writing to the output stream fails.
      */
     @Transactional(readOnly = true)
-    public List<AppointmentDto> getAllAppointments() {
-        return appointmentRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public long exportAppointments(OutputStream outputStream) throws IOException {
+        try (Stream<AppointmentDto> appointments = appointmentRepository.streamDtoAll()) {
+            return ndjsonExporter.write(appointments, outputStream);
+        }
     }
 
     /**
@@ -47,8 +122,20 @@ public class AppointmentService {
      */
     @Transactional(readOnly = true)
     public AppointmentDto getAppointmentById(Long id) {
-        Appointment appointment = findAppointmentById(id);
-        return convertToDto(appointment);
+        return appointmentRepository.findDtoById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Appointment not found with ID: " + id));
+    }
+
+    /**
+     * Retrieves several appointments by ID, with one query per chunk of IDs.
+     *
+     * @param ids The IDs of the appointments.
+     * @return {@link MultiGetResult} with the {@link AppointmentDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @Transactional(readOnly = true)
+    public MultiGetResult<AppointmentDto> getAppointmentsByIds(List<Long> ids) {
+        return multiGetLoader.load(ids, appointmentRepository::findDtoByIdIn, AppointmentDto::getId);
     }
 
     /**
@@ -56,18 +143,92 @@ public class AppointmentService {
      *
      * @param appointmentDto The {@link AppointmentDto} containing the new appointment details.
      * @return The saved {@link AppointmentDto}.
-     * @throws EntityNotFoundException If the associated patient or doctor does not exist.
+     * @throws EntityNotFoundException     If the associated patient or doctor does not exist.
+     * @throws SchedulingConflictException If the doctor already has an appointment overlapping that time.
      */
     @Transactional
     public AppointmentDto saveAppointment(AppointmentDto appointmentDto) {
-        Patient patient = findPatientById(appointmentDto.getPatientId());
-        Doctor doctor = findDoctorById(appointmentDto.getDoctorId());
+        Appointment appointment = appointmentMapper.toEntity(appointmentDto);
+        appointment.setPatient(patientRepository.getReferenceById(appointmentDto.getPatientId()));
+        appointment.setDoctor(doctorRepository.getReferenceById(appointmentDto.getDoctorId()));
 
-        Appointment appointment = convertToEntity(appointmentDto);
-        appointment.setPatient(patient);
-        appointment.setDoctor(doctor);
+        Appointment savedAppointment = ForeignKeyViolations.translate(
+                () -> appointmentRepository.saveAndFlush(appointment), referenceNotFoundMessages(appointmentDto));
+        doctorScheduleIndex.track(savedAppointment);
+        changeEventLog.publish(Appointment.class, savedAppointment.getId(), ChangeEventDto.Type.CREATED);
+        return appointmentMapper.toDto(savedAppointment);
+    }
 
-        return convertToDto(appointmentRepository.save(appointment));
+    /**
+     * Creates or updates a batch of appointments in a single transaction.
+     * <p>
+     * All referenced patients, doctors and existing appointments are resolved with one
+     * {@code findAllById} query each; inserts are then written with JDBC batching.
+     * Items carrying an ID update the existing appointment, the others are created.
+     * Invalid items, including those conflicting with an already booked slot of the doctor or with an
+     * earlier item of the batch, are reported as failed without aborting the rest of the batch.
+     *
+     * @param appointmentDtos The list of {@link AppointmentDto} to create or update.
+     * @return One {@link BatchItemResult} per submitted item, in request order.
+     * @throws IllegalArgumentException If the batch exceeds the maximum batch size.
+     */
+    @Transactional
+    public List<BatchItemResult<AppointmentDto>> saveAppointments(List<AppointmentDto> appointmentDtos) {
+        if (appointmentDtos.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size must not exceed " + maxBatchSize + " appointments.");
+        }
+
+        Map<Long, Patient> patients = patientRepository.findAllById(collectIds(appointmentDtos, AppointmentDto::getPatientId))
+                .stream().collect(Collectors.toMap(Patient::getId, Function.identity()));
+        Map<Long, Doctor> doctors = doctorRepository.findAllById(collectIds(appointmentDtos, AppointmentDto::getDoctorId))
+                .stream().collect(Collectors.toMap(Doctor::getId, Function.identity()));
+        Map<Long, Appointment> existingAppointments = appointmentRepository.findAllById(collectIds(appointmentDtos, AppointmentDto::getId))
+                .stream().collect(Collectors.toMap(Appointment::getId, Function.identity()));
+
+        DoctorScheduleIndex.BatchReservations reservations = doctorScheduleIndex.newBatch();
+        List<BatchItemResult<AppointmentDto>> results = new ArrayList<>(appointmentDtos.size());
+        List<Appointment> appointments = new ArrayList<>();
+        for (int index = 0; index < appointmentDtos.size(); index++) {
+            AppointmentDto dto = appointmentDtos.get(index);
+            String error = validateBatchItem(index, dto, patients, doctors, existingAppointments, reservations);
+            if (error != null) {
+                results.add(BatchItemResult.<AppointmentDto>builder()
+                        .index(index)
+                        .outcome(BatchItemResult.Outcome.FAILED)
+                        .item(dto)
+                        .error(error)
+                        .build());
+                continue;
+            }
+
+            Appointment appointment;
+            if (dto.getId() != null) {
+                appointment = existingAppointments.get(dto.getId());
+                appointmentMapper.updateEntity(dto, appointment);
+            } else {
+                appointment = appointmentMapper.toEntity(dto);
+            }
+            appointment.setPatient(patients.get(dto.getPatientId()));
+            appointment.setDoctor(doctors.get(dto.getDoctorId()));
+            appointments.add(appointment);
+
+            results.add(BatchItemResult.<AppointmentDto>builder()
+                    .index(index)
+                    .outcome(dto.getId() != null ? BatchItemResult.Outcome.UPDATED : BatchItemResult.Outcome.CREATED)
+                    .build());
+        }
+
+        Iterator<Appointment> saved = appointmentRepository.saveAll(appointments).iterator();
+        for (BatchItemResult<AppointmentDto> result : results) {
+            if (result.getOutcome() != BatchItemResult.Outcome.FAILED) {
+                Appointment savedAppointment = saved.next();
+                doctorScheduleIndex.track(savedAppointment);
+                changeEventLog.publish(Appointment.class, savedAppointment.getId(),
+                        result.getOutcome() == BatchItemResult.Outcome.CREATED ? ChangeEventDto.Type.CREATED : ChangeEventDto.Type.UPDATED);
+                result.setItem(appointmentMapper.toDto(savedAppointment));
+            }
+        }
+        return results;
     }
 
     /**
@@ -76,24 +237,74 @@ public class AppointmentService {
      * @param id             The ID of the appointment to be updated.
      * @param appointmentDto The updated {@link AppointmentDto} data.
      * @return The updated {@link AppointmentDto}.
-     * @throws EntityNotFoundException If the appointment, patient, or doctor does not exist.
+     * @throws EntityNotFoundException     If the appointment, patient, or doctor does not exist.
+     * @throws SchedulingConflictException If the doctor already has another appointment overlapping the new time.
      */
     @Transactional
     public AppointmentDto updateAppointment(Long id, AppointmentDto appointmentDto) {
         Appointment existingAppointment = findAppointmentById(id);
 
-        Patient patient = findPatientById(appointmentDto.getPatientId());
-        Doctor doctor = findDoctorById(appointmentDto.getDoctorId());
+        appointmentMapper.updateEntity(appointmentDto, existingAppointment);
+        existingAppointment.setPatient(patientRepository.getReferenceById(appointmentDto.getPatientId()));
+        existingAppointment.setDoctor(doctorRepository.getReferenceById(appointmentDto.getDoctorId()));
+        ForeignKeyViolations.translate(appointmentRepository::flush, referenceNotFoundMessages(appointmentDto));
 
-        existingAppointment = existingAppointment.toBuilder()
-                .date(appointmentDto.getDate())
-                .patient(patient)
-                .doctor(doctor)
-                .reason(appointmentDto.getReason())
-                .status(appointmentDto.getStatus())
-                .build();
+        doctorScheduleIndex.track(existingAppointment);
+        changeEventLog.publish(Appointment.class, id, ChangeEventDto.Type.UPDATED);
+        return appointmentMapper.toDto(existingAppointment);
+    }
 
-        return convertToDto(appointmentRepository.save(existingAppointment));
+    /**
+     * Applies a JSON Merge Patch to an appointment: the fields absent from the patch keep their value, and
+     * only the columns that actually change are written.
+     *
+     * @param id    The ID of the appointment to be patched.
+     * @param patch The merge patch.
+     * @return The patched {@link AppointmentDto}.
+     * @throws EntityNotFoundException     If the appointment, or the patient or doctor it now refers to, does not exist.
+     * @throws IllegalArgumentException    If the patch is malformed or leaves the appointment invalid.
+     * @throws SchedulingConflictException If the doctor already has another appointment overlapping the new time.
+     */
+    @Transactional
+    public AppointmentDto patchAppointment(Long id, JsonNode patch) {
+        AppointmentDto patched = jsonMergePatch.apply(appointmentMapper.toDto(findAppointmentById(id)), patch);
+        return updateAppointment(id, patched);
+    }
+
+    /**
+     * Queues a status change of an appointment, to be written asynchronously with other changes.
+     * <p>
+     * Only the appointment's slot is read, to check that it exists and, when it is taken out of the
+     * canceled status, that its doctor is still free.
+     *
+     * @param id     The ID of the appointment.
+     * @param status The label of the new status.
+     * @return The {@link StatusChangeDto} of the queued change, carrying its tracking ID.
+     * @throws IllegalArgumentException    If the status is unknown.
+     * @throws EntityNotFoundException     If the appointment does not exist.
+     * @throws SchedulingConflictException If the doctor already has another appointment overlapping that time.
+     * @throws RejectedExecutionException  If the status change queue is full.
+     */
+    @Transactional(readOnly = true)
+    public StatusChangeDto updateAppointmentStatus(Long id, String status) {
+        AppointmentStatus appointmentStatus = AppointmentStatus.fromLabel(status);
+        AppointmentSlot slot = appointmentRepository.findSlotById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Appointment not found with ID: " + id));
+        if (appointmentStatus != AppointmentStatus.CANCELED) {
+            doctorScheduleIndex.checkAvailable(slot.getDoctorId(), slot.getDate(), id);
+        }
+        return appointmentStatusQueue.enqueue(id, appointmentStatus);
+    }
+
+    /**
+     * Retrieves the state of a queued status change.
+     *
+     * @param trackingId The tracking ID returned when the change was queued.
+     * @return The {@link StatusChangeDto} of the change.
+     * @throws EntityNotFoundException If the tracking ID is unknown or has expired.
+     */
+    public StatusChangeDto getStatusChange(String trackingId) {
+        return appointmentStatusQueue.getChange(trackingId);
     }
 
     /**
@@ -107,74 +318,92 @@ public class AppointmentService {
         if (!appointmentRepository.existsById(id)) {
             throw new EntityNotFoundException("Appointment not found with ID: " + id);
         }
+        doctorScheduleIndex.release(id);
         appointmentRepository.deleteById(id);
+        changeEventLog.publish(Appointment.class, id, ChangeEventDto.Type.DELETED);
     }
 
     /**
-     * Finds an appointment by ID and throws an exception if not found.
-     *
-     * @param id The ID of the appointment.
-     * @return The {@link Appointment} entity.
-     * @throws EntityNotFoundException If the appointment does not exist.
-     */
-    private Appointment findAppointmentById(Long id) {
-        return appointmentRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Appointment not found with ID: " + id));
-    }
-
-    /**
-     * Finds a patient by ID and throws an exception if not found.
+     * Collects the distinct non-null IDs referenced by a batch.
      *
-     * @param id The ID of the patient.
-     * @return The {@link Patient} entity.
-     * @throws EntityNotFoundException If the patient does not exist.
+     * @param dtos        The batch items.
+     * @param idExtractor Function returning the referenced ID of an item.
+     * @return The set of referenced IDs.
      */
-    private Patient findPatientById(Long id) {
-        return patientRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Patient not found with ID: " + id));
+    private Set<Long> collectIds(List<AppointmentDto> dtos, Function<AppointmentDto, Long> idExtractor) {
+        return dtos.stream()
+                .map(idExtractor)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
     }
 
     /**
-     * Finds a doctor by ID and throws an exception if not found.
+     * Validates one batch item against the bean constraints, the resolved references and the doctor's schedule,
+     * reserving its slot for the rest of the batch when it is valid.
      *
-     * @param id The ID of the doctor.
-     * @return The {@link Doctor} entity.
-     * @throws EntityNotFoundException If the doctor does not exist.
+     * @param index                The position of the item in the batch.
+     * @param dto                  The batch item.
+     * @param patients             The resolved patients, by ID.
+     * @param doctors              The resolved doctors, by ID.
+     * @param existingAppointments The resolved existing appointments, by ID.
+     * @param reservations         The slots reserved by the valid items before this one.
+     * @return The error message, or null if the item is valid.
      */
-    private Doctor findDoctorById(Long id) {
-        return doctorRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Doctor not found with ID: " + id));
+    private String validateBatchItem(int index, AppointmentDto dto, Map<Long, Patient> patients, Map<Long, Doctor> doctors,
+                                     Map<Long, Appointment> existingAppointments,
+                                     DoctorScheduleIndex.BatchReservations reservations) {
+        Set<ConstraintViolation<AppointmentDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (dto.getId() != null && !existingAppointments.containsKey(dto.getId())) {
+            return "Appointment not found with ID: " + dto.getId();
+        }
+        if (!patients.containsKey(dto.getPatientId())) {
+            return "Patient not found with ID: " + dto.getPatientId();
+        }
+        if (!doctors.containsKey(dto.getDoctorId())) {
+            return "Doctor not found with ID: " + dto.getDoctorId();
+        }
+        AppointmentStatus status;
+        try {
+            status = AppointmentStatus.fromLabel(dto.getStatus());
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        }
+        if (status != AppointmentStatus.CANCELED) {
+            try {
+                reservations.reserve(index, dto.getDoctorId(), dto.getDate(), dto.getId());
+            } catch (SchedulingConflictException ex) {
+                return ex.getMessage();
+            }
+        }
+        return null;
     }
 
     /**
-     * Converts an {@link Appointment} entity to an {@link AppointmentDto}.
+     * Finds an appointment by ID and throws an exception if not found.
      *
-     * @param appointment The entity to convert.
-     * @return The corresponding {@link AppointmentDto}.
+     * @param id The ID of the appointment.
+     * @return The {@link Appointment} entity.
+     * @throws EntityNotFoundException If the appointment does not exist.
      */
-    private AppointmentDto convertToDto(Appointment appointment) {
-        return AppointmentDto.builder()
-                .id(appointment.getId())
-                .date(appointment.getDate())
-                .patientId(appointment.getPatient().getId())
-                .doctorId(appointment.getDoctor().getId())
-                .reason(appointment.getReason())
-                .status(appointment.getStatus())
-                .build();
+    private Appointment findAppointmentById(Long id) {
+        return appointmentRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Appointment not found with ID: " + id));
     }
 
     /**
-     * Converts an {@link AppointmentDto} to an {@link Appointment} entity.
+     * Builds the messages reported when a reference of an appointment does not exist, by foreign key column.
      *
-     * @param dto The DTO to convert.
-     * @return The corresponding {@link Appointment} entity.
+     * @param dto The appointment data.
+     * @return The not-found messages of the patient and the doctor.
      */
-    private Appointment convertToEntity(AppointmentDto dto) {
-        return Appointment.builder()
-                .id(dto.getId())
-                .date(dto.getDate())
-                .reason(dto.getReason())
-                .status(dto.getStatus())
-                .build();
+    private Map<String, String> referenceNotFoundMessages(AppointmentDto dto) {
+        return Map.of("patient_id", "Patient not found with ID: " + dto.getPatientId(),
+                "doctor_id", "Doctor not found with ID: " + dto.getDoctorId());
     }
 }
@@ -0,0 +1,248 @@
+package com.example.miapp.services;
+
+import com.example.miapp.dto.ChangeEventDto;
+import com.example.miapp.dto.StatusChangeDto;
+import com.example.miapp.entity.Appointment;
+import com.example.miapp.entity.AppointmentStatus;
+import com.example.miapp.repository.AppointmentRepository;
+import com.example.miapp.repository.AppointmentSlot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded in-process queue of appointment status changes, written to the database in batches.
+ * <p>
+ * Only the latest change of each appointment is kept: a change arriving while an earlier one of the same
+ * appointment is still queued replaces it. Every {@code app.status-queue.flush-interval} the queue is drained
+ * and written with one {@code UPDATE ... WHERE id IN (...)} per status and chunk of
+ * {@code app.status-queue.batch-size} appointments, keeping the {@link DoctorScheduleIndex} in sync and
+ * publishing the changes to the {@link ChangeEventLog} in the same transaction. The outcome of each change can
+ * be looked up by its tracking ID for {@code app.status-queue.tracking-ttl}. At most
+ * {@code app.status-queue.capacity} appointments are queued at once: each one holds a permit of a {@link Semaphore},
+ * taken when it enters the queue and given back when it is drained. The queue depth is exported as
+ * {@code appointments.status.queue.depth}.
+ */
+@Component
+public class AppointmentStatusQueue {
+
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final ChangeEventLog changeEventLog;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    /** Latest queued change per appointment ID. */
+    private final Map<Long, PendingChange> pending = new ConcurrentHashMap<>();
+
+    /** One permit per appointment that can still enter the queue. */
+    private final Semaphore slots;
+
+    /** Recently queued changes, by tracking ID. */
+    private final Cache<String, StatusChangeDto> changes;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Map<StatusChangeDto.State, Counter> outcomes = new HashMap<>();
+
+    public AppointmentStatusQueue(AppointmentRepository appointmentRepository,
+                                  DoctorScheduleIndex doctorScheduleIndex,
+                                  ChangeEventLog changeEventLog,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.status-queue.capacity:10000}") int capacity,
+                                  @Value("${app.status-queue.batch-size:500}") int batchSize,
+                                  @Value("${app.status-queue.tracking-ttl:10m}") Duration trackingTtl) {
+        this.appointmentRepository = appointmentRepository;
+        this.doctorScheduleIndex = doctorScheduleIndex;
+        this.changeEventLog = changeEventLog;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.slots = new Semaphore(capacity);
+        this.changes = Caffeine.newBuilder()
+                .expireAfterWrite(trackingTtl)
+                .maximumSize(capacity * 10L)
+                .build();
+        Gauge.builder("appointments.status.queue.depth", pending, Map::size)
+                .description("Appointment status changes waiting to be written")
+                .register(meterRegistry);
+        for (StatusChangeDto.State state : StatusChangeDto.State.values()) {
+            if (state != StatusChangeDto.State.PENDING) {
+                outcomes.put(state, Counter.builder("appointments.status.queue.changes")
+                        .description("Appointment status changes leaving the queue")
+                        .tag("outcome", state.name().toLowerCase())
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    /**
+     * A queued status change.
+     *
+     * @param trackingId The tracking ID returned to the client.
+     * @param status     The requested status.
+     */
+    private record PendingChange(String trackingId, AppointmentStatus status) {
+    }
+
+    /**
+     * Queues a status change, replacing the change of the same appointment still waiting in the queue, if any.
+     *
+     * @param appointmentId The ID of the appointment.
+     * @param status        The new status.
+     * @return The {@link StatusChangeDto} of the queued change, in the {@code PENDING} state.
+     * @throws RejectedExecutionException If the queue is full.
+     */
+    public StatusChangeDto enqueue(Long appointmentId, AppointmentStatus status) {
+        StatusChangeDto change = StatusChangeDto.builder()
+                .trackingId(UUID.randomUUID().toString())
+                .appointmentId(appointmentId)
+                .status(status.getLabel())
+                .state(StatusChangeDto.State.PENDING)
+                .build();
+        AtomicReference<PendingChange> superseded = new AtomicReference<>();
+        pending.compute(appointmentId, (id, previous) -> {
+            if (previous == null && !slots.tryAcquire()) {
+                throw new RejectedExecutionException("The status change queue is full; retry later.");
+            }
+            superseded.set(previous);
+            changes.put(change.getTrackingId(), change);
+            return new PendingChange(change.getTrackingId(), status);
+        });
+        if (superseded.get() != null) {
+            complete(superseded.get(), StatusChangeDto.State.SUPERSEDED, null);
+        }
+        return change;
+    }
+
+    /**
+     * Returns the current state of a queued change.
+     *
+     * @param trackingId The tracking ID returned when the change was queued.
+     * @return The {@link StatusChangeDto} of the change.
+     * @throws EntityNotFoundException If the tracking ID is unknown or has expired.
+     */
+    public StatusChangeDto getChange(String trackingId) {
+        StatusChangeDto change = changes.getIfPresent(trackingId);
+        if (change == null) {
+            throw new EntityNotFoundException("Status change not found with tracking ID: " + trackingId);
+        }
+        return change;
+    }
+
+    /**
+     * Drains the queue and writes the changes, one transaction per chunk of appointments.
+     */
+    @Scheduled(fixedDelayString = "${app.status-queue.flush-interval:200ms}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            Map<Long, PendingChange> drained = new LinkedHashMap<>();
+            for (Long appointmentId : pending.keySet()) {
+                PendingChange change = pending.remove(appointmentId);
+                if (change != null) {
+                    slots.release();
+                    drained.put(appointmentId, change);
+                }
+            }
+            List<Long> appointmentIds = new ArrayList<>(drained.keySet());
+            for (int from = 0; from < appointmentIds.size(); from += batchSize) {
+                List<Long> chunk = appointmentIds.subList(from, Math.min(from + batchSize, appointmentIds.size()));
+                Map<Long, String> errors;
+                try {
+                    errors = transactionTemplate.execute(status -> write(chunk, drained));
+                } catch (RuntimeException ex) {
+                    chunk.forEach(id -> complete(drained.get(id), StatusChangeDto.State.FAILED, ex.getMessage()));
+                    continue;
+                }
+                chunk.forEach(id -> complete(drained.get(id),
+                        errors.containsKey(id) ? StatusChangeDto.State.FAILED : StatusChangeDto.State.APPLIED,
+                        errors.get(id)));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the changes still queued when the application shuts down.
+     */
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Writes the changes of a chunk of appointments; must run inside a transaction.
+     * Appointments that no longer exist, or whose slot was taken while they were canceled, are skipped.
+     *
+     * @param chunk   The IDs of the appointments.
+     * @param changes The drained changes, by appointment ID.
+     * @return The error of every skipped appointment, by ID.
+     */
+    private Map<Long, String> write(List<Long> chunk, Map<Long, PendingChange> changes) {
+        Map<Long, AppointmentSlot> slots = appointmentRepository.findSlotsByIdIn(chunk).stream()
+                .collect(Collectors.toMap(AppointmentSlot::getId, Function.identity()));
+        Map<Long, String> errors = new HashMap<>();
+        Map<AppointmentStatus, List<Long>> idsByStatus = new EnumMap<>(AppointmentStatus.class);
+        for (Long appointmentId : chunk) {
+            AppointmentSlot slot = slots.get(appointmentId);
+            if (slot == null) {
+                errors.put(appointmentId, "Appointment not found with ID: " + appointmentId);
+                continue;
+            }
+            AppointmentStatus status = changes.get(appointmentId).status();
+            try {
+                doctorScheduleIndex.track(appointmentId, slot.getDoctorId(), slot.getDate(), status);
+            } catch (SchedulingConflictException ex) {
+                errors.put(appointmentId, ex.getMessage());
+                continue;
+            }
+            idsByStatus.computeIfAbsent(status, key -> new ArrayList<>()).add(appointmentId);
+        }
+        idsByStatus.forEach((status, ids) -> {
+            appointmentRepository.updateStatus(ids, status);
+            ids.forEach(id -> changeEventLog.publish(Appointment.class, id, ChangeEventDto.Type.UPDATED));
+        });
+        return errors;
+    }
+
+    /**
+     * Records the final state of a change.
+     *
+     * @param change The change.
+     * @param state  Its final state.
+     * @param error  The reason of the failure, or null.
+     */
+    private void complete(PendingChange change, StatusChangeDto.State state, String error) {
+        changes.asMap().computeIfPresent(change.trackingId(),
+                (trackingId, dto) -> dto.toBuilder().state(state).error(error).build());
+        outcomes.get(state).increment();
+    }
+}
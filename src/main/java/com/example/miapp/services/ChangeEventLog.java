@@ -0,0 +1,141 @@
+package com.example.miapp.services;
+
+import com.example.miapp.dto.ChangeEventDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory ring buffer of the last {@code app.events.buffer-size} committed entity changes.
+ * <p>
+ * Services publish their changes while their transaction is running; the events are appended once it
+ * commits, so rolled back changes are never seen. Sequences start at the startup time in microseconds,
+ * which keeps them increasing across restarts: a subscriber resuming from a sequence of a previous run,
+ * or from one already overwritten, is told that events were missed instead of silently skipping them.
+ */
+@Component
+public class ChangeEventLog {
+
+    private final ChangeEventDto[] ring;
+    private final long firstSequence;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Set<Runnable> listeners = ConcurrentHashMap.newKeySet();
+
+    /** Sequence of the last appended event; guarded by {@link #lock}. */
+    private long lastSequence;
+
+    public ChangeEventLog(@Value("${app.events.buffer-size:10000}") int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The change event buffer size must be positive");
+        }
+        this.ring = new ChangeEventDto[bufferSize];
+        this.lastSequence = System.currentTimeMillis() * 1000;
+        this.firstSequence = lastSequence + 1;
+    }
+
+    /**
+     * Events following a sequence.
+     *
+     * @param events       The retained events after the sequence, oldest first.
+     * @param complete     False if events after the sequence were overwritten or belong to another run.
+     * @param lastSequence The sequence of the last appended event when the events were read.
+     */
+    public record Slice(List<ChangeEventDto> events, boolean complete, long lastSequence) {
+    }
+
+    /**
+     * Publishes a change made by the current transaction, once it commits.
+     *
+     * @param type The entity class.
+     * @param id   The ID of the entity.
+     * @param kind The kind of change.
+     */
+    public void publish(Class<?> type, Long id, ChangeEventDto.Type kind) {
+        String entity = type.getSimpleName();
+        TransactionHooks.afterCommit(() -> append(entity, id, kind));
+    }
+
+    /**
+     * Returns the retained events following a sequence.
+     *
+     * @param afterSequence The sequence of the last event already seen.
+     * @param maxEvents     The maximum number of events to return.
+     * @return The {@link Slice} of events.
+     */
+    public Slice since(long afterSequence, int maxEvents) {
+        lock.lock();
+        try {
+            long oldest = Math.max(firstSequence, lastSequence - ring.length + 1);
+            boolean complete = afterSequence >= oldest - 1 && afterSequence <= lastSequence;
+            long from = complete ? afterSequence + 1 : oldest;
+            long to = Math.min(lastSequence, from + maxEvents - 1);
+            List<ChangeEventDto> events = new ArrayList<>((int) Math.max(0, to - from + 1));
+            for (long sequence = from; sequence <= to; sequence++) {
+                events.add(ring[slot(sequence)]);
+            }
+            return new Slice(events, complete, lastSequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sequence of the last appended event, from which new subscribers start.
+     *
+     * @return The last sequence.
+     */
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registers a listener called, on the committing thread, after every appended event.
+     * Listeners must return quickly and read the events with {@link #since(long, int)}.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    private void append(String entity, Long id, ChangeEventDto.Type kind) {
+        lock.lock();
+        try {
+            long sequence = ++lastSequence;
+            ring[slot(sequence)] = ChangeEventDto.builder()
+                    .sequence(sequence)
+                    .entity(entity)
+                    .entityId(id)
+                    .type(kind)
+                    .committedAt(Instant.now())
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % ring.length);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.miapp.services;
+
+import com.example.miapp.dto.ChangeEventDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events subscriptions to the {@link ChangeEventLog}.
+ * <p>
+ * Each subscription keeps its own position in the log and is drained on the application task executor when
+ * events are appended, so a slow client never holds up the committing thread or the other clients. Events are
+ * sent as {@code change} events whose ID is their sequence; a client whose position is no longer in the log
+ * (it fell more than {@code app.events.buffer-size} events behind, or resumed from a previous run) receives a
+ * {@code reset} event instead and should reload the data it shows. A comment is sent every
+ * {@code app.events.heartbeat-interval} to keep idle connections open. At most {@code app.events.max-subscribers}
+ * streams are open at once: each one holds a permit of a {@link Semaphore} until it is closed. The number of open
+ * subscriptions is exported as {@code events.subscribers}.
+ */
+@Component
+public class ChangeEventStreams {
+
+    private static final int SEND_BATCH_SIZE = 256;
+
+    private final ChangeEventLog changeEventLog;
+    private final Executor executor;
+    private final long timeoutMillis;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    /** One permit per stream that can still be opened. */
+    private final Semaphore slots;
+
+    public ChangeEventStreams(ChangeEventLog changeEventLog,
+                              @Qualifier("applicationTaskExecutor") Executor executor,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.events.timeout:30m}") Duration timeout,
+                              @Value("${app.events.max-subscribers:1000}") int maxSubscribers) {
+        this.changeEventLog = changeEventLog;
+        this.executor = executor;
+        this.timeoutMillis = timeout.toMillis();
+        this.slots = new Semaphore(maxSubscribers);
+        Gauge.builder("events.subscribers", subscriptions, Set::size)
+                .description("Open change event streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of the changes following a sequence.
+     *
+     * @param afterSequence The sequence of the last event the client has seen, or null to receive only new events.
+     * @return The {@link SseEmitter} of the stream.
+     * @throws RejectedExecutionException If the maximum number of streams is already open.
+     */
+    public SseEmitter subscribe(Long afterSequence) {
+        if (!slots.tryAcquire()) {
+            throw new RejectedExecutionException("Too many open event streams; retry later.");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(emitter,
+                afterSequence != null ? afterSequence : changeEventLog.lastSequence());
+        subscriptions.add(subscription);
+        changeEventLog.addListener(subscription.listener);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(ex -> subscription.close());
+        subscription.signal();
+        return emitter;
+    }
+
+    /**
+     * Sends a comment on every open stream, so that proxies do not close idle connections.
+     */
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-interval:15s}")
+    public void heartbeat() {
+        subscriptions.forEach(Subscription::heartbeat);
+    }
+
+    /**
+     * An open stream and its position in the log.
+     */
+    private final class Subscription {
+
+        private final SseEmitter emitter;
+        private final Runnable listener = this::signal;
+
+        /** Number of signals not handled yet; the signal taking it from zero schedules the drain. */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        /** Sequence of the last event sent; only accessed by the running drain. */
+        private long position;
+
+        private Subscription(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+
+        private void signal() {
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException ex) {
+                    close();
+                    emitter.completeWithError(ex);
+                }
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                try {
+                    sendAvailable();
+                } catch (IOException | IllegalStateException ex) {
+                    // The client went away or the emitter is already completed.
+                    close();
+                    return;
+                }
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void sendAvailable() throws IOException {
+            while (true) {
+                ChangeEventLog.Slice slice = changeEventLog.since(position, SEND_BATCH_SIZE);
+                if (!slice.complete()) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(slice.lastSequence()))
+                            .name("reset")
+                            .data(slice.lastSequence()));
+                    position = slice.lastSequence();
+                    continue;
+                }
+                if (slice.events().isEmpty()) {
+                    return;
+                }
+                for (ChangeEventDto event : slice.events()) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(event.getSequence()))
+                            .name("change")
+                            .data(event));
+                    position = event.getSequence();
+                }
+            }
+        }
+
+        private void heartbeat() {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException ex) {
+                close();
+            }
+        }
+
+        private void close() {
+            changeEventLog.removeListener(listener);
+            if (subscriptions.remove(this)) {
+                slots.release();
+            }
+        }
+    }
+}
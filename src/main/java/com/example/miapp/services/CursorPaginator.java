@@ -0,0 +1,187 @@
+package com.example.miapp.services;
+
+import com.example.miapp.dto.CursorPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helper for keyset (seek) pagination over ID-ordered listings, and over date-range listings ordered by date and ID.
+ * <p>
+ * Cursors are opaque to clients: they encode the ID (and date) of the last item returned,
+ * so the next page is read with an index range scan ({@code id > cursor}) instead of an offset.
+ */
+@Component
+public class CursorPaginator {
+
+    private static final String CURSOR_PREFIX = "id:";
+    private static final String DATE_CURSOR_PREFIX = "date:";
+    private static final char DATE_CURSOR_SEPARATOR = ',';
+
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public CursorPaginator(@Value("${app.pagination.default-limit:50}") int defaultLimit,
+                           @Value("${app.pagination.max-limit:200}") int maxLimit) {
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Resolves the page size requested by the client, capped at the server-side maximum.
+     *
+     * @param requested The requested page size, or null for the default.
+     * @return The effective page size.
+     * @throws IllegalArgumentException If the requested page size is not positive.
+     */
+    public int resolveLimit(Integer requested) {
+        if (requested == null) {
+            return Math.min(defaultLimit, maxLimit);
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Limit must be a positive number.");
+        }
+        return Math.min(requested, maxLimit);
+    }
+
+    /**
+     * Builds the repository limit for a page: one extra row is read to detect whether a next page exists.
+     *
+     * @param limit The effective page size.
+     * @return The {@link Limit} to pass to the repository.
+     */
+    public Limit fetchLimit(int limit) {
+        return Limit.of(limit + 1);
+    }
+
+    /**
+     * Decodes a cursor into the ID after which the page starts.
+     *
+     * @param cursor The opaque cursor, or null/blank for the first page.
+     * @return The last ID already seen by the client (0 for the first page).
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = decode(cursor);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, ex);
+        }
+    }
+
+    /**
+     * Encodes the ID of the last returned item into an opaque cursor.
+     *
+     * @param id The ID of the last item of the page.
+     * @return The opaque cursor.
+     */
+    public String encodeCursor(Long id) {
+        return encode(CURSOR_PREFIX + id);
+    }
+
+    /**
+     * Decodes a cursor of a listing ordered by date and then ID.
+     *
+     * @param cursor The opaque cursor, or null/blank for the first page.
+     * @param from   The start of the listed date range, used as the position of the first page.
+     * @return The date and ID of the last item already seen by the client ({@code from} and 0 for the first page).
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public DateKey decodeDateCursor(String cursor, LocalDateTime from) {
+        if (cursor == null || cursor.isBlank()) {
+            return new DateKey(from, 0L);
+        }
+        try {
+            String decoded = decode(cursor);
+            int separator = decoded.lastIndexOf(DATE_CURSOR_SEPARATOR);
+            if (!decoded.startsWith(DATE_CURSOR_PREFIX) || separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new DateKey(LocalDateTime.parse(decoded.substring(DATE_CURSOR_PREFIX.length(), separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, ex);
+        }
+    }
+
+    /**
+     * Encodes the date and ID of the last returned item into an opaque cursor.
+     *
+     * @param date The date of the last item of the page.
+     * @param id   The ID of the last item of the page.
+     * @return The opaque cursor.
+     */
+    public String encodeDateCursor(LocalDateTime date, Long id) {
+        return encode(DATE_CURSOR_PREFIX + date + DATE_CURSOR_SEPARATOR + id);
+    }
+
+    /**
+     * Builds a page from rows read with {@link #fetchLimit(int)}.
+     *
+     * @param rows        The rows read from the repository, at most {@code limit + 1}.
+     * @param limit       The effective page size.
+     * @param idExtractor Function returning the ID of an item.
+     * @param <T>         The type of the items.
+     * @return The {@link CursorPage} with its next cursor.
+     */
+    public <T> CursorPage<T> toPage(List<T> rows, int limit, Function<T, Long> idExtractor) {
+        return buildPage(rows, limit, item -> encodeCursor(idExtractor.apply(item)));
+    }
+
+    /**
+     * Builds a page of a listing ordered by date and then ID from rows read with {@link #fetchLimit(int)}.
+     *
+     * @param rows          The rows read from the repository, at most {@code limit + 1}.
+     * @param limit         The effective page size.
+     * @param dateExtractor Function returning the date of an item.
+     * @param idExtractor   Function returning the ID of an item.
+     * @param <T>           The type of the items.
+     * @return The {@link CursorPage} with its next cursor.
+     */
+    public <T> CursorPage<T> toDatePage(List<T> rows, int limit, Function<T, LocalDateTime> dateExtractor,
+                                        Function<T, Long> idExtractor) {
+        return buildPage(rows, limit, item -> encodeDateCursor(dateExtractor.apply(item), idExtractor.apply(item)));
+    }
+
+    private <T> CursorPage<T> buildPage(List<T> rows, int limit, Function<T, String> cursorEncoder) {
+        boolean hasMore = rows.size() > limit;
+        List<T> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? cursorEncoder.apply(items.get(items.size() - 1)) : null;
+        return CursorPage.<T>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .limit(limit)
+                .build();
+    }
+
+    private String encode(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String decode(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Position of the last item of a page ordered by date and then ID.
+     *
+     * @param date The date of the last item.
+     * @param id   The ID of the last item.
+     */
+    public record DateKey(LocalDateTime date, long id) {
+    }
+}
@@ -0,0 +1,368 @@
+package com.example.miapp.services;
+
+import com.example.miapp.entity.Appointment;
+import com.example.miapp.entity.AppointmentStatus;
+import com.example.miapp.repository.AppointmentRepository;
+import com.example.miapp.repository.AppointmentSlot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of the booked time slots of every doctor.
+ * <p>
+ * Each doctor has a sorted map of appointment start times, so a double booking is detected with two
+ * O(log n) neighbour lookups instead of a database query. Only upcoming, non-canceled appointments are
+ * indexed. The index is rebuilt from the database at startup and kept in sync by {@link AppointmentService};
+ * changes made inside a transaction are undone if that transaction rolls back.
+ */
+@Component
+public class DoctorScheduleIndex {
+
+    private final AppointmentRepository appointmentRepository;
+    private final Duration slotDuration;
+
+    /** Booked slots per doctor ID. */
+    private final Map<Long, DoctorSchedule> schedules = new ConcurrentHashMap<>();
+
+    /** Current slot of every indexed appointment, by appointment ID. */
+    private final Map<Long, Booking> bookings = new ConcurrentHashMap<>();
+
+    public DoctorScheduleIndex(AppointmentRepository appointmentRepository,
+                               @Value("${app.scheduling.slot-duration:30m}") Duration slotDuration) {
+        this.appointmentRepository = appointmentRepository;
+        this.slotDuration = slotDuration;
+    }
+
+    /**
+     * Booked slots of one doctor, guarded by a {@link ReentrantLock} rather than a monitor so that
+     * virtual threads waiting for it do not pin their carrier thread.
+     */
+    private static final class DoctorSchedule {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /** Appointment start time to appointment ID. */
+        private final NavigableMap<LocalDateTime, Long> slots = new TreeMap<>();
+    }
+
+    /**
+     * Slot occupied by an appointment.
+     *
+     * @param appointmentId The ID of the appointment.
+     * @param doctorId      The ID of the doctor.
+     * @param start         The start time of the slot.
+     */
+    private record Booking(Long appointmentId, Long doctorId, LocalDateTime start) {
+    }
+
+    /**
+     * Slots accepted for the items of one batch, which are only indexed once the whole batch is saved.
+     * Confined to the request handling the batch.
+     */
+    public final class BatchReservations {
+
+        /** Accepted slot start time to batch item index, per doctor ID. */
+        private final Map<Long, NavigableMap<LocalDateTime, Long>> slots = new HashMap<>();
+
+        private BatchReservations() {
+        }
+
+        /**
+         * Checks that a batch item's slot is free, both in the index and among the items accepted before it,
+         * and reserves it for the rest of the batch.
+         *
+         * @param index         The position of the item in the batch.
+         * @param doctorId      The ID of the doctor.
+         * @param start         The start time of the slot.
+         * @param appointmentId The ID of the appointment being moved, or null for a new one.
+         * @throws SchedulingConflictException If the slot overlaps another appointment of the doctor or an earlier item.
+         */
+        public void reserve(int index, Long doctorId, LocalDateTime start, Long appointmentId) {
+            checkAvailable(doctorId, start, appointmentId);
+            NavigableMap<LocalDateTime, Long> doctorSlots = slots.computeIfAbsent(doctorId, id -> new TreeMap<>());
+            Long conflict = findConflict(doctorSlots, start, null);
+            if (conflict != null) {
+                throw new SchedulingConflictException("Doctor " + doctorId + " is already booked by item " + conflict
+                        + " of the batch overlapping " + start + ".");
+            }
+            doctorSlots.put(start, (long) index);
+        }
+    }
+
+    /**
+     * Rebuilds the index from the upcoming appointments stored in the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        schedules.clear();
+        bookings.clear();
+        try (Stream<AppointmentSlot> slots = appointmentRepository.streamSlotsFrom(LocalDateTime.now().minus(slotDuration), AppointmentStatus.CANCELED)) {
+            slots.forEach(slot -> put(new Booking(slot.getId(), slot.getDoctorId(), slot.getDate())));
+        }
+    }
+
+    /**
+     * Returns the configured duration of an appointment slot.
+     *
+     * @return The slot duration.
+     */
+    public Duration getSlotDuration() {
+        return slotDuration;
+    }
+
+    /**
+     * Checks that a doctor is free for a slot starting at the given time.
+     *
+     * @param doctorId      The ID of the doctor.
+     * @param start         The start time of the slot.
+     * @param appointmentId The ID of the appointment being moved, or null for a new one.
+     * @throws SchedulingConflictException If the slot overlaps another appointment of the doctor.
+     */
+    public void checkAvailable(Long doctorId, LocalDateTime start, Long appointmentId) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        if (schedule == null) {
+            return;
+        }
+        schedule.lock.lock();
+        try {
+            Long conflict = findConflict(schedule.slots, start, appointmentId);
+            if (conflict != null) {
+                throw conflictException(doctorId, start, conflict);
+            }
+        } finally {
+            schedule.lock.unlock();
+        }
+    }
+
+    /**
+     * Starts the reservations of a batch, so its items are checked against each other as well as the index
+     * before any of them is saved.
+     *
+     * @return Empty reservations.
+     */
+    public BatchReservations newBatch() {
+        return new BatchReservations();
+    }
+
+    /**
+     * Records the slot of a saved appointment, or removes it if the appointment is canceled.
+     * Must be called inside the transaction that saves the appointment.
+     *
+     * @param appointment The saved appointment, with its ID assigned.
+     * @throws SchedulingConflictException If the slot overlaps another appointment of the doctor.
+     */
+    public void track(Appointment appointment) {
+        track(appointment.getId(), appointment.getDoctor().getId(), appointment.getDate(), appointment.getStatus());
+    }
+
+    /**
+     * Records the slot of an appointment given by its columns, or removes it if the status is canceled.
+     * Must be called inside the transaction that writes the appointment.
+     *
+     * @param appointmentId The ID of the appointment.
+     * @param doctorId      The ID of the doctor.
+     * @param start         The start time of the appointment.
+     * @param status        The status of the appointment.
+     * @throws SchedulingConflictException If the slot overlaps another appointment of the doctor.
+     */
+    public void track(Long appointmentId, Long doctorId, LocalDateTime start, AppointmentStatus status) {
+        if (status == AppointmentStatus.CANCELED) {
+            release(appointmentId);
+            return;
+        }
+        Booking booking = new Booking(appointmentId, doctorId, start);
+        Booking previous = bookings.get(booking.appointmentId());
+        if (booking.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            remove(previous);
+        }
+        DoctorSchedule schedule = schedules.computeIfAbsent(booking.doctorId(), id -> new DoctorSchedule());
+        schedule.lock.lock();
+        try {
+            Long conflict = findConflict(schedule.slots, booking.start(), booking.appointmentId());
+            if (conflict != null) {
+                if (previous != null) {
+                    put(previous);
+                }
+                throw conflictException(booking.doctorId(), booking.start(), conflict);
+            }
+            schedule.slots.put(booking.start(), booking.appointmentId());
+            bookings.put(booking.appointmentId(), booking);
+        } finally {
+            schedule.lock.unlock();
+        }
+        TransactionHooks.afterRollback(() -> {
+            remove(booking);
+            if (previous != null) {
+                put(previous);
+            }
+        });
+    }
+
+    /**
+     * Removes the slot of an appointment from the index.
+     * Must be called inside the transaction that deletes or cancels the appointment.
+     *
+     * @param appointmentId The ID of the appointment.
+     */
+    public void release(Long appointmentId) {
+        Booking previous = bookings.get(appointmentId);
+        if (previous != null) {
+            remove(previous);
+            TransactionHooks.afterRollback(() -> put(previous));
+        }
+    }
+
+    /**
+     * Removes every slot of a doctor from the index.
+     * Must be called inside the transaction that deletes the doctor and its appointments.
+     *
+     * @param doctorId The ID of the doctor.
+     */
+    public void releaseDoctor(Long doctorId) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        if (schedule == null) {
+            return;
+        }
+        List<Long> appointmentIds;
+        schedule.lock.lock();
+        try {
+            appointmentIds = new ArrayList<>(schedule.slots.values());
+        } finally {
+            schedule.lock.unlock();
+        }
+        appointmentIds.forEach(this::release);
+    }
+
+    /**
+     * Lists the booked slot start times of a doctor within a time range.
+     *
+     * @param doctorId The ID of the doctor.
+     * @param from     The start of the range (inclusive).
+     * @param to       The end of the range (exclusive).
+     * @return The start times of the slots overlapping the range, in ascending order.
+     */
+    public List<LocalDateTime> findBookedSlots(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        if (schedule == null) {
+            return List.of();
+        }
+        schedule.lock.lock();
+        try {
+            return new ArrayList<>(schedule.slots.subMap(from.minus(slotDuration), false, to, false).keySet());
+        } finally {
+            schedule.lock.unlock();
+        }
+    }
+
+    /**
+     * Lists the free slot start times of a doctor within a time range, on a grid of slot-duration steps from {@code from}.
+     *
+     * @param doctorId The ID of the doctor.
+     * @param from     The start of the range (inclusive).
+     * @param to       The end of the range; the last free slot ends at or before it.
+     * @return The start times of the free slots, in ascending order.
+     */
+    public List<LocalDateTime> findFreeSlots(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> booked = findBookedSlots(doctorId, from, to);
+        List<LocalDateTime> free = new ArrayList<>();
+        int next = 0;
+        for (LocalDateTime start = from; !start.plus(slotDuration).isAfter(to); start = start.plus(slotDuration)) {
+            while (next < booked.size() && !booked.get(next).plus(slotDuration).isAfter(start)) {
+                next++;
+            }
+            if (next == booked.size() || !booked.get(next).isBefore(start.plus(slotDuration))) {
+                free.add(start);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Finds an appointment of the schedule overlapping a slot starting at the given time.
+     *
+     * @param schedule      The doctor's booked slots; the caller holds the schedule lock.
+     * @param start         The start time of the slot.
+     * @param appointmentId The ID of the appointment to ignore, or null.
+     * @return The ID of the conflicting appointment, or null if the slot is free.
+     */
+    private Long findConflict(NavigableMap<LocalDateTime, Long> schedule, LocalDateTime start, Long appointmentId) {
+        Map.Entry<LocalDateTime, Long> before = schedule.floorEntry(start);
+        if (before != null && !before.getValue().equals(appointmentId)
+                && before.getKey().plus(slotDuration).isAfter(start)) {
+            return before.getValue();
+        }
+        Map.Entry<LocalDateTime, Long> after = schedule.higherEntry(start);
+        if (after != null && !after.getValue().equals(appointmentId)
+                && after.getKey().isBefore(start.plus(slotDuration))) {
+            return after.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Adds a booking to the index without checking for conflicts.
+     *
+     * @param booking The booking to add.
+     */
+    private void put(Booking booking) {
+        DoctorSchedule schedule = schedules.computeIfAbsent(booking.doctorId(), id -> new DoctorSchedule());
+        schedule.lock.lock();
+        try {
+            schedule.slots.put(booking.start(), booking.appointmentId());
+            bookings.put(booking.appointmentId(), booking);
+        } finally {
+            schedule.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a booking from the index.
+     *
+     * @param booking The booking to remove.
+     */
+    private void remove(Booking booking) {
+        DoctorSchedule schedule = schedules.get(booking.doctorId());
+        if (schedule == null) {
+            return;
+        }
+        schedule.lock.lock();
+        try {
+            schedule.slots.remove(booking.start(), booking.appointmentId());
+            bookings.remove(booking.appointmentId(), booking);
+        } finally {
+            schedule.lock.unlock();
+        }
+    }
+
+    /**
+     * Builds the exception reported for a double booking.
+     *
+     * @param doctorId The ID of the doctor.
+     * @param start    The requested start time.
+     * @param conflict The ID of the conflicting appointment.
+     * @return The {@link SchedulingConflictException} to throw.
+     */
+    private SchedulingConflictException conflictException(Long doctorId, LocalDateTime start, Long conflict) {
+        return new SchedulingConflictException("Doctor " + doctorId + " already has appointment " + conflict
+                + " overlapping " + start + ".");
+    }
+}
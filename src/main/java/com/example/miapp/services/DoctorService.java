@@ -1,13 +1,27 @@
 package com.example.miapp.services;
 
+import com.example.miapp.dto.ChangeEventDto;
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.DoctorAvailabilityDto;
 import com.example.miapp.dto.DoctorDto;
+import com.example.miapp.dto.MultiGetResult;
+import com.example.miapp.entity.Appointment;
 import com.example.miapp.entity.Doctor;
+import com.example.miapp.entity.DoctorSpecialty;
+import com.example.miapp.mapper.DoctorMapper;
+import com.example.miapp.repository.AppointmentRepository;
 import com.example.miapp.repository.DoctorRepository;
+import com.example.miapp.repository.DoctorSpecialtyRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,17 +33,36 @@ import java.util.stream.Collectors;
 public class DoctorService {
 
     private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorSpecialtyRepository doctorSpecialtyRepository;
+    private final DoctorMapper doctorMapper;
+    private final JsonMergePatch jsonMergePatch;
+    private final CursorPaginator cursorPaginator;
+    private final MultiGetLoader multiGetLoader;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final EntityVersionCache entityVersionCache;
+    private final ChangeEventLog changeEventLog;
+
+    @Value("${app.scheduling.max-availability-range:31d}")
+    private Duration maxAvailabilityRange;
 
     /**
-     * Retrieves all doctors from the database.
+     * Retrieves one page of doctors, ordered by ID, using keyset pagination.
      *
-     * @return List of {@link DoctorDto} containing doctor details.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link DoctorDto} containing doctor details.
+     * @throws IllegalArgumentException If the cursor or the limit is invalid.
      */
     @Transactional(readOnly = true)
-    public List<DoctorDto> getAllDoctors() {
-        return doctorRepository.findAll().stream()
-                .map(this::convertToDto)
+    public CursorPage<DoctorDto> getAllDoctors(String after, Integer limit) {
+        int pageSize = cursorPaginator.resolveLimit(limit);
+        List<DoctorDto> rows = doctorRepository
+                .findByIdGreaterThanOrderByIdAsc(cursorPaginator.decodeCursor(after), cursorPaginator.fetchLimit(pageSize))
+                .stream()
+                .map(doctorMapper::toDto)
                 .collect(Collectors.toList());
+        return cursorPaginator.toPage(rows, pageSize, DoctorDto::getId);
     }
 
     /**
@@ -42,7 +75,53 @@ public class DoctorService {
     @Transactional(readOnly = true)
     public DoctorDto getDoctorById(Long id) {
         Doctor doctor = findDoctorById(id);
-        return convertToDto(doctor);
+        entityVersionCache.record(Doctor.class, id, doctor.getVersion());
+        return doctorMapper.toDto(doctor);
+    }
+
+    /**
+     * Retrieves several doctors by ID, with one query per chunk of IDs.
+     *
+     * @param ids The IDs of the doctors.
+     * @return {@link MultiGetResult} with the {@link DoctorDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @Transactional(readOnly = true)
+    public MultiGetResult<DoctorDto> getDoctorsByIds(List<Long> ids) {
+        return multiGetLoader.load(ids, chunk -> doctorRepository.findAllById(chunk).stream()
+                .map(doctorMapper::toDto)
+                .collect(Collectors.toList()), DoctorDto::getId);
+    }
+
+    /**
+     * Retrieves the booked and free appointment slots of a doctor within a time range.
+     * The slots are read from the in-memory {@link DoctorScheduleIndex}, without querying appointments.
+     *
+     * @param id   The ID of the doctor.
+     * @param from The start of the range (inclusive).
+     * @param to   The end of the range (exclusive).
+     * @return {@link DoctorAvailabilityDto} with the booked and free slots.
+     * @throws EntityNotFoundException  If no doctor is found with the given ID.
+     * @throws IllegalArgumentException If the range is empty or longer than the maximum range.
+     */
+    @Transactional(readOnly = true)
+    public DoctorAvailabilityDto getDoctorAvailability(Long id, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'.");
+        }
+        if (Duration.between(from, to).compareTo(maxAvailabilityRange) > 0) {
+            throw new IllegalArgumentException("Availability range must not exceed " + maxAvailabilityRange.toDays() + " days.");
+        }
+        findDoctorById(id);
+
+        return DoctorAvailabilityDto.builder()
+                .doctorId(id)
+                .from(from)
+                .to(to)
+                .slotMinutes(doctorScheduleIndex.getSlotDuration().toMinutes())
+                .bookedSlots(doctorScheduleIndex.findBookedSlots(id, from, to))
+                .freeSlots(doctorScheduleIndex.findFreeSlots(id, from, to))
+                .build();
     }
 
     /**
@@ -53,44 +132,77 @@ public class DoctorService {
      */
     @Transactional
     public DoctorDto saveDoctor(DoctorDto doctorDto) {
-        Doctor doctor = convertToEntity(doctorDto);
-        return convertToDto(doctorRepository.save(doctor));
+        Doctor savedDoctor = doctorRepository.save(doctorMapper.toEntity(doctorDto));
+        entityVersionCache.record(Doctor.class, savedDoctor.getId(), savedDoctor.getVersion());
+        changeEventLog.publish(Doctor.class, savedDoctor.getId(), ChangeEventDto.Type.CREATED);
+        return doctorMapper.toDto(savedDoctor);
     }
 
     /**
      * Updates an existing doctor's information.
      *
-     * @param id        The ID of the doctor to be updated.
-     * @param doctorDto The updated {@link DoctorDto} data.
-     * @return The updated {@link DoctorDto}.
-     * @throws EntityNotFoundException If the doctor does not exist.
+     * @param id              The ID of the doctor to be updated.
+     * @param doctorDto       The updated {@link DoctorDto} data.
+     * @param expectedVersion The version the update is based on (from {@code If-Match}), or null to skip the check.
+     * @return The updated {@link DoctorDto}, carrying the new version.
+     * @throws EntityNotFoundException           If the doctor does not exist.
+     * @throws OptimisticLockingFailureException If the doctor is no longer at the expected version.
      */
     @Transactional
-    public DoctorDto updateDoctor(Long id, DoctorDto doctorDto) {
+    public DoctorDto updateDoctor(Long id, DoctorDto doctorDto, Long expectedVersion) {
         Doctor existingDoctor = findDoctorById(id);
+        entityVersionCache.verify(Doctor.class, id, existingDoctor.getVersion(), expectedVersion);
 
-        existingDoctor = existingDoctor.toBuilder()
-                .firstName(doctorDto.getFirstName())
-                .lastName(doctorDto.getLastName())
-                .phone(doctorDto.getPhone())
-                .email(doctorDto.getEmail())
-                .build();
+        doctorMapper.updateEntity(doctorDto, existingDoctor);
+        doctorRepository.flush();
 
-        return convertToDto(doctorRepository.save(existingDoctor));
+        entityVersionCache.record(Doctor.class, id, existingDoctor.getVersion());
+        changeEventLog.publish(Doctor.class, id, ChangeEventDto.Type.UPDATED);
+        return doctorMapper.toDto(existingDoctor);
     }
 
     /**
-     * Deletes a doctor by its ID.
+     * Applies a JSON Merge Patch to a doctor: the fields absent from the patch keep their value, and
+     * only the columns that actually change are written.
+     *
+     * @param id              The ID of the doctor to be patched.
+     * @param patch           The merge patch.
+     * @param expectedVersion The version the patch is based on (from {@code If-Match}), or null to skip the check.
+     * @return The patched {@link DoctorDto}, carrying the new version.
+     * @throws EntityNotFoundException           If the doctor does not exist.
+     * @throws IllegalArgumentException          If the patch is malformed or leaves the doctor invalid.
+     * @throws OptimisticLockingFailureException If the doctor is no longer at the expected version.
+     */
+    @Transactional
+    public DoctorDto patchDoctor(Long id, JsonNode patch, Long expectedVersion) {
+        DoctorDto patched = jsonMergePatch.apply(doctorMapper.toDto(findDoctorById(id)), patch);
+        return updateDoctor(id, patched, expectedVersion);
+    }
+
+    /**
+     * Deletes a doctor by its ID, along with their appointments and specialty assignments.
+     * The children are removed with one bulk delete per table instead of being loaded and deleted one by one,
+     * and the number of deleted doctor rows tells whether the doctor existed. Only the children's IDs are read
+     * beforehand, to publish their deletion along with the doctor's; the doctor's slots are released from the
+     * schedule index, and restored if the transaction rolls back.
      *
      * @param id The ID of the doctor to be deleted.
      * @throws EntityNotFoundException If the doctor does not exist.
      */
     @Transactional
     public void deleteDoctor(Long id) {
-        if (!doctorRepository.existsById(id)) {
+        List<Long> appointmentIds = appointmentRepository.findIdsByDoctorId(id);
+        List<Long> doctorSpecialtyIds = doctorSpecialtyRepository.findIdsByDoctorId(id);
+        doctorScheduleIndex.releaseDoctor(id);
+        appointmentRepository.deleteByDoctorId(id);
+        doctorSpecialtyRepository.deleteByDoctorId(id);
+        if (doctorRepository.deleteRowById(id) == 0) {
             throw new EntityNotFoundException("Doctor not found with ID: " + id);
         }
-        doctorRepository.deleteById(id);
+        entityVersionCache.evict(Doctor.class, id);
+        appointmentIds.forEach(appointmentId -> changeEventLog.publish(Appointment.class, appointmentId, ChangeEventDto.Type.DELETED));
+        doctorSpecialtyIds.forEach(doctorSpecialtyId -> changeEventLog.publish(DoctorSpecialty.class, doctorSpecialtyId, ChangeEventDto.Type.DELETED));
+        changeEventLog.publish(Doctor.class, id, ChangeEventDto.Type.DELETED);
     }
 
     /**
@@ -104,36 +216,4 @@ public class DoctorService {
         return doctorRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Doctor not found with ID: " + id));
     }
-
-    /**
-     * Converts a {@link Doctor} entity to a {@link DoctorDto}.
-     *
-     * @param doctor The entity to convert.
-     * @return The corresponding {@link DoctorDto}.
-     */
-    private DoctorDto convertToDto(Doctor doctor) {
-        return DoctorDto.builder()
-                .id(doctor.getId())
-                .firstName(doctor.getFirstName())
-                .lastName(doctor.getLastName())
-                .phone(doctor.getPhone())
-                .email(doctor.getEmail())
-                .build();
-    }
-
-    /**
-     * Converts a {@link DoctorDto} to a {@link Doctor} entity.
-     *
-     * @param dto The DTO to convert.
-     * @return The corresponding {@link Doctor} entity.
-     */
-    private Doctor convertToEntity(DoctorDto dto) {
-        return Doctor.builder()
-                .id(dto.getId())
-                .firstName(dto.getFirstName())
-                .lastName(dto.getLastName())
-                .phone(dto.getPhone())
-                .email(dto.getEmail())
-                .build();
-    }
 }
@@ -1,19 +1,22 @@
 package com.example.miapp.services;
 
+import com.example.miapp.dto.ChangeEventDto;
+import com.example.miapp.dto.CursorPage;
 import com.example.miapp.dto.DoctorSpecialtyDto;
-import com.example.miapp.entity.Doctor;
+import com.example.miapp.dto.MultiGetResult;
 import com.example.miapp.entity.DoctorSpecialty;
-import com.example.miapp.entity.Specialty;
+import com.example.miapp.mapper.DoctorSpecialtyMapper;
 import com.example.miapp.repository.DoctorRepository;
 import com.example.miapp.repository.DoctorSpecialtyRepository;
 import com.example.miapp.repository.SpecialtyRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * Service class for managing doctor-specialty assignments.
@@ -23,19 +26,28 @@ import java.util.stream.Collectors;
 public class DoctorSpecialtyService {
 
     private final DoctorSpecialtyRepository doctorSpecialtyRepository;
+    private final DoctorSpecialtyMapper doctorSpecialtyMapper;
+    private final JsonMergePatch jsonMergePatch;
     private final DoctorRepository doctorRepository;
     private final SpecialtyRepository specialtyRepository;
+    private final CursorPaginator cursorPaginator;
+    private final MultiGetLoader multiGetLoader;
+    private final ChangeEventLog changeEventLog;
 
     /**
-     * Retrieves all doctor-specialty assignments from the database.
+     * Retrieves one page of doctor-specialty assignments, ordered by ID, using keyset pagination.
      *
-     * @return List of {@link DoctorSpecialtyDto} containing all assignments.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link DoctorSpecialtyDto} containing assignment details.
+     * @throws IllegalArgumentException If the cursor or the limit is invalid.
      */
     @Transactional(readOnly = true)
-    public List<DoctorSpecialtyDto> getAllDoctorSpecialties() {
-        return doctorSpecialtyRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPage<DoctorSpecialtyDto> getAllDoctorSpecialties(String after, Integer limit) {
+        int pageSize = cursorPaginator.resolveLimit(limit);
+        List<DoctorSpecialtyDto> rows = doctorSpecialtyRepository
+                .findDtoPage(cursorPaginator.decodeCursor(after), cursorPaginator.fetchLimit(pageSize));
+        return cursorPaginator.toPage(rows, pageSize, DoctorSpecialtyDto::getId);
     }
 
     /**
@@ -47,8 +59,20 @@ public class DoctorSpecialtyService {
      */
     @Transactional(readOnly = true)
     public DoctorSpecialtyDto getDoctorSpecialtyById(Long id) {
-        DoctorSpecialty doctorSpecialty = findDoctorSpecialtyById(id);
-        return convertToDto(doctorSpecialty);
+        return doctorSpecialtyRepository.findDtoById(id)
+                .orElseThrow(() -> new EntityNotFoundException("DoctorSpecialty not found with ID: " + id));
+    }
+
+    /**
+     * Retrieves several doctor-specialty assignments by ID, with one query per chunk of IDs.
+     *
+     * @param ids The IDs of the doctor-specialty assignments.
+     * @return {@link MultiGetResult} with the {@link DoctorSpecialtyDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @Transactional(readOnly = true)
+    public MultiGetResult<DoctorSpecialtyDto> getDoctorSpecialtiesByIds(List<Long> ids) {
+        return multiGetLoader.load(ids, doctorSpecialtyRepository::findDtoByIdIn, DoctorSpecialtyDto::getId);
     }
 
     /**
@@ -60,14 +84,14 @@ public class DoctorSpecialtyService {
      */
     @Transactional
     public DoctorSpecialtyDto saveDoctorSpecialty(DoctorSpecialtyDto doctorSpecialtyDto) {
-        Doctor doctor = findDoctorById(doctorSpecialtyDto.getDoctorId());
-        Specialty specialty = findSpecialtyById(doctorSpecialtyDto.getSpecialtyId());
-
-        DoctorSpecialty doctorSpecialty = convertToEntity(doctorSpecialtyDto);
-        doctorSpecialty.setDoctor(doctor);
-        doctorSpecialty.setSpecialty(specialty);
-
-        return convertToDto(doctorSpecialtyRepository.save(doctorSpecialty));
+        DoctorSpecialty doctorSpecialty = doctorSpecialtyMapper.toEntity(doctorSpecialtyDto);
+        doctorSpecialty.setDoctor(doctorRepository.getReferenceById(doctorSpecialtyDto.getDoctorId()));
+        doctorSpecialty.setSpecialty(specialtyRepository.getReferenceById(doctorSpecialtyDto.getSpecialtyId()));
+
+        DoctorSpecialty savedDoctorSpecialty = ForeignKeyViolations.translate(
+                () -> doctorSpecialtyRepository.saveAndFlush(doctorSpecialty), referenceNotFoundMessages(doctorSpecialtyDto));
+        changeEventLog.publish(DoctorSpecialty.class, savedDoctorSpecialty.getId(), ChangeEventDto.Type.CREATED);
+        return doctorSpecialtyMapper.toDto(savedDoctorSpecialty);
     }
 
     /**
@@ -82,17 +106,29 @@ public class DoctorSpecialtyService {
     public DoctorSpecialtyDto updateDoctorSpecialty(Long id, DoctorSpecialtyDto doctorSpecialtyDto) {
         DoctorSpecialty existingDoctorSpecialty = findDoctorSpecialtyById(id);
 
-        Doctor doctor = findDoctorById(doctorSpecialtyDto.getDoctorId());
-        Specialty specialty = findSpecialtyById(doctorSpecialtyDto.getSpecialtyId());
+        doctorSpecialtyMapper.updateEntity(doctorSpecialtyDto, existingDoctorSpecialty);
+        existingDoctorSpecialty.setDoctor(doctorRepository.getReferenceById(doctorSpecialtyDto.getDoctorId()));
+        existingDoctorSpecialty.setSpecialty(specialtyRepository.getReferenceById(doctorSpecialtyDto.getSpecialtyId()));
+        ForeignKeyViolations.translate(doctorSpecialtyRepository::flush, referenceNotFoundMessages(doctorSpecialtyDto));
 
-        existingDoctorSpecialty = existingDoctorSpecialty.toBuilder()
-                .doctor(doctor)
-                .specialty(specialty)
-                .certificationDate(doctorSpecialtyDto.getCertificationDate())
-                .experienceLevel(doctorSpecialtyDto.getExperienceLevel())
-                .build();
+        changeEventLog.publish(DoctorSpecialty.class, id, ChangeEventDto.Type.UPDATED);
+        return doctorSpecialtyMapper.toDto(existingDoctorSpecialty);
+    }
 
-        return convertToDto(doctorSpecialtyRepository.save(existingDoctorSpecialty));
+    /**
+     * Applies a JSON Merge Patch to a doctor-specialty assignment: the fields absent from the patch keep their value, and
+     * only the columns that actually change are written.
+     *
+     * @param id    The ID of the doctor-specialty assignment to be patched.
+     * @param patch The merge patch.
+     * @return The patched {@link DoctorSpecialtyDto}.
+     * @throws EntityNotFoundException  If the assignment, or the doctor or specialty it now refers to, does not exist.
+     * @throws IllegalArgumentException If the patch is malformed or leaves the doctor-specialty assignment invalid.
+     */
+    @Transactional
+    public DoctorSpecialtyDto patchDoctorSpecialty(Long id, JsonNode patch) {
+        DoctorSpecialtyDto patched = jsonMergePatch.apply(doctorSpecialtyMapper.toDto(findDoctorSpecialtyById(id)), patch);
+        return updateDoctorSpecialty(id, patched);
     }
 
     /**
@@ -107,6 +143,7 @@ public class DoctorSpecialtyService {
             throw new EntityNotFoundException("DoctorSpecialty not found with ID: " + id);
         }
         doctorSpecialtyRepository.deleteById(id);
+        changeEventLog.publish(DoctorSpecialty.class, id, ChangeEventDto.Type.DELETED);
     }
 
     /**
@@ -122,56 +159,13 @@ public class DoctorSpecialtyService {
     }
 
     /**
-     * Finds a doctor by ID and throws an exception if not found.
-     *
-     * @param id The ID of the doctor.
-     * @return The {@link Doctor} entity.
-     * @throws EntityNotFoundException If the doctor does not exist.
-     */
-    private Doctor findDoctorById(Long id) {
-        return doctorRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Doctor not found with ID: " + id));
-    }
-
-    /**
-     * Finds a specialty by ID and throws an exception if not found.
-     *
-     * @param id The ID of the specialty.
-     * @return The {@link Specialty} entity.
-     * @throws EntityNotFoundException If the specialty does not exist.
-     */
-    private Specialty findSpecialtyById(Long id) {
-        return specialtyRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Specialty not found with ID: " + id));
-    }
-
-    /**
-     * Converts a {@link DoctorSpecialty} entity to a {@link DoctorSpecialtyDto}.
-     *
-     * @param doctorSpecialty The entity to convert.
-     * @return The corresponding {@link DoctorSpecialtyDto}.
-     */
-    private DoctorSpecialtyDto convertToDto(DoctorSpecialty doctorSpecialty) {
-        return DoctorSpecialtyDto.builder()
-                .id(doctorSpecialty.getId())
-                .doctorId(doctorSpecialty.getDoctor().getId())
-                .specialtyId(doctorSpecialty.getSpecialty().getId())
-                .certificationDate(doctorSpecialty.getCertificationDate())
-                .experienceLevel(doctorSpecialty.getExperienceLevel())
-                .build();
-    }
-
-    /**
-     * Converts a {@link DoctorSpecialtyDto} to a {@link DoctorSpecialty} entity.
+     * Builds the messages reported when a reference of a doctor-specialty assignment does not exist, by foreign key column.
      *
-     * @param dto The DTO to convert.
-     * @return The corresponding {@link DoctorSpecialty} entity.
+     * @param dto The assignment data.
+     * @return The not-found messages of the doctor and the specialty.
      */
-    private DoctorSpecialty convertToEntity(DoctorSpecialtyDto dto) {
-        return DoctorSpecialty.builder()
-                .id(dto.getId())
-                .certificationDate(dto.getCertificationDate())
-                .experienceLevel(dto.getExperienceLevel())
-                .build();
+    private Map<String, String> referenceNotFoundMessages(DoctorSpecialtyDto dto) {
+        return Map.of("doctor_id", "Doctor not found with ID: " + dto.getDoctorId(),
+                "specialty_id", "Specialty not found with ID: " + dto.getSpecialtyId());
     }
 }
@@ -0,0 +1,92 @@
+package com.example.miapp.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Last known {@code @Version} of recently read or written entities, used to answer conditional
+ * requests ({@code If-None-Match}) without loading the entity.
+ * <p>
+ * Versions are published once the transaction that read or wrote them commits, and an entry only
+ * ever moves to a higher version, so a slow reader cannot overwrite a newer version with an older one.
+ * Entries expire after {@code app.etag.version-cache-ttl}, which bounds how long changes made outside
+ * this instance (e.g., by another node or directly in the database) can go unnoticed.
+ */
+@Component
+public class EntityVersionCache {
+
+    private final Cache<Key, Long> versions;
+
+    public EntityVersionCache(@Value("${app.etag.version-cache-size:100000}") long maximumSize,
+                              @Value("${app.etag.version-cache-ttl:5m}") Duration ttl) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Cache key of an entity.
+     *
+     * @param type The entity class.
+     * @param id   The ID of the entity.
+     */
+    private record Key(Class<?> type, Long id) {
+    }
+
+    /**
+     * Returns the last known version of an entity.
+     *
+     * @param type The entity class.
+     * @param id   The ID of the entity.
+     * @return The version, or null if it is not cached.
+     */
+    public Long get(Class<?> type, Long id) {
+        return versions.getIfPresent(new Key(type, id));
+    }
+
+    /**
+     * Records the version of an entity read or written by the current transaction, once it commits.
+     *
+     * @param type    The entity class.
+     * @param id      The ID of the entity.
+     * @param version The version read or written.
+     */
+    public void record(Class<?> type, Long id, long version) {
+        Key key = new Key(type, id);
+        TransactionHooks.afterCommit(() -> versions.asMap().merge(key, version, Math::max));
+    }
+
+    /**
+     * Forgets the version of an entity deleted by the current transaction, both now and once it commits.
+     *
+     * @param type The entity class.
+     * @param id   The ID of the entity.
+     */
+    public void evict(Class<?> type, Long id) {
+        Key key = new Key(type, id);
+        versions.invalidate(key);
+        TransactionHooks.afterCommit(() -> versions.invalidate(key));
+    }
+
+    /**
+     * Checks the version an update was based on, as sent in {@code If-Match}.
+     *
+     * @param type            The entity class.
+     * @param id              The ID of the entity.
+     * @param currentVersion  The version of the entity being updated.
+     * @param expectedVersion The version the client based its update on, or null to skip the check.
+     * @throws OptimisticLockingFailureException If the entity has been modified since that version.
+     */
+    public void verify(Class<?> type, Long id, long currentVersion, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != currentVersion) {
+            throw new OptimisticLockingFailureException(type.getSimpleName() + " " + id + " is at version "
+                    + currentVersion + ", not " + expectedVersion + ".");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.miapp.services;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Translates the foreign key violations of writes whose references were attached with
+ * {@code getReferenceById}, without checking that they exist, back into the {@link EntityNotFoundException}
+ * a lookup of the missing entity would have thrown.
+ */
+final class ForeignKeyViolations {
+
+    /** Referencing column in the foreign key violation messages of H2 and MySQL: {@code FOREIGN KEY (`doctor_id`)}. */
+    private static final Pattern FOREIGN_KEY_COLUMN =
+            Pattern.compile("FOREIGN KEY\\s*\\(\\s*[`\"]?(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    private ForeignKeyViolations() {
+    }
+
+    /**
+     * Runs a write that flushes, translating a violation of one of the given foreign keys.
+     *
+     * @param write            The write; must flush so the constraints are checked.
+     * @param notFoundMessages The message of the missing entity, by lower-case foreign key column.
+     * @param <T>              The result type of the write.
+     * @return The result of the write.
+     * @throws EntityNotFoundException         If a listed foreign key refers to a missing row.
+     * @throws DataIntegrityViolationException If any other constraint is violated.
+     */
+    static <T> T translate(Supplier<T> write, Map<String, String> notFoundMessages) {
+        try {
+            return write.get();
+        } catch (DataIntegrityViolationException ex) {
+            String message = notFoundMessages.get(referencingColumn(ex));
+            if (message == null) {
+                throw ex;
+            }
+            throw new EntityNotFoundException(message);
+        }
+    }
+
+    /**
+     * Runs a write that flushes, such as the flush of an updated managed entity, translating a violation of one of
+     * the given foreign keys.
+     *
+     * @param write            The write; must flush so the constraints are checked.
+     * @param notFoundMessages The message of the missing entity, by lower-case foreign key column.
+     * @throws EntityNotFoundException         If a listed foreign key refers to a missing row.
+     * @throws DataIntegrityViolationException If any other constraint is violated.
+     */
+    static void translate(Runnable write, Map<String, String> notFoundMessages) {
+        translate(() -> {
+            write.run();
+            return null;
+        }, notFoundMessages);
+    }
+
+    /**
+     * Extracts the referencing column of a foreign key violation.
+     *
+     * @param ex The violation.
+     * @return The lower-case column name, or an empty string if the violation is not a foreign key violation.
+     */
+    private static String referencingColumn(DataIntegrityViolationException ex) {
+        String message = ex.getMostSpecificCause().getMessage();
+        Matcher matcher = FOREIGN_KEY_COLUMN.matcher(message != null ? message : "");
+        return matcher.find() ? matcher.group(1).toLowerCase(Locale.ROOT) : "";
+    }
+}
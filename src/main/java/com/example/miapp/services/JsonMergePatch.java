@@ -0,0 +1,91 @@
+package com.example.miapp.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies JSON Merge Patch documents (RFC 7396) to DTOs.
+ * <p>
+ * The current DTO is turned into a JSON tree, the patch merged into it (members set to {@code null} are removed,
+ * objects are merged recursively, anything else replaces the current value) and the result read back and
+ * validated, so a patched DTO obeys the same constraints as one sent to a full update.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonMergePatch {
+
+    /** Media type of JSON Merge Patch documents. */
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    /**
+     * Applies a merge patch to a DTO.
+     *
+     * @param target The current state of the resource; left untouched.
+     * @param patch  The merge patch, a JSON object.
+     * @param <T>    The DTO type.
+     * @return A new DTO holding the patched state.
+     * @throws IllegalArgumentException If the patch is not an object, changes the ID, holds values of the wrong
+     *                                  type, or leaves the DTO invalid.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T apply(T target, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("A merge patch must be a JSON object.");
+        }
+        ObjectNode current = objectMapper.valueToTree(target);
+        if (patch.has("id") && !patch.get("id").asText().equals(current.path("id").asText())) {
+            throw new IllegalArgumentException("The ID cannot be changed by a patch.");
+        }
+        T patched;
+        try {
+            patched = objectMapper.treeToValue(merge(current, patch), (Class<T>) target.getClass());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Invalid merge patch: " + ex.getOriginalMessage());
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(patched);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return patched;
+    }
+
+    /**
+     * Merges a patch into a JSON value, as defined by RFC 7396.
+     *
+     * @param target The current value, modified in place when it is an object; may be null.
+     * @param patch  The patch.
+     * @return The merged value.
+     */
+    private JsonNode merge(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target != null && target.isObject() ? (ObjectNode) target : objectMapper.createObjectNode();
+        for (Iterator<Map.Entry<String, JsonNode>> fields = patch.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isNull()) {
+                result.remove(field.getKey());
+            } else {
+                result.set(field.getKey(), merge(result.get(field.getKey()), field.getValue()));
+            }
+        }
+        return result;
+    }
+}
@@ -1,19 +1,22 @@
 package com.example.miapp.services;
 
+import com.example.miapp.dto.ChangeEventDto;
+import com.example.miapp.dto.CursorPage;
 import com.example.miapp.dto.MedicalRecordDto;
-import com.example.miapp.entity.Doctor;
+import com.example.miapp.dto.MultiGetResult;
 import com.example.miapp.entity.MedicalRecord;
-import com.example.miapp.entity.Patient;
+import com.example.miapp.mapper.MedicalRecordMapper;
 import com.example.miapp.repository.MedicalRecordRepository;
 import com.example.miapp.repository.PatientRepository;
 import com.example.miapp.repository.DoctorRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * Service class for managing medical records.
@@ -24,21 +27,40 @@ public class MedicalRecordService {
     @Autowired
     private MedicalRecordRepository medicalRecordRepository;
 
+    @Autowired
+    private MedicalRecordMapper medicalRecordMapper;
+
+    @Autowired
+    private JsonMergePatch jsonMergePatch;
+
     @Autowired
     private PatientRepository patientRepository;
 
     @Autowired
     private DoctorRepository doctorRepository;
 
+    @Autowired
+    private CursorPaginator cursorPaginator;
+
+    @Autowired
+    private MultiGetLoader multiGetLoader;
+
+    @Autowired
+    private ChangeEventLog changeEventLog;
+
     /**
-     * Retrieves all medical records from the database.
+     * Retrieves one page of medical records, ordered by ID, using keyset pagination.
      *
-     * @return List of {@link MedicalRecordDto} containing medical record details.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link MedicalRecordDto} containing medical record details.
+     * @throws IllegalArgumentException If the cursor or the limit is invalid.
      */
-    public List<MedicalRecordDto> getAllMedicalRecords() {
-        return medicalRecordRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPage<MedicalRecordDto> getAllMedicalRecords(String after, Integer limit) {
+        int pageSize = cursorPaginator.resolveLimit(limit);
+        List<MedicalRecordDto> rows = medicalRecordRepository
+                .findDtoPage(cursorPaginator.decodeCursor(after), cursorPaginator.fetchLimit(pageSize));
+        return cursorPaginator.toPage(rows, pageSize, MedicalRecordDto::getId);
     }
 
     /**
@@ -49,11 +71,21 @@ public class MedicalRecordService {
      * @throws EntityNotFoundException If no medical record is found with the given ID.
      */
     public MedicalRecordDto getMedicalRecordById(Long id) {
-        return medicalRecordRepository.findById(id)
-                .map(this::convertToDto)
+        return medicalRecordRepository.findDtoById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Medical record not found with ID: " + id));
     }
 
+    /**
+     * Retrieves several medical records by ID, with one query per chunk of IDs.
+     *
+     * @param ids The IDs of the medical records.
+     * @return {@link MultiGetResult} with the {@link MedicalRecordDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    public MultiGetResult<MedicalRecordDto> getMedicalRecordsByIds(List<Long> ids) {
+        return multiGetLoader.load(ids, medicalRecordRepository::findDtoByIdIn, MedicalRecordDto::getId);
+    }
+
     /**
      * Saves a new medical record in the database.
      *
@@ -63,21 +95,14 @@ public class MedicalRecordService {
      */
     @Transactional
     public MedicalRecordDto saveMedicalRecord(MedicalRecordDto dto) {
-        Patient patient = patientRepository.findById(dto.getPatientId())
-                .orElseThrow(() -> new EntityNotFoundException("Patient not found with ID: " + dto.getPatientId()));
-
-        Doctor doctor = doctorRepository.findById(dto.getResponsibleDoctorId())
-                .orElseThrow(() -> new EntityNotFoundException("Doctor not found with ID: " + dto.getResponsibleDoctorId()));
-
-        MedicalRecord medicalRecord = MedicalRecord.builder()
-                .patient(patient)
-                .responsibleDoctor(doctor)
-                .diagnosis(dto.getDiagnosis())
-                .treatment(dto.getTreatment())
-                .entryDate(dto.getEntryDate())
-                .build();
-
-        return convertToDto(medicalRecordRepository.save(medicalRecord));
+        MedicalRecord medicalRecord = medicalRecordMapper.toEntity(dto);
+        medicalRecord.setPatient(patientRepository.getReferenceById(dto.getPatientId()));
+        medicalRecord.setResponsibleDoctor(doctorRepository.getReferenceById(dto.getResponsibleDoctorId()));
+
+        MedicalRecord savedRecord = ForeignKeyViolations.translate(
+                () -> medicalRecordRepository.saveAndFlush(medicalRecord), referenceNotFoundMessages(dto));
+        changeEventLog.publish(MedicalRecord.class, savedRecord.getId(), ChangeEventDto.Type.CREATED);
+        return medicalRecordMapper.toDto(savedRecord);
     }
 
     /**
@@ -93,21 +118,31 @@ public class MedicalRecordService {
         MedicalRecord existingRecord = medicalRecordRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Medical record not found with ID: " + id));
 
-        Patient patient = patientRepository.findById(dto.getPatientId())
-                .orElseThrow(() -> new EntityNotFoundException("Patient not found with ID: " + dto.getPatientId()));
-
-        Doctor doctor = doctorRepository.findById(dto.getResponsibleDoctorId())
-                .orElseThrow(() -> new EntityNotFoundException("Doctor not found with ID: " + dto.getResponsibleDoctorId()));
+        medicalRecordMapper.updateEntity(dto, existingRecord);
+        existingRecord.setPatient(patientRepository.getReferenceById(dto.getPatientId()));
+        existingRecord.setResponsibleDoctor(doctorRepository.getReferenceById(dto.getResponsibleDoctorId()));
+        ForeignKeyViolations.translate(medicalRecordRepository::flush, referenceNotFoundMessages(dto));
 
-        MedicalRecord updatedRecord = existingRecord.toBuilder()
-                .patient(patient)
-                .responsibleDoctor(doctor)
-                .diagnosis(dto.getDiagnosis())
-                .treatment(dto.getTreatment())
-                .entryDate(dto.getEntryDate())
-                .build();
+        changeEventLog.publish(MedicalRecord.class, id, ChangeEventDto.Type.UPDATED);
+        return medicalRecordMapper.toDto(existingRecord);
+    }
 
-        return convertToDto(medicalRecordRepository.save(updatedRecord));
+    /**
+     * Applies a JSON Merge Patch to a medical record: the fields absent from the patch keep their value, and
+     * only the columns that actually change are written.
+     *
+     * @param id    The ID of the medical record to be patched.
+     * @param patch The merge patch.
+     * @return The patched {@link MedicalRecordDto}.
+     * @throws EntityNotFoundException  If the medical record, or the patient or doctor it now refers to, does not exist.
+     * @throws IllegalArgumentException If the patch is malformed or leaves the medical record invalid.
+     */
+    @Transactional
+    public MedicalRecordDto patchMedicalRecord(Long id, JsonNode patch) {
+        MedicalRecord existingRecord = medicalRecordRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Medical record not found with ID: " + id));
+        MedicalRecordDto patched = jsonMergePatch.apply(medicalRecordMapper.toDto(existingRecord), patch);
+        return updateMedicalRecord(id, patched);
     }
 
     /**
@@ -122,22 +157,17 @@ public class MedicalRecordService {
             throw new EntityNotFoundException("Medical record not found with ID: " + id);
         }
         medicalRecordRepository.deleteById(id);
+        changeEventLog.publish(MedicalRecord.class, id, ChangeEventDto.Type.DELETED);
     }
 
     /**
-     * Converts a {@link MedicalRecord} entity to a {@link MedicalRecordDto}.
+     * Builds the messages reported when a reference of a medical record does not exist, by foreign key column.
      *
-     * @param medicalRecord The entity to convert.
-     * @return The corresponding {@link MedicalRecordDto}.
+     * @param dto The medical record data.
+     * @return The not-found messages of the patient and the responsible doctor.
      */
-    private MedicalRecordDto convertToDto(MedicalRecord medicalRecord) {
-        return MedicalRecordDto.builder()
-                .id(medicalRecord.getId())
-                .patientId(medicalRecord.getPatient().getId())
-                .responsibleDoctorId(medicalRecord.getResponsibleDoctor().getId())
-                .diagnosis(medicalRecord.getDiagnosis())
-                .treatment(medicalRecord.getTreatment())
-                .entryDate(medicalRecord.getEntryDate())
-                .build();
+    private Map<String, String> referenceNotFoundMessages(MedicalRecordDto dto) {
+        return Map.of("patient_id", "Patient not found with ID: " + dto.getPatientId(),
+                "doctor_id", "Doctor not found with ID: " + dto.getResponsibleDoctorId());
     }
 }
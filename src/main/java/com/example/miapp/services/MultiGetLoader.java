@@ -0,0 +1,73 @@
+package com.example.miapp.services;
+
+import com.example.miapp.dto.MultiGetResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Helper for multi-get requests, which fetch several entities by ID at once.
+ * <p>
+ * The distinct IDs are resolved with one {@code IN} query per chunk of {@code app.multi-get.chunk-size} IDs,
+ * instead of one query per ID, and at most {@code app.multi-get.max-ids} IDs are accepted per request.
+ */
+@Component
+public class MultiGetLoader {
+
+    private final int chunkSize;
+    private final int maxIds;
+
+    public MultiGetLoader(@Value("${app.multi-get.chunk-size:500}") int chunkSize,
+                          @Value("${app.multi-get.max-ids:1000}") int maxIds) {
+        this.chunkSize = chunkSize;
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * Resolves a list of IDs, chunk by chunk.
+     *
+     * @param ids    The requested IDs; duplicates are resolved once.
+     * @param finder Finds the items of a chunk of IDs, in any order, skipping the IDs it does not know.
+     * @param idOf   Extracts the ID of an item.
+     * @param <T>    The type of the items.
+     * @return {@link MultiGetResult} with the items found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID, a blank ID or more than the maximum number of IDs is given.
+     */
+    public <T> MultiGetResult<T> load(List<Long> ids, Function<List<Long>, List<T>> finder, Function<T, Long> idOf) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one ID is required.");
+        }
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("IDs cannot be blank.");
+        }
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinctIds.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " IDs can be requested at once.");
+        }
+        Map<Long, T> found = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+            finder.apply(chunk).forEach(item -> found.put(idOf.apply(item), item));
+        }
+        List<T> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : distinctIds) {
+            T item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return MultiGetResult.<T>builder()
+                .items(items)
+                .missingIds(missingIds)
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.miapp.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes streamed DTOs as newline-delimited JSON (one DTO per line).
+ * <p>
+ * Rows are written one at a time as they come off the JDBC cursor. The streams are DTO projections, so nothing
+ * is added to the persistence context and memory stays bounded regardless of how many rows are exported.
+ * Must be called inside the transaction that opened the stream.
+ */
+@Component
+@RequiredArgsConstructor
+public class NdjsonExporter {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes every row of the stream to the output as one JSON line.
+     *
+     * @param rows         The stream of DTOs to export.
+     * @param outputStream The response output stream; it is flushed but not closed.
+     * @param <D>          The DTO type.
+     * @return The number of rows written.
+     * @throws IOException If writing to the output fails.
+     */
+    public <D> long write(Stream<D> rows, OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<D> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(iterator.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+            generator.flush();
+        }
+        return count;
+    }
+}
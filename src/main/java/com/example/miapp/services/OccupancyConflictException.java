@@ -0,0 +1,17 @@
+package com.example.miapp.services;
+
+/**
+ * Thrown when a stay would overlap another stay in the same room.
+ * Reported by the API as 409 (Conflict).
+ */
+public class OccupancyConflictException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message The description of the conflict.
+     */
+    public OccupancyConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,19 +1,26 @@
 package com.example.miapp.services;
 
+import com.example.miapp.dto.ChangeEventDto;
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.MultiGetResult;
 import com.example.miapp.dto.PatientRoomDto;
-import com.example.miapp.entity.Patient;
 import com.example.miapp.entity.PatientRoom;
-import com.example.miapp.entity.Room;
+import com.example.miapp.mapper.PatientRoomMapper;
 import com.example.miapp.repository.PatientRepository;
 import com.example.miapp.repository.PatientRoomRepository;
 import com.example.miapp.repository.RoomRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing patient-room relation operations.
@@ -23,19 +30,58 @@ import java.util.stream.Collectors;
 public class PatientRoomService {
 
     private final PatientRoomRepository patientRoomRepository;
+    private final PatientRoomMapper patientRoomMapper;
+    private final JsonMergePatch jsonMergePatch;
     private final PatientRepository patientRepository;
     private final RoomRepository roomRepository;
+    private final CursorPaginator cursorPaginator;
+    private final MultiGetLoader multiGetLoader;
+    private final NdjsonExporter ndjsonExporter;
+    private final RoomOccupancyIndex roomOccupancyIndex;
+    private final ChangeEventLog changeEventLog;
 
     /**
-     * Retrieves all patient-room relations from the database.
+     * Retrieves one page of patient-room relations, ordered by ID, using keyset pagination.
+     * The relations can be restricted to the stays in one room overlapping a date range.
      *
-     * @return List of {@link PatientRoomDto} containing details of patient-room assignments.
+     * @param roomId Optional ID of the room; requires {@code from} and {@code to}.
+     * @param from   Optional start of the date range (inclusive).
+     * @param to     Optional end of the date range (exclusive).
+     * @param after  Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit  Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link PatientRoomDto} containing patient-room details.
+     * @throws IllegalArgumentException If the filters, the cursor or the limit are invalid.
      */
     @Transactional(readOnly = true)
-    public List<PatientRoomDto> getAllPatientRooms() {
-        return patientRoomRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPage<PatientRoomDto> getAllPatientRooms(Long roomId, LocalDate from, LocalDate to,
+                                                         String after, Integer limit) {
+        int pageSize = cursorPaginator.resolveLimit(limit);
+        Long afterId = cursorPaginator.decodeCursor(after);
+        List<PatientRoomDto> rows;
+        if (roomId == null && from == null && to == null) {
+            rows = patientRoomRepository.findDtoPage(afterId, cursorPaginator.fetchLimit(pageSize));
+        } else {
+            if (roomId == null || from == null || to == null || !from.isBefore(to)) {
+                throw new IllegalArgumentException("Filtering stays requires 'roomId' and 'from' before 'to'.");
+            }
+            rows = patientRoomRepository.findDtoPageByRoomAndDateRange(roomId, java.sql.Date.valueOf(from),
+                    java.sql.Date.valueOf(to), afterId, cursorPaginator.fetchLimit(pageSize));
+        }
+        return cursorPaginator.toPage(rows, pageSize, PatientRoomDto::getId);
+    }
+
+    /**
+     * Streams all patient-room relations as newline-delimited JSON, ordered by ID.
+     *
+     * @param outputStream The output stream the {@link PatientRoomDto} lines are written to.
+     * @return The number of exported patient-room relations.
+     * @throws IOException If writing to the output stream fails.
+     */
+    @Transactional(readOnly = true)
+    public long exportPatientRooms(OutputStream outputStream) throws IOException {
+        try (Stream<PatientRoomDto> patientRooms = patientRoomRepository.streamDtoAll()) {
+            return ndjsonExporter.write(patientRooms, outputStream);
+        }
     }
 
     /**
@@ -47,8 +93,20 @@ public class PatientRoomService {
      */
     @Transactional(readOnly = true)
     public PatientRoomDto getPatientRoomById(Long id) {
-        PatientRoom patientRoom = findPatientRoomById(id);
-        return convertToDto(patientRoom);
+        return patientRoomRepository.findDtoById(id)
+                .orElseThrow(() -> new EntityNotFoundException("PatientRoom not found with ID: " + id));
+    }
+
+    /**
+     * Retrieves several patient-room relations by ID, with one query per chunk of IDs.
+     *
+     * @param ids The IDs of the patient-room relations.
+     * @return {@link MultiGetResult} with the {@link PatientRoomDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @Transactional(readOnly = true)
+    public MultiGetResult<PatientRoomDto> getPatientRoomsByIds(List<Long> ids) {
+        return multiGetLoader.load(ids, patientRoomRepository::findDtoByIdIn, PatientRoomDto::getId);
     }
 
     /**
@@ -56,21 +114,23 @@ public class PatientRoomService {
      *
      * @param patientRoomDto The {@link PatientRoomDto} containing the new patient-room details.
      * @return The saved {@link PatientRoomDto}.
-     * @throws EntityNotFoundException If the associated patient or room does not exist.
-     * @throws IllegalArgumentException If the check-out date is before the check-in date.
+     * @throws EntityNotFoundException    If the associated patient or room does not exist.
+     * @throws IllegalArgumentException   If the check-out date is before the check-in date.
+     * @throws OccupancyConflictException If the stay overlaps another stay in the same room.
      */
     @Transactional
     public PatientRoomDto savePatientRoom(PatientRoomDto patientRoomDto) {
-        Patient patient = findPatientById(patientRoomDto.getPatientId());
-        Room room = findRoomById(patientRoomDto.getRoomId());
-
         validateDates(patientRoomDto.getCheckInDate(), patientRoomDto.getCheckOutDate());
 
-        PatientRoom patientRoom = convertToEntity(patientRoomDto);
-        patientRoom.setPatient(patient);
-        patientRoom.setRoom(room);
+        PatientRoom patientRoom = patientRoomMapper.toEntity(patientRoomDto);
+        patientRoom.setPatient(patientRepository.getReferenceById(patientRoomDto.getPatientId()));
+        patientRoom.setRoom(roomRepository.getReferenceById(patientRoomDto.getRoomId()));
 
-        return convertToDto(patientRoomRepository.save(patientRoom));
+        PatientRoom savedPatientRoom = ForeignKeyViolations.translate(
+                () -> patientRoomRepository.saveAndFlush(patientRoom), referenceNotFoundMessages(patientRoomDto));
+        roomOccupancyIndex.track(savedPatientRoom);
+        changeEventLog.publish(PatientRoom.class, savedPatientRoom.getId(), ChangeEventDto.Type.CREATED);
+        return patientRoomMapper.toDto(savedPatientRoom);
     }
 
     /**
@@ -79,27 +139,41 @@ public class PatientRoomService {
      * @param id             The ID of the patient-room relation to be updated.
      * @param patientRoomDto The updated {@link PatientRoomDto} data.
      * @return The updated {@link PatientRoomDto}.
-     * @throws EntityNotFoundException If the relation, patient, or room does not exist.
-     * @throws IllegalArgumentException If the check-out date is before the check-in date.
+     * @throws EntityNotFoundException    If the relation, patient, or room does not exist.
+     * @throws IllegalArgumentException   If the check-out date is before the check-in date.
+     * @throws OccupancyConflictException If the new stay overlaps another stay in the same room.
      */
     @Transactional
     public PatientRoomDto updatePatientRoom(Long id, PatientRoomDto patientRoomDto) {
         PatientRoom existingPatientRoom = findPatientRoomById(id);
 
-        Patient patient = findPatientById(patientRoomDto.getPatientId());
-        Room room = findRoomById(patientRoomDto.getRoomId());
-
         validateDates(patientRoomDto.getCheckInDate(), patientRoomDto.getCheckOutDate());
 
-        existingPatientRoom = existingPatientRoom.toBuilder()
-                .patient(patient)
-                .room(room)
-                .checkInDate(patientRoomDto.getCheckInDate())
-                .checkOutDate(patientRoomDto.getCheckOutDate())
-                .observations(patientRoomDto.getObservations())
-                .build();
+        patientRoomMapper.updateEntity(patientRoomDto, existingPatientRoom);
+        existingPatientRoom.setPatient(patientRepository.getReferenceById(patientRoomDto.getPatientId()));
+        existingPatientRoom.setRoom(roomRepository.getReferenceById(patientRoomDto.getRoomId()));
+        ForeignKeyViolations.translate(patientRoomRepository::flush, referenceNotFoundMessages(patientRoomDto));
+
+        roomOccupancyIndex.track(existingPatientRoom);
+        changeEventLog.publish(PatientRoom.class, id, ChangeEventDto.Type.UPDATED);
+        return patientRoomMapper.toDto(existingPatientRoom);
+    }
 
-        return convertToDto(patientRoomRepository.save(existingPatientRoom));
+    /**
+     * Applies a JSON Merge Patch to a patient-room relation: the fields absent from the patch keep their value, and
+     * only the columns that actually change are written.
+     *
+     * @param id    The ID of the patient-room relation to be patched.
+     * @param patch The merge patch.
+     * @return The patched {@link PatientRoomDto}.
+     * @throws EntityNotFoundException    If the relation, or the patient or room it now refers to, does not exist.
+     * @throws IllegalArgumentException   If the patch is malformed or leaves the patient-room relation invalid.
+     * @throws OccupancyConflictException If the new stay overlaps another stay in the same room.
+     */
+    @Transactional
+    public PatientRoomDto patchPatientRoom(Long id, JsonNode patch) {
+        PatientRoomDto patched = jsonMergePatch.apply(patientRoomMapper.toDto(findPatientRoomById(id)), patch);
+        return updatePatientRoom(id, patched);
     }
 
     /**
@@ -113,7 +187,9 @@ public class PatientRoomService {
         if (!patientRoomRepository.existsById(id)) {
             throw new EntityNotFoundException("PatientRoom not found with ID: " + id);
         }
+        roomOccupancyIndex.release(id);
         patientRoomRepository.deleteById(id);
+        changeEventLog.publish(PatientRoom.class, id, ChangeEventDto.Type.DELETED);
     }
 
     /**
@@ -128,30 +204,6 @@ public class PatientRoomService {
                 .orElseThrow(() -> new EntityNotFoundException("PatientRoom not found with ID: " + id));
     }
 
-    /**
-     * Finds a patient by ID and throws an exception if not found.
-     *
-     * @param id The ID of the patient.
-     * @return The {@link Patient} entity.
-     * @throws EntityNotFoundException If the patient does not exist.
-     */
-    private Patient findPatientById(Long id) {
-        return patientRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Patient not found with ID: " + id));
-    }
-
-    /**
-     * Finds a room by ID and throws an exception if not found.
-     *
-     * @param id The ID of the room.
-     * @return The {@link Room} entity.
-     * @throws EntityNotFoundException If the room does not exist.
-     */
-    private Room findRoomById(Long id) {
-        return roomRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Room not found with ID: " + id));
-    }
-
     /**
      * Validates that the check-out date is after the check-in date.
      *
@@ -166,34 +218,13 @@ public class PatientRoomService {
     }
 
     /**
-     * Converts a {@link PatientRoom} entity to a {@link PatientRoomDto}.
-     *
-     * @param patientRoom The entity to convert.
-     * @return The corresponding {@link PatientRoomDto}.
-     */
-    private PatientRoomDto convertToDto(PatientRoom patientRoom) {
-        return PatientRoomDto.builder()
-                .id(patientRoom.getId())
-                .patientId(patientRoom.getPatient().getId())
-                .roomId(patientRoom.getRoom().getId())
-                .checkInDate(patientRoom.getCheckInDate())
-                .checkOutDate(patientRoom.getCheckOutDate())
-                .observations(patientRoom.getObservations())
-                .build();
-    }
-
-    /**
-     * Converts a {@link PatientRoomDto} to a {@link PatientRoom} entity.
+     * Builds the messages reported when a reference of a patient-room relation does not exist, by foreign key column.
      *
-     * @param dto The DTO to convert.
-     * @return The corresponding {@link PatientRoom} entity.
+     * @param dto The patient-room data.
+     * @return The not-found messages of the patient and the room.
      */
-    private PatientRoom convertToEntity(PatientRoomDto dto) {
-        return PatientRoom.builder()
-                .id(dto.getId())
-                .checkInDate(dto.getCheckInDate())
-                .checkOutDate(dto.getCheckOutDate())
-                .observations(dto.getObservations())
-                .build();
+    private Map<String, String> referenceNotFoundMessages(PatientRoomDto dto) {
+        return Map.of("patient_id", "Patient not found with ID: " + dto.getPatientId(),
+                "room_id", "Room not found with ID: " + dto.getRoomId());
     }
 }
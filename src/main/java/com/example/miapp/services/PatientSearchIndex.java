@@ -0,0 +1,412 @@
+package com.example.miapp.services;
+
+import com.example.miapp.repository.PatientName;
+import com.example.miapp.repository.PatientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over the first name, last name and phone number of every patient.
+ * <p>
+ * Names are lower-cased and stripped of accents and punctuation; phones keep their digits only. Every name word
+ * is indexed by the trigrams of the word preceded by two blanks, so that two-letter queries still match the
+ * start of a word, and every phone by the trigrams of its digits. A query is split into words: each word of two
+ * or more letters must occur in the first or last name, and each run of three or more digits (separators
+ * between digit groups are ignored) in the phone.
+ * The candidates, the patients holding every trigram of the query, are found by walking the shortest posting
+ * list while galloping through the others, then checked against their stored names and ranked: whole words
+ * first, then word prefixes, then infixes, then shorter names. At most
+ * {@code app.patient-search.max-candidates} candidates are checked per query.
+ * <p>
+ * Posting lists are sorted {@code int} arrays, so patients with an ID beyond the {@code int} range are not
+ * indexed. The index is rebuilt from the database at startup and kept in sync by {@link PatientService} once
+ * the transactions changing patients commit.
+ */
+@Slf4j
+@Component
+public class PatientSearchIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern NON_DIGITS = Pattern.compile("[^0-9]+");
+
+    /** Flag separating phone trigrams from name trigrams in the trigram keys. */
+    private static final long PHONE = 1L << 48;
+
+    private final PatientRepository patientRepository;
+    private final int maxCandidates;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Sorted patient IDs per trigram; guarded by {@link #lock}. */
+    private Map<Long, Postings> postings = new HashMap<>();
+
+    /** Indexed names and phone per patient ID; guarded by {@link #lock}. */
+    private Map<Integer, Entry> entries = new HashMap<>();
+
+    public PatientSearchIndex(PatientRepository patientRepository,
+                              @Value("${app.patient-search.max-candidates:1000}") int maxCandidates) {
+        this.patientRepository = patientRepository;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Normalized searchable text of a patient.
+     *
+     * @param words      The words of the first and last names.
+     * @param phone      The digits of the phone number.
+     * @param nameLength The total length of the words.
+     */
+    private record Entry(String[] words, String phone, int nameLength) {
+    }
+
+    /**
+     * A checked candidate.
+     *
+     * @param id         The ID of the patient.
+     * @param score      The rank of the match; higher is better.
+     * @param nameLength The length of the patient's name, breaking ties in favour of shorter names.
+     */
+    private record Match(int id, int score, int nameLength) {
+    }
+
+    /** Best match first. */
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score).reversed()
+            .thenComparingInt(Match::nameLength)
+            .thenComparingInt(Match::id);
+
+    /**
+     * Sorted, growable list of patient IDs.
+     */
+    private static final class Postings {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            int index = size == 0 || ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertion = -(index + 1);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, insertion, ids, insertion + 1, size - insertion);
+            ids[insertion] = id;
+            size++;
+        }
+
+        private void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+
+        /**
+         * Finds the first position, from {@code from} on, holding an ID not lower than {@code id}, galloping
+         * ahead before searching so that walking the list in increasing ID order stays cheap.
+         */
+        private int seek(int from, int id) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && ids[high] < id) {
+                low = high + 1;
+                high = from + step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(ids, low, Math.min(high + 1, size), id);
+            return index >= 0 ? index : -(index + 1);
+        }
+
+        private void trim() {
+            ids = Arrays.copyOf(ids, size);
+        }
+    }
+
+    /**
+     * Rebuilds the index from the patients stored in the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        Map<Long, Postings> newPostings = new HashMap<>();
+        Map<Integer, Entry> newEntries = new HashMap<>();
+        try (Stream<PatientName> names = patientRepository.streamNames()) {
+            names.forEach(name -> {
+                if (indexable(name.getId())) {
+                    Entry entry = entry(name.getFirstName(), name.getLastName(), name.getPhone());
+                    newEntries.put(name.getId().intValue(), entry);
+                    keys(entry).forEach(key -> newPostings.computeIfAbsent(key, k -> new Postings())
+                            .add(name.getId().intValue()));
+                }
+            });
+        }
+        newPostings.values().forEach(Postings::trim);
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            entries = newEntries;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed {} patients for search in {} ms", newEntries.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Indexes the names and phone of a saved patient once the current transaction commits,
+     * replacing those indexed before.
+     *
+     * @param id        The ID of the patient.
+     * @param firstName The first name.
+     * @param lastName  The last name.
+     * @param phone     The phone number.
+     */
+    public void track(Long id, String firstName, String lastName, String phone) {
+        if (!indexable(id)) {
+            return;
+        }
+        Entry entry = entry(firstName, lastName, phone);
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Entry previous = entries.put(id.intValue(), entry);
+                if (previous != null) {
+                    unindex(id.intValue(), previous);
+                }
+                keys(entry).forEach(key -> postings.computeIfAbsent(key, k -> new Postings()).add(id.intValue()));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Removes a deleted patient from the index once the current transaction commits.
+     *
+     * @param id The ID of the patient.
+     */
+    public void release(Long id) {
+        if (!indexable(id)) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Entry previous = entries.remove(id.intValue());
+                if (previous != null) {
+                    unindex(id.intValue(), previous);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Finds the patients matching a query, best match first.
+     *
+     * @param query Words to find in the first or last name (at least two letters each) and digit groups to
+     *              find in the phone number (at least three digits each).
+     * @param limit The maximum number of patients to return.
+     * @return The IDs of the matching patients, best match first.
+     * @throws IllegalArgumentException If the query holds no word long enough to search for.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> nameTokens = new ArrayList<>();
+        List<String> phoneTokens = new ArrayList<>();
+        StringBuilder digits = new StringBuilder();
+        for (String token : SEPARATORS.split(normalize(query))) {
+            if (isDigits(token)) {
+                digits.append(token);
+                continue;
+            }
+            addPhoneToken(digits, phoneTokens);
+            if (token.length() >= 2) {
+                nameTokens.add(token);
+            }
+        }
+        addPhoneToken(digits, phoneTokens);
+        if (nameTokens.isEmpty() && phoneTokens.isEmpty()) {
+            throw new IllegalArgumentException("The search query needs a word of at least 2 letters or 3 digits.");
+        }
+        Set<Long> keys = new LinkedHashSet<>();
+        nameTokens.forEach(token -> trigrams(token.length() >= 3 ? token : "  " + token, 0, keys));
+        phoneTokens.forEach(token -> trigrams(token, PHONE, keys));
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(keys.size());
+            for (Long key : keys) {
+                Postings list = postings.get(key);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            Postings shortest = lists.get(0);
+            PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            int[] cursors = new int[lists.size()];
+            int checked = 0;
+            for (int index = 0; index < shortest.size && checked < maxCandidates; index++) {
+                int id = shortest.ids[index];
+                if (!containsAll(lists, cursors, id)) {
+                    continue;
+                }
+                checked++;
+                Entry entry = entries.get(id);
+                int score = score(entry, nameTokens, phoneTokens);
+                if (score > 0) {
+                    best.add(new Match(id, score, entry.nameLength()));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+            return best.stream().sorted(RANKING).map(match -> (long) match.id()).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scores a candidate: 3 points per query word equal to a name word (or to the phone), 2 per prefix or
+     * phone suffix, 1 per infix.
+     *
+     * @param entry       The candidate.
+     * @param nameTokens  The name words of the query.
+     * @param phoneTokens The digit groups of the query.
+     * @return The score, or 0 if a query word does not occur in the candidate.
+     */
+    private static int score(Entry entry, List<String> nameTokens, List<String> phoneTokens) {
+        int score = 0;
+        for (String token : nameTokens) {
+            int tokenScore = 0;
+            for (String word : entry.words()) {
+                tokenScore = Math.max(tokenScore, word.equals(token) ? 3 : word.startsWith(token) ? 2 : word.contains(token) ? 1 : 0);
+            }
+            if (tokenScore == 0) {
+                return 0;
+            }
+            score += tokenScore;
+        }
+        for (String token : phoneTokens) {
+            String phone = entry.phone();
+            int tokenScore = phone.equals(token) ? 3 : phone.startsWith(token) || phone.endsWith(token) ? 2 : phone.contains(token) ? 1 : 0;
+            if (tokenScore == 0) {
+                return 0;
+            }
+            score += tokenScore;
+        }
+        return score;
+    }
+
+    /**
+     * Turns the digit groups read so far, such as {@code 300 123 4567}, into one phone token.
+     */
+    private static void addPhoneToken(StringBuilder digits, List<String> phoneTokens) {
+        if (digits.length() >= 3) {
+            phoneTokens.add(digits.toString());
+        }
+        digits.setLength(0);
+    }
+
+    private void unindex(int id, Entry entry) {
+        for (Long key : keys(entry)) {
+            Postings list = postings.get(key);
+            if (list != null) {
+                list.remove(id);
+                if (list.size == 0) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether every list but the first holds an ID; the IDs must be checked in increasing order, as the
+     * position reached in each list is kept in {@code cursors}.
+     */
+    private static boolean containsAll(List<Postings> lists, int[] cursors, int id) {
+        for (int index = 1; index < lists.size(); index++) {
+            Postings list = lists.get(index);
+            cursors[index] = list.seek(cursors[index], id);
+            if (cursors[index] >= list.size || list.ids[cursors[index]] != id) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<Long> keys(Entry entry) {
+        Set<Long> keys = new LinkedHashSet<>();
+        for (String word : entry.words()) {
+            trigrams("  " + word, 0, keys);
+        }
+        trigrams(entry.phone(), PHONE, keys);
+        return keys;
+    }
+
+    /**
+     * Adds the trigrams of a text to a set, each packed into a long (three 16-bit chars plus a namespace flag).
+     */
+    private static void trigrams(String text, long namespace, Set<Long> keys) {
+        for (int index = 0; index + 3 <= text.length(); index++) {
+            keys.add(namespace | (long) text.charAt(index) << 32 | (long) text.charAt(index + 1) << 16 | text.charAt(index + 2));
+        }
+    }
+
+    private static Entry entry(String firstName, String lastName, String phone) {
+        String name = (normalize(firstName) + " " + normalize(lastName)).trim();
+        String[] words = name.isEmpty() ? new String[0] : SEPARATORS.split(name);
+        int nameLength = 0;
+        for (String word : words) {
+            nameLength += word.length();
+        }
+        return new Entry(words, phone == null ? "" : NON_DIGITS.matcher(phone).replaceAll(""), nameLength);
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String plain = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(plain.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static boolean isDigits(String token) {
+        for (int index = 0; index < token.length(); index++) {
+            if (!Character.isDigit(token.charAt(index))) {
+                return false;
+            }
+        }
+        return !token.isEmpty();
+    }
+
+    private static boolean indexable(Long id) {
+        return id != null && id >= 0 && id <= Integer.MAX_VALUE;
+    }
+}
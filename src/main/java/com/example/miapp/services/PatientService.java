@@ -1,14 +1,29 @@
 package com.example.miapp.services;
 
+import com.example.miapp.dto.ChangeEventDto;
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.MultiGetResult;
 import com.example.miapp.dto.PatientDto;
+import com.example.miapp.entity.Appointment;
+import com.example.miapp.entity.MedicalRecord;
 import com.example.miapp.entity.Patient;
+import com.example.miapp.entity.PatientRoom;
+import com.example.miapp.mapper.PatientMapper;
+import com.example.miapp.repository.AppointmentRepository;
+import com.example.miapp.repository.MedicalRecordRepository;
+import com.example.miapp.repository.PatientRoomRepository;
 import com.example.miapp.repository.PatientRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -19,16 +34,56 @@ import java.util.stream.Collectors;
 public class PatientService {
 
     private final PatientRepository patientRepository;
+    private final PatientMapper patientMapper;
+    private final JsonMergePatch jsonMergePatch;
+    private final AppointmentRepository appointmentRepository;
+    private final PatientRoomRepository patientRoomRepository;
+    private final MedicalRecordRepository medicalRecordRepository;
+    private final CursorPaginator cursorPaginator;
+    private final MultiGetLoader multiGetLoader;
+    private final DoctorScheduleIndex doctorScheduleIndex;
+    private final RoomOccupancyIndex roomOccupancyIndex;
+    private final EntityVersionCache entityVersionCache;
+    private final ChangeEventLog changeEventLog;
+    private final PatientSearchIndex patientSearchIndex;
 
     /**
-     * Retrieves all patients from the database.
+     * Retrieves one page of patients, ordered by ID, using keyset pagination.
      *
-     * @return List of {@link PatientDto} containing patient details.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link PatientDto} containing patient details.
+     * @throws IllegalArgumentException If the cursor or the limit is invalid.
      */
     @Transactional(readOnly = true)
-    public List<PatientDto> getAllPatients() {
-        return patientRepository.findAll().stream()
-                .map(this::convertToDto)
+    public CursorPage<PatientDto> getAllPatients(String after, Integer limit) {
+        int pageSize = cursorPaginator.resolveLimit(limit);
+        List<PatientDto> rows = patientRepository
+                .findByIdGreaterThanOrderByIdAsc(cursorPaginator.decodeCursor(after), cursorPaginator.fetchLimit(pageSize))
+                .stream()
+                .map(patientMapper::toDto)
+                .collect(Collectors.toList());
+        return cursorPaginator.toPage(rows, pageSize, PatientDto::getId);
+    }
+
+    /**
+     * Searches patients by partial first name, last name or phone number, using the in-memory
+     * {@link PatientSearchIndex}.
+     *
+     * @param query Words to find in the names (at least two letters each) and digits to find in the phone number.
+     * @param limit Requested number of results, capped at the server-side maximum.
+     * @return The matching patients, best match first.
+     * @throws IllegalArgumentException If the query holds nothing to search for, or the limit is invalid.
+     */
+    @Transactional(readOnly = true)
+    public List<PatientDto> searchPatients(String query, Integer limit) {
+        List<Long> ids = patientSearchIndex.search(query, cursorPaginator.resolveLimit(limit));
+        Map<Long, Patient> patients = patientRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        return ids.stream()
+                .map(patients::get)
+                .filter(Objects::nonNull)
+                .map(patientMapper::toDto)
                 .collect(Collectors.toList());
     }
 
@@ -42,7 +97,22 @@ public class PatientService {
     @Transactional(readOnly = true)
     public PatientDto getPatientById(Long id) {
         Patient patient = findPatientById(id);
-        return convertToDto(patient);
+        entityVersionCache.record(Patient.class, id, patient.getVersion());
+        return patientMapper.toDto(patient);
+    }
+
+    /**
+     * Retrieves several patients by ID, with one query per chunk of IDs.
+     *
+     * @param ids The IDs of the patients.
+     * @return {@link MultiGetResult} with the {@link PatientDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @Transactional(readOnly = true)
+    public MultiGetResult<PatientDto> getPatientsByIds(List<Long> ids) {
+        return multiGetLoader.load(ids, chunk -> patientRepository.findAllById(chunk).stream()
+                .map(patientMapper::toDto)
+                .collect(Collectors.toList()), PatientDto::getId);
     }
 
     /**
@@ -53,45 +123,84 @@ public class PatientService {
      */
     @Transactional
     public PatientDto savePatient(PatientDto patientDto) {
-        Patient patient = convertToEntity(patientDto);
-        return convertToDto(patientRepository.save(patient));
+        Patient savedPatient = patientRepository.save(patientMapper.toEntity(patientDto));
+        patientSearchIndex.track(savedPatient.getId(), savedPatient.getFirstName(), savedPatient.getLastName(), savedPatient.getPhone());
+        entityVersionCache.record(Patient.class, savedPatient.getId(), savedPatient.getVersion());
+        changeEventLog.publish(Patient.class, savedPatient.getId(), ChangeEventDto.Type.CREATED);
+        return patientMapper.toDto(savedPatient);
     }
 
     /**
      * Updates an existing patient's information.
      *
-     * @param id         The ID of the patient to be updated.
-     * @param patientDto The updated {@link PatientDto} data.
-     * @return The updated {@link PatientDto}.
-     * @throws EntityNotFoundException If the patient does not exist.
+     * @param id              The ID of the patient to be updated.
+     * @param patientDto      The updated {@link PatientDto} data.
+     * @param expectedVersion The version the update is based on (from {@code If-Match}), or null to skip the check.
+     * @return The updated {@link PatientDto}, carrying the new version.
+     * @throws EntityNotFoundException           If the patient does not exist.
+     * @throws OptimisticLockingFailureException If the patient is no longer at the expected version.
      */
     @Transactional
-    public PatientDto updatePatient(Long id, PatientDto patientDto) {
+    public PatientDto updatePatient(Long id, PatientDto patientDto, Long expectedVersion) {
         Patient existingPatient = findPatientById(id);
+        entityVersionCache.verify(Patient.class, id, existingPatient.getVersion(), expectedVersion);
+
+        patientMapper.updateEntity(patientDto, existingPatient);
+        patientRepository.flush();
 
-        existingPatient = existingPatient.toBuilder()
-                .firstName(patientDto.getFirstName())
-                .lastName(patientDto.getLastName())
-                .birthDate(patientDto.getBirthDate())
-                .phone(patientDto.getPhone())
-                .address(patientDto.getAddress())
-                .build();
+        patientSearchIndex.track(id, existingPatient.getFirstName(), existingPatient.getLastName(), existingPatient.getPhone());
+        entityVersionCache.record(Patient.class, id, existingPatient.getVersion());
+        changeEventLog.publish(Patient.class, id, ChangeEventDto.Type.UPDATED);
+        return patientMapper.toDto(existingPatient);
+    }
 
-        return convertToDto(patientRepository.save(existingPatient));
+    /**
+     * Applies a JSON Merge Patch to a patient: the fields absent from the patch keep their value, and
+     * only the columns that actually change are written.
+     *
+     * @param id              The ID of the patient to be patched.
+     * @param patch           The merge patch.
+     * @param expectedVersion The version the patch is based on (from {@code If-Match}), or null to skip the check.
+     * @return The patched {@link PatientDto}, carrying the new version.
+     * @throws EntityNotFoundException           If the patient does not exist.
+     * @throws IllegalArgumentException          If the patch is malformed or leaves the patient invalid.
+     * @throws OptimisticLockingFailureException If the patient is no longer at the expected version.
+     */
+    @Transactional
+    public PatientDto patchPatient(Long id, JsonNode patch, Long expectedVersion) {
+        PatientDto patched = jsonMergePatch.apply(patientMapper.toDto(findPatientById(id)), patch);
+        return updatePatient(id, patched, expectedVersion);
     }
 
     /**
-     * Deletes a patient by its ID.
+     * Deletes a patient by its ID, along with their appointments, stays and medical record.
+     * The children are removed with one bulk delete per table instead of being loaded and deleted one by one,
+     * and the number of deleted patient rows tells whether the patient existed. Only the children's IDs are read
+     * beforehand, to release them from the in-memory indexes and to publish their deletion along with the
+     * patient's; both are undone if the transaction rolls back.
      *
      * @param id The ID of the patient to be deleted.
      * @throws EntityNotFoundException If the patient does not exist.
      */
     @Transactional
     public void deletePatient(Long id) {
-        if (!patientRepository.existsById(id)) {
+        List<Long> appointmentIds = appointmentRepository.findIdsByPatientId(id);
+        List<Long> patientRoomIds = patientRoomRepository.findIdsByPatientId(id);
+        List<Long> medicalRecordIds = medicalRecordRepository.findIdsByPatientId(id);
+        appointmentIds.forEach(doctorScheduleIndex::release);
+        patientRoomIds.forEach(roomOccupancyIndex::release);
+        appointmentRepository.deleteByPatientId(id);
+        patientRoomRepository.deleteByPatientId(id);
+        medicalRecordRepository.deleteByPatientId(id);
+        if (patientRepository.deleteRowById(id) == 0) {
             throw new EntityNotFoundException("Patient not found with ID: " + id);
         }
-        patientRepository.deleteById(id);
+        entityVersionCache.evict(Patient.class, id);
+        patientSearchIndex.release(id);
+        appointmentIds.forEach(appointmentId -> changeEventLog.publish(Appointment.class, appointmentId, ChangeEventDto.Type.DELETED));
+        patientRoomIds.forEach(patientRoomId -> changeEventLog.publish(PatientRoom.class, patientRoomId, ChangeEventDto.Type.DELETED));
+        medicalRecordIds.forEach(recordId -> changeEventLog.publish(MedicalRecord.class, recordId, ChangeEventDto.Type.DELETED));
+        changeEventLog.publish(Patient.class, id, ChangeEventDto.Type.DELETED);
     }
 
     /**
@@ -105,38 +214,4 @@ public class PatientService {
         return patientRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Patient not found with ID: " + id));
     }
-
-    /**
-     * Converts a {@link Patient} entity to a {@link PatientDto}.
-     *
-     * @param patient The entity to convert.
-     * @return The corresponding {@link PatientDto}.
-     */
-    private PatientDto convertToDto(Patient patient) {
-        return PatientDto.builder()
-                .id(patient.getId())
-                .firstName(patient.getFirstName())
-                .lastName(patient.getLastName())
-                .birthDate(patient.getBirthDate())
-                .phone(patient.getPhone())
-                .address(patient.getAddress())
-                .build();
-    }
-
-    /**
-     * Converts a {@link PatientDto} to a {@link Patient} entity.
-     *
-     * @param dto The DTO to convert.
-     * @return The corresponding {@link Patient} entity.
-     */
-    private Patient convertToEntity(PatientDto dto) {
-        return Patient.builder()
-                .id(dto.getId())
-                .firstName(dto.getFirstName())
-                .lastName(dto.getLastName())
-                .birthDate(dto.getBirthDate())
-                .phone(dto.getPhone())
-                .address(dto.getAddress())
-                .build();
-    }
 }
@@ -0,0 +1,521 @@
+package com.example.miapp.services;
+
+import com.example.miapp.dto.RoomDto;
+import com.example.miapp.entity.OccupancyStatus;
+import com.example.miapp.entity.PatientRoom;
+import com.example.miapp.entity.Room;
+import com.example.miapp.repository.PatientRoomRepository;
+import com.example.miapp.repository.RoomRepository;
+import com.example.miapp.repository.RoomStay;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory occupancy calendar of every room.
+ * <p>
+ * Each room keeps a {@link BitSet} with one bit per day over a rolling window starting today; a bit is set
+ * when a patient stay covers that day. The check-out day is exclusive, so a stay ending on a day does not
+ * overlap one starting the same day, and a stay without check-out date occupies the room until the end of
+ * the window. Overlapping stays are rejected and free rooms are found with one {@link BitSet#nextSetBit}
+ * call per room, without querying the database.
+ * <p>
+ * The calendar is rebuilt at startup, rolled forward every night and kept in sync by {@link RoomService}
+ * and {@link PatientRoomService}; changes made inside a transaction are undone if that transaction rolls back.
+ */
+@Component
+public class RoomOccupancyIndex {
+
+    private final RoomRepository roomRepository;
+    private final PatientRoomRepository patientRoomRepository;
+    private final int windowDays;
+
+    /** First day of the window used for new calendars and for range validation. */
+    private volatile LocalDate windowStart = LocalDate.now();
+
+    /** Occupancy calendar per room ID. */
+    private final Map<Long, RoomCalendar> calendars = new ConcurrentHashMap<>();
+
+    /** Current stay of every indexed patient-room relation, by relation ID. */
+    private final Map<Long, Stay> stays = new ConcurrentHashMap<>();
+
+    public RoomOccupancyIndex(RoomRepository roomRepository, PatientRoomRepository patientRoomRepository,
+                              @Value("${app.occupancy.window-days:365}") int windowDays) {
+        this.roomRepository = roomRepository;
+        this.patientRoomRepository = patientRoomRepository;
+        this.windowDays = windowDays;
+    }
+
+    /**
+     * Stay of a patient in a room.
+     *
+     * @param stayId   The ID of the patient-room relation.
+     * @param roomId   The ID of the room.
+     * @param checkIn  The first occupied day.
+     * @param checkOut The check-out day (not occupied), or null if the stay is open-ended.
+     */
+    private record Stay(Long stayId, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+
+        /**
+         * Checks whether the stay occupies any day of a range.
+         *
+         * @param from The first day of the range.
+         * @param to   The day after the range, or null for an unbounded range.
+         * @return True if the stay overlaps the range.
+         */
+        boolean overlaps(LocalDate from, LocalDate to) {
+            return (to == null || checkIn.isBefore(to)) && (checkOut == null || checkOut.isAfter(from));
+        }
+    }
+
+    /**
+     * Attributes of a room served by the availability query.
+     *
+     * @param id              The ID of the room.
+     * @param number          The room number.
+     * @param floor           The floor of the room.
+     * @param type            The type of room.
+     * @param occupancyStatus The stored occupancy status.
+     */
+    private record RoomInfo(Long id, String number, String floor, String type, OccupancyStatus occupancyStatus) {
+    }
+
+    /**
+     * Occupancy calendar of one room; all access is guarded by its {@link ReentrantLock}, which unlike a
+     * monitor does not pin the carrier of a virtual thread waiting for it.
+     */
+    private final class RoomCalendar {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private RoomInfo info;
+        private LocalDate start;
+        private final BitSet days = new BitSet(windowDays);
+        private final Map<Long, Stay> roomStays = new HashMap<>();
+
+        private RoomCalendar(RoomInfo info, LocalDate start) {
+            this.info = info;
+            this.start = start;
+        }
+
+        /**
+         * Converts a day to a bit index, clamped to the window.
+         *
+         * @param day The day, or null for the end of the window.
+         * @return The bit index in {@code [0, windowDays]}.
+         */
+        private int indexOf(LocalDate day) {
+            if (day == null) {
+                return windowDays;
+            }
+            long index = ChronoUnit.DAYS.between(start, day);
+            return (int) Math.max(0, Math.min(windowDays, index));
+        }
+
+        /**
+         * Adds a stay to the room and marks its days.
+         *
+         * @param stay The stay to add.
+         */
+        private void add(Stay stay) {
+            roomStays.put(stay.stayId(), stay);
+            mark(stay);
+        }
+
+        /**
+         * Marks the days of a stay that fall within the window.
+         *
+         * @param stay The stay to mark.
+         */
+        private void mark(Stay stay) {
+            int from = indexOf(stay.checkIn());
+            int to = indexOf(stay.checkOut());
+            if (from < to) {
+                days.set(from, to);
+            }
+        }
+
+        /**
+         * Removes a stay from the room and clears its days, keeping the days of any other stay covering them.
+         *
+         * @param stay The stay to remove.
+         */
+        private void remove(Stay stay) {
+            if (roomStays.remove(stay.stayId(), stay)) {
+                int from = indexOf(stay.checkIn());
+                int to = indexOf(stay.checkOut());
+                if (from < to) {
+                    days.clear(from, to);
+                    roomStays.values().stream()
+                            .filter(other -> other.overlaps(stay.checkIn(), stay.checkOut()))
+                            .forEach(this::mark);
+                }
+            }
+        }
+
+        /**
+         * Finds a stay of the room overlapping a range.
+         *
+         * @param from The first day of the range.
+         * @param to   The day after the range, or null for an open-ended range.
+         * @return The overlapping stay, or null if the room is free.
+         */
+        private Stay findConflict(LocalDate from, LocalDate to) {
+            boolean withinWindow = !from.isBefore(start) && to != null && !to.isAfter(start.plusDays(windowDays));
+            if (withinWindow && isFree(indexOf(from), indexOf(to))) {
+                return null;
+            }
+            return roomStays.values().stream()
+                    .filter(stay -> stay.overlaps(from, to))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        /**
+         * Checks whether no day of a bit range is occupied.
+         *
+         * @param fromIndex The first bit (inclusive).
+         * @param toIndex   The last bit (exclusive).
+         * @return True if the room is free for the whole range.
+         */
+        private boolean isFree(int fromIndex, int toIndex) {
+            int next = days.nextSetBit(fromIndex);
+            return next < 0 || next >= toIndex;
+        }
+
+        /**
+         * Moves the window to a new start day, dropping the stays that ended before it.
+         *
+         * @param newStart The new first day of the window.
+         */
+        private void roll(LocalDate newStart) {
+            roomStays.values().removeIf(stay -> {
+                boolean ended = stay.checkOut() != null && !stay.checkOut().isAfter(newStart);
+                if (ended) {
+                    stays.remove(stay.stayId(), stay);
+                }
+                return ended;
+            });
+            start = newStart;
+            days.clear();
+            roomStays.values().forEach(this::mark);
+        }
+    }
+
+    /**
+     * Rebuilds the calendars from the rooms and the current and upcoming stays stored in the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        LocalDate today = LocalDate.now();
+        calendars.clear();
+        stays.clear();
+        windowStart = today;
+        roomRepository.findAll().forEach(room -> calendars.put(room.getId(), new RoomCalendar(toInfo(room), today)));
+        try (Stream<RoomStay> roomStays = patientRoomRepository.streamStaysFrom(java.sql.Date.valueOf(today))) {
+            roomStays.forEach(roomStay -> {
+                RoomCalendar calendar = calendars.get(roomStay.getRoomId());
+                LocalDate checkIn = toLocalDate(roomStay.getCheckInDate());
+                if (calendar != null && checkIn != null) {
+                    Stay stay = new Stay(roomStay.getId(), roomStay.getRoomId(), checkIn, toLocalDate(roomStay.getCheckOutDate()));
+                    calendar.add(stay);
+                    stays.put(stay.stayId(), stay);
+                }
+            });
+        }
+    }
+
+    /**
+     * Moves every calendar window forward to start today.
+     */
+    @Scheduled(cron = "${app.occupancy.roll-cron:0 0 0 * * *}")
+    public void roll() {
+        roll(LocalDate.now());
+    }
+
+    /**
+     * Moves every calendar window forward to start on a given day; windows already starting on or after it
+     * are left as they are.
+     *
+     * @param today The new first day of the windows.
+     */
+    public void roll(LocalDate today) {
+        if (!today.isAfter(windowStart)) {
+            return;
+        }
+        windowStart = today;
+        for (RoomCalendar calendar : calendars.values()) {
+            calendar.lock.lock();
+            try {
+                calendar.roll(today);
+            } finally {
+                calendar.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Records the attributes of a saved room.
+     * Must be called inside the transaction that saves the room.
+     *
+     * @param room The saved room, with its ID assigned.
+     */
+    public void trackRoom(Room room) {
+        RoomInfo info = toInfo(room);
+        RoomCalendar calendar = calendars.computeIfAbsent(room.getId(), id -> new RoomCalendar(info, windowStart));
+        RoomInfo previous;
+        calendar.lock.lock();
+        try {
+            previous = calendar.info;
+            calendar.info = info;
+        } finally {
+            calendar.lock.unlock();
+        }
+        TransactionHooks.afterRollback(() -> {
+            calendar.lock.lock();
+            try {
+                calendar.info = previous;
+            } finally {
+                calendar.lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Removes a room and all its stays from the index.
+     * Must be called inside the transaction that deletes the room and, by cascade, its stays.
+     *
+     * @param roomId The ID of the room.
+     */
+    public void releaseRoom(Long roomId) {
+        RoomCalendar calendar = calendars.remove(roomId);
+        if (calendar == null) {
+            return;
+        }
+        List<Stay> removed;
+        calendar.lock.lock();
+        try {
+            removed = new ArrayList<>(calendar.roomStays.values());
+        } finally {
+            calendar.lock.unlock();
+        }
+        removed.forEach(stay -> stays.remove(stay.stayId(), stay));
+        TransactionHooks.afterRollback(() -> {
+            calendars.put(roomId, calendar);
+            removed.forEach(stay -> stays.put(stay.stayId(), stay));
+        });
+    }
+
+    /**
+     * Records the stay of a saved patient-room relation.
+     * Must be called inside the transaction that saves the relation. Only the ID of its room is read, so a
+     * room set with {@code getReferenceById} is not loaded.
+     *
+     * @param patientRoom The saved patient-room relation, with its ID assigned.
+     * @throws OccupancyConflictException If the stay overlaps another stay in the same room.
+     */
+    public void track(PatientRoom patientRoom) {
+        LocalDate checkIn = toLocalDate(patientRoom.getCheckInDate());
+        if (checkIn == null) {
+            release(patientRoom.getId());
+            return;
+        }
+        Stay stay = new Stay(patientRoom.getId(), patientRoom.getRoom().getId(), checkIn, toLocalDate(patientRoom.getCheckOutDate()));
+        Stay previous = stays.get(stay.stayId());
+        if (stay.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            remove(previous);
+        }
+        RoomCalendar calendar = calendarOf(stay.roomId());
+        calendar.lock.lock();
+        try {
+            Stay conflict = calendar.findConflict(stay.checkIn(), stay.checkOut());
+            if (conflict != null) {
+                if (previous != null) {
+                    put(previous);
+                }
+                throw new OccupancyConflictException("Room " + stay.roomId() + " is already occupied by stay " + conflict.stayId()
+                        + " between " + conflict.checkIn() + " and " + (conflict.checkOut() != null ? conflict.checkOut() : "an open date") + ".");
+            }
+            calendar.add(stay);
+            stays.put(stay.stayId(), stay);
+        } finally {
+            calendar.lock.unlock();
+        }
+        TransactionHooks.afterRollback(() -> {
+            remove(stay);
+            if (previous != null) {
+                put(previous);
+            }
+        });
+    }
+
+    /**
+     * Removes the stay of a patient-room relation from the index.
+     * Must be called inside the transaction that deletes the relation.
+     *
+     * @param stayId The ID of the patient-room relation.
+     */
+    public void release(Long stayId) {
+        Stay previous = stays.get(stayId);
+        if (previous != null) {
+            remove(previous);
+            TransactionHooks.afterRollback(() -> put(previous));
+        }
+    }
+
+    /**
+     * Lists the rooms free for every day of a range, optionally filtered by type and floor.
+     *
+     * @param from  The check-in day (inclusive).
+     * @param to    The check-out day (exclusive).
+     * @param type  The room type to match (case-insensitive), or null for any type.
+     * @param floor The floor to match (case-insensitive), or null for any floor.
+     * @return The free rooms, ordered by ID.
+     * @throws IllegalArgumentException If the range is empty or falls outside the occupancy window.
+     */
+    public List<RoomDto> findAvailableRooms(LocalDate from, LocalDate to, String type, String floor) {
+        LocalDate start = windowStart;
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'.");
+        }
+        if (from.isBefore(start) || to.isAfter(start.plusDays(windowDays))) {
+            throw new IllegalArgumentException("Range must be between " + start + " and " + start.plusDays(windowDays) + ".");
+        }
+        List<RoomDto> available = new ArrayList<>();
+        for (RoomCalendar calendar : calendars.values()) {
+            calendar.lock.lock();
+            try {
+                RoomInfo info = calendar.info;
+                if ((type == null || type.equalsIgnoreCase(info.type()))
+                        && (floor == null || floor.equalsIgnoreCase(info.floor()))
+                        && calendar.isFree(calendar.indexOf(from), calendar.indexOf(to))) {
+                    available.add(toDto(info));
+                }
+            } finally {
+                calendar.lock.unlock();
+            }
+        }
+        available.sort(Comparator.comparing(RoomDto::getId));
+        return available;
+    }
+
+    /**
+     * Returns the calendar of a room, creating it for a room saved since the last rebuild by another instance.
+     * The room is then read before the calendar is created, so no query runs inside {@code computeIfAbsent}.
+     *
+     * @param roomId The ID of the room.
+     * @return The calendar of the room.
+     * @throws EntityNotFoundException If the room does not exist.
+     */
+    private RoomCalendar calendarOf(Long roomId) {
+        RoomCalendar calendar = calendars.get(roomId);
+        if (calendar != null) {
+            return calendar;
+        }
+        RoomInfo info = roomRepository.findById(roomId)
+                .map(RoomOccupancyIndex::toInfo)
+                .orElseThrow(() -> new EntityNotFoundException("Room not found with ID: " + roomId));
+        return calendars.computeIfAbsent(roomId, id -> new RoomCalendar(info, windowStart));
+    }
+
+    /**
+     * Adds a stay to the index without checking for conflicts.
+     *
+     * @param stay The stay to add.
+     */
+    private void put(Stay stay) {
+        RoomCalendar calendar = calendars.get(stay.roomId());
+        if (calendar == null) {
+            return;
+        }
+        calendar.lock.lock();
+        try {
+            calendar.add(stay);
+            stays.put(stay.stayId(), stay);
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a stay from the index.
+     *
+     * @param stay The stay to remove.
+     */
+    private void remove(Stay stay) {
+        RoomCalendar calendar = calendars.get(stay.roomId());
+        if (calendar != null) {
+            calendar.lock.lock();
+            try {
+                calendar.remove(stay);
+            } finally {
+                calendar.lock.unlock();
+            }
+        }
+        stays.remove(stay.stayId(), stay);
+    }
+
+    /**
+     * Converts a stay date to a {@link LocalDate}.
+     * Dates read from the database are {@link java.sql.Date} instances, which do not support {@code toInstant()}.
+     *
+     * @param date The date, or null.
+     * @return The corresponding day in the system time zone, or null.
+     */
+    private static LocalDate toLocalDate(Date date) {
+        if (date == null) {
+            return null;
+        }
+        if (date instanceof java.sql.Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * Captures the attributes of a {@link Room} served by the availability query.
+     *
+     * @param room The room entity.
+     * @return The corresponding {@link RoomInfo}.
+     */
+    private static RoomInfo toInfo(Room room) {
+        return new RoomInfo(room.getId(), room.getNumber(), room.getFloor(), room.getType(), room.getOccupancyStatus());
+    }
+
+    /**
+     * Converts the cached attributes of a room to a {@link RoomDto}.
+     *
+     * @param info The cached room attributes.
+     * @return The corresponding {@link RoomDto}.
+     */
+    private static RoomDto toDto(RoomInfo info) {
+        return RoomDto.builder()
+                .id(info.id())
+                .number(info.number())
+                .floor(info.floor())
+                .type(info.type())
+                .occupancyStatus(info.occupancyStatus() == null ? null : info.occupancyStatus().getLabel())
+                .build();
+    }
+}
@@ -1,13 +1,21 @@
 package com.example.miapp.services;
 
+import com.example.miapp.dto.ChangeEventDto;
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.MultiGetResult;
 import com.example.miapp.dto.RoomDto;
+import com.example.miapp.entity.OccupancyStatus;
 import com.example.miapp.entity.Room;
+import com.example.miapp.mapper.RoomMapper;
 import com.example.miapp.repository.RoomRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,17 +27,36 @@ import java.util.stream.Collectors;
 public class RoomService {
 
     private final RoomRepository roomRepository;
+    private final RoomMapper roomMapper;
+    private final JsonMergePatch jsonMergePatch;
+    private final CursorPaginator cursorPaginator;
+    private final MultiGetLoader multiGetLoader;
+    private final RoomOccupancyIndex roomOccupancyIndex;
+    private final EntityVersionCache entityVersionCache;
+    private final ChangeEventLog changeEventLog;
 
     /**
-     * Retrieves all rooms from the database.
+     * Retrieves one page of rooms, ordered by ID, using keyset pagination.
      *
-     * @return List of {@link RoomDto} containing room details.
+     * @param status Optional occupancy status label (Available or Occupied).
+     * @param after  Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit  Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link RoomDto} containing room details.
+     * @throws IllegalArgumentException If the status, the cursor or the limit is invalid.
      */
     @Transactional(readOnly = true)
-    public List<RoomDto> getAllRooms() {
-        return roomRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());  
+    public CursorPage<RoomDto> getAllRooms(String status, String after, Integer limit) {
+        int pageSize = cursorPaginator.resolveLimit(limit);
+        Long afterId = cursorPaginator.decodeCursor(after);
+        OccupancyStatus occupancyStatus = OccupancyStatus.fromLabel(status);
+        List<Room> rooms = occupancyStatus == null
+                ? roomRepository.findByIdGreaterThanOrderByIdAsc(afterId, cursorPaginator.fetchLimit(pageSize))
+                : roomRepository.findByOccupancyStatusAndIdGreaterThanOrderByIdAsc(occupancyStatus, afterId, cursorPaginator.fetchLimit(pageSize));
+        List<RoomDto> rows = rooms
+                .stream()
+                .map(roomMapper::toDto)
+                .collect(Collectors.toList());
+        return cursorPaginator.toPage(rows, pageSize, RoomDto::getId);
     }
 
     /**
@@ -42,7 +69,36 @@ public class RoomService {
     @Transactional(readOnly = true)
     public RoomDto getRoomById(Long id) {
         Room room = findRoomById(id);
-        return convertToDto(room);
+        entityVersionCache.record(Room.class, id, room.getVersion());
+        return roomMapper.toDto(room);
+    }
+
+    /**
+     * Retrieves several rooms by ID, with one query per chunk of IDs.
+     *
+     * @param ids The IDs of the rooms.
+     * @return {@link MultiGetResult} with the {@link RoomDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @Transactional(readOnly = true)
+    public MultiGetResult<RoomDto> getRoomsByIds(List<Long> ids) {
+        return multiGetLoader.load(ids, chunk -> roomRepository.findAllById(chunk).stream()
+                .map(roomMapper::toDto)
+                .collect(Collectors.toList()), RoomDto::getId);
+    }
+
+    /**
+     * Retrieves the rooms free for a whole stay, answered from the in-memory {@link RoomOccupancyIndex}.
+     *
+     * @param from  The check-in date (inclusive).
+     * @param to    The check-out date (exclusive).
+     * @param type  The room type to match, or null for any type.
+     * @param floor The floor to match, or null for any floor.
+     * @return List of {@link RoomDto} free for every day of the range.
+     * @throws IllegalArgumentException If the range is empty or outside the occupancy window.
+     */
+    public List<RoomDto> getAvailableRooms(LocalDate from, LocalDate to, String type, String floor) {
+        return roomOccupancyIndex.findAvailableRooms(from, to, type, floor);
     }
 
     /**
@@ -53,30 +109,54 @@ public class RoomService {
      */
     @Transactional
     public RoomDto saveRoom(RoomDto roomDto) {
-        Room room = convertToEntity(roomDto);
-        return convertToDto(roomRepository.save(room));
+        Room room = roomMapper.toEntity(roomDto);
+        Room savedRoom = roomRepository.save(room);
+        roomOccupancyIndex.trackRoom(savedRoom);
+        entityVersionCache.record(Room.class, savedRoom.getId(), savedRoom.getVersion());
+        changeEventLog.publish(Room.class, savedRoom.getId(), ChangeEventDto.Type.CREATED);
+        return roomMapper.toDto(savedRoom);
     }
 
     /**
      * Updates an existing room's information.
      *
-     * @param id      The ID of the room to be updated.
-     * @param roomDto The updated {@link RoomDto} data.
-     * @return The updated {@link RoomDto}.
-     * @throws EntityNotFoundException If the room does not exist.
+     * @param id              The ID of the room to be updated.
+     * @param roomDto         The updated {@link RoomDto} data.
+     * @param expectedVersion The version the update is based on (from {@code If-Match}), or null to skip the check.
+     * @return The updated {@link RoomDto}, carrying the new version.
+     * @throws EntityNotFoundException           If the room does not exist.
+     * @throws OptimisticLockingFailureException If the room is no longer at the expected version.
      */
     @Transactional
-    public RoomDto updateRoom(Long id, RoomDto roomDto) {
+    public RoomDto updateRoom(Long id, RoomDto roomDto, Long expectedVersion) {
         Room existingRoom = findRoomById(id);
+        entityVersionCache.verify(Room.class, id, existingRoom.getVersion(), expectedVersion);
+
+        roomMapper.updateEntity(roomDto, existingRoom);
+        roomRepository.flush();
 
-        existingRoom = existingRoom.toBuilder()
-                .number(roomDto.getNumber())
-                .floor(roomDto.getFloor())
-                .type(roomDto.getType())
-                .occupancyStatus(roomDto.getOccupancyStatus())
-                .build();
+        roomOccupancyIndex.trackRoom(existingRoom);
+        entityVersionCache.record(Room.class, id, existingRoom.getVersion());
+        changeEventLog.publish(Room.class, id, ChangeEventDto.Type.UPDATED);
+        return roomMapper.toDto(existingRoom);
+    }
 
-        return convertToDto(roomRepository.save(existingRoom));
+    /**
+     * Applies a JSON Merge Patch to a room: the fields absent from the patch keep their value, and
+     * only the columns that actually change are written.
+     *
+     * @param id              The ID of the room to be patched.
+     * @param patch           The merge patch.
+     * @param expectedVersion The version the patch is based on (from {@code If-Match}), or null to skip the check.
+     * @return The patched {@link RoomDto}, carrying the new version.
+     * @throws EntityNotFoundException           If the room does not exist.
+     * @throws IllegalArgumentException          If the patch is malformed or leaves the room invalid.
+     * @throws OptimisticLockingFailureException If the room is no longer at the expected version.
+     */
+    @Transactional
+    public RoomDto patchRoom(Long id, JsonNode patch, Long expectedVersion) {
+        RoomDto patched = jsonMergePatch.apply(roomMapper.toDto(findRoomById(id)), patch);
+        return updateRoom(id, patched, expectedVersion);
     }
 
     /**
@@ -90,7 +170,10 @@ public class RoomService {
         if (!roomRepository.existsById(id)) {
             throw new EntityNotFoundException("Room not found with ID: " + id);
         }
+        entityVersionCache.evict(Room.class, id);
+        roomOccupancyIndex.releaseRoom(id);
         roomRepository.deleteById(id);
+        changeEventLog.publish(Room.class, id, ChangeEventDto.Type.DELETED);
     }
 
     /**
@@ -104,36 +187,4 @@ public class RoomService {
         return roomRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Room not found with ID: " + id));
     }
-
-    /**
-     * Converts a {@link Room} entity to a {@link RoomDto}.
-     *
-     * @param room The entity to convert.
-     * @return The corresponding {@link RoomDto}.
-     */
-    private RoomDto convertToDto(Room room) {
-        return RoomDto.builder()
-                .id(room.getId())
-                .number(room.getNumber())
-                .floor(room.getFloor())
-                .type(room.getType())
-                .occupancyStatus(room.getOccupancyStatus())
-                .build();
-    }
-
-    /**
-     * Converts a {@link RoomDto} to a {@link Room} entity.
-     *
-     * @param dto The DTO to convert.
-     * @return The corresponding {@link Room} entity.
-     */
-    private Room convertToEntity(RoomDto dto) {
-        return Room.builder()
-                .id(dto.getId())
-                .number(dto.getNumber())
-                .floor(dto.getFloor())
-                .type(dto.getType())
-                .occupancyStatus(dto.getOccupancyStatus())
-                .build();
-    }
 }
@@ -0,0 +1,17 @@
+package com.example.miapp.services;
+
+/**
+ * Thrown when an appointment would overlap another appointment of the same doctor.
+ * Reported by the API as 409 (Conflict).
+ */
+public class SchedulingConflictException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message The description of the conflict.
+     */
+    public SchedulingConflictException(String message) {
+        super(message);
+    }
+}
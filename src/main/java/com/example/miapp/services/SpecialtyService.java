@@ -1,8 +1,13 @@
 package com.example.miapp.services;
 
+import com.example.miapp.dto.ChangeEventDto;
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.MultiGetResult;
 import com.example.miapp.dto.SpecialtyDto;
 import com.example.miapp.entity.Specialty;
+import com.example.miapp.mapper.SpecialtyMapper;
 import com.example.miapp.repository.SpecialtyRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -19,17 +24,29 @@ import java.util.stream.Collectors;
 public class SpecialtyService {
 
     private final SpecialtyRepository specialtyRepository;
+    private final SpecialtyMapper specialtyMapper;
+    private final JsonMergePatch jsonMergePatch;
+    private final CursorPaginator cursorPaginator;
+    private final MultiGetLoader multiGetLoader;
+    private final ChangeEventLog changeEventLog;
 
     /**
-     * Retrieves all specialties from the database.
+     * Retrieves one page of specialties, ordered by ID, using keyset pagination.
      *
-     * @return List of {@link SpecialtyDto} containing specialty details.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Requested page size, capped at the server-side maximum.
+     * @return {@link CursorPage} of {@link SpecialtyDto} containing specialty details.
+     * @throws IllegalArgumentException If the cursor or the limit is invalid.
      */
     @Transactional(readOnly = true)
-    public List<SpecialtyDto> getAllSpecialties() {
-        return specialtyRepository.findAll().stream()
-                .map(this::convertToDto)
+    public CursorPage<SpecialtyDto> getAllSpecialties(String after, Integer limit) {
+        int pageSize = cursorPaginator.resolveLimit(limit);
+        List<SpecialtyDto> rows = specialtyRepository
+                .findByIdGreaterThanOrderByIdAsc(cursorPaginator.decodeCursor(after), cursorPaginator.fetchLimit(pageSize))
+                .stream()
+                .map(specialtyMapper::toDto)
                 .collect(Collectors.toList());
+        return cursorPaginator.toPage(rows, pageSize, SpecialtyDto::getId);
     }
 
     /**
@@ -42,7 +59,21 @@ public class SpecialtyService {
     @Transactional(readOnly = true)
     public SpecialtyDto getSpecialtyById(Long id) {
         Specialty specialty = findSpecialtyById(id);
-        return convertToDto(specialty);
+        return specialtyMapper.toDto(specialty);
+    }
+
+    /**
+     * Retrieves several specialties by ID, with one query per chunk of IDs.
+     *
+     * @param ids The IDs of the specialties.
+     * @return {@link MultiGetResult} with the {@link SpecialtyDto} found, in request order, and the IDs not found.
+     * @throws IllegalArgumentException If no ID or too many IDs are given.
+     */
+    @Transactional(readOnly = true)
+    public MultiGetResult<SpecialtyDto> getSpecialtiesByIds(List<Long> ids) {
+        return multiGetLoader.load(ids, chunk -> specialtyRepository.findAllById(chunk).stream()
+                .map(specialtyMapper::toDto)
+                .collect(Collectors.toList()), SpecialtyDto::getId);
     }
 
     /**
@@ -53,8 +84,10 @@ public class SpecialtyService {
      */
     @Transactional
     public SpecialtyDto saveSpecialty(SpecialtyDto specialtyDto) {
-        Specialty specialty = convertToEntity(specialtyDto);
-        return convertToDto(specialtyRepository.save(specialty));
+        Specialty specialty = specialtyMapper.toEntity(specialtyDto);
+        Specialty savedSpecialty = specialtyRepository.save(specialty);
+        changeEventLog.publish(Specialty.class, savedSpecialty.getId(), ChangeEventDto.Type.CREATED);
+        return specialtyMapper.toDto(savedSpecialty);
     }
 
     /**
@@ -69,12 +102,26 @@ public class SpecialtyService {
     public SpecialtyDto updateSpecialty(Long id, SpecialtyDto specialtyDto) {
         Specialty existingSpecialty = findSpecialtyById(id);
 
-        existingSpecialty = existingSpecialty.toBuilder()
-                .name(specialtyDto.getName())
-                .description(specialtyDto.getDescription())
-                .build();
+        specialtyMapper.updateEntity(specialtyDto, existingSpecialty);
 
-        return convertToDto(specialtyRepository.save(existingSpecialty));
+        changeEventLog.publish(Specialty.class, id, ChangeEventDto.Type.UPDATED);
+        return specialtyMapper.toDto(existingSpecialty);
+    }
+
+    /**
+     * Applies a JSON Merge Patch to a specialty: the fields absent from the patch keep their value, and
+     * only the columns that actually change are written.
+     *
+     * @param id    The ID of the specialty to be patched.
+     * @param patch The merge patch.
+     * @return The patched {@link SpecialtyDto}.
+     * @throws EntityNotFoundException  If the specialty does not exist.
+     * @throws IllegalArgumentException If the patch is malformed or leaves the specialty invalid.
+     */
+    @Transactional
+    public SpecialtyDto patchSpecialty(Long id, JsonNode patch) {
+        SpecialtyDto patched = jsonMergePatch.apply(specialtyMapper.toDto(findSpecialtyById(id)), patch);
+        return updateSpecialty(id, patched);
     }
 
     /**
@@ -89,6 +136,7 @@ public class SpecialtyService {
             throw new EntityNotFoundException("Specialty not found with ID: " + id);
         }
         specialtyRepository.deleteById(id);
+        changeEventLog.publish(Specialty.class, id, ChangeEventDto.Type.DELETED);
     }
 
     /**
@@ -102,32 +150,4 @@ public class SpecialtyService {
         return specialtyRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Specialty not found with ID: " + id));
     }
-
-    /**
-     * Converts a {@link Specialty} entity to a {@link SpecialtyDto}.
-     *
-     * @param specialty The entity to convert.
-     * @return The corresponding {@link SpecialtyDto}.
-     */
-    private SpecialtyDto convertToDto(Specialty specialty) {
-        return SpecialtyDto.builder()
-                .id(specialty.getId())
-                .name(specialty.getName())
-                .description(specialty.getDescription())
-                .build();
-    }
-
-    /**
-     * Converts a {@link SpecialtyDto} to a {@link Specialty} entity.
-     *
-     * @param dto The DTO to convert.
-     * @return The corresponding {@link Specialty} entity.
-     */
-    private Specialty convertToEntity(SpecialtyDto dto) {
-        return Specialty.builder()
-                .id(dto.getId())
-                .name(dto.getName())
-                .description(dto.getDescription())
-                .build();
-    }
 }
@@ -0,0 +1,10 @@
+-- One-off migration for databases created before appointment IDs moved from
+-- AUTO_INCREMENT to the pooled "appointment_seq" generator.
+-- Hibernate emulates the sequence with a table on MySQL; start it after the
+-- highest existing ID so new appointments never collide with old rows.
+CREATE TABLE IF NOT EXISTS appointment_seq (next_val BIGINT);
+
+DELETE FROM appointment_seq;
+
+INSERT INTO appointment_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 1 FROM appointment;
@@ -0,0 +1,9 @@
+-- Secondary indexes for the hot query predicates, for databases whose schema is not
+-- managed by Hibernate (spring.jpa.hibernate.ddl-auto=update creates them automatically).
+CREATE INDEX idx_appointment_date ON appointment (date);
+CREATE INDEX idx_appointment_doctor_date ON appointment (doctor_id, date);
+CREATE INDEX idx_appointment_patient ON appointment (patient_id);
+CREATE INDEX idx_appointment_status ON appointment (status);
+CREATE INDEX idx_patient_phone ON patient (phone);
+CREATE INDEX idx_room_occupancy_status ON room (occupancy_status);
+CREATE INDEX idx_patient_room_room_check_in ON patient_room (room_id, check_in_date);
@@ -0,0 +1,22 @@
+-- One-off migration for databases created before appointment.status and
+-- room.occupancy_status were stored as one-character codes
+-- (see AppointmentStatusConverter and OccupancyStatusConverter).
+-- Run the two SELECTs first: they must return no rows, otherwise fix the
+-- listed values, since unknown statuses cannot be converted.
+SELECT id, status FROM appointment
+WHERE status NOT IN ('Scheduled', 'Completed', 'Canceled');
+
+SELECT id, occupancy_status FROM room
+WHERE occupancy_status NOT IN ('Available', 'Occupied');
+
+UPDATE appointment
+SET status = CASE status WHEN 'Scheduled' THEN 'S' WHEN 'Completed' THEN 'C' WHEN 'Canceled' THEN 'X' END;
+
+-- Rebuilds idx_appointment_status (created by indexes.sql) on the narrower column.
+ALTER TABLE appointment MODIFY status CHAR(1) NOT NULL;
+
+UPDATE room
+SET occupancy_status = CASE occupancy_status WHEN 'Available' THEN 'A' WHEN 'Occupied' THEN 'O' END;
+
+-- Rebuilds idx_room_occupancy_status on the narrower column.
+ALTER TABLE room MODIFY occupancy_status CHAR(1) NOT NULL;
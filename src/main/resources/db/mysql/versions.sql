@@ -0,0 +1,6 @@
+-- One-off migration adding the optimistic locking "version" column (exposed as the
+-- ETag) to databases created before it existed. ddl-auto=update adds it as well;
+-- existing rows start at version 0.
+ALTER TABLE patient ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE doctor ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE room ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
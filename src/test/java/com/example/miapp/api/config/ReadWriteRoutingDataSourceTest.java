@@ -0,0 +1,118 @@
+package com.example.miapp.api.config;
+
+import com.example.miapp.config.ReadReplicas;
+import com.example.miapp.config.ReadWriteRoutingDataSource;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes transactions over three in-memory H2 databases standing in for a primary and two replicas,
+ * each of which knows its own name and reports a configurable replication lag.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replicaA;
+    private DataSource replicaB;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString();
+        primary = database("primary", run);
+        replicaA = database("replica-a", run);
+        replicaB = database("replica-b", run);
+    }
+
+    @Test
+    void testReadOnlyTransactionsAlternateBetweenReplicas() {
+        route(new ReadReplicas.Replica("replica-a", replicaA), new ReadReplicas.Replica("replica-b", replicaB));
+
+        assertEquals(List.of("replica-a", "replica-b", "replica-a", "replica-b"),
+                List.of(readOnly(), readOnly(), readOnly(), readOnly()));
+    }
+
+    @Test
+    void testWritesAndNonTransactionalWorkUsePrimary() {
+        route(new ReadReplicas.Replica("replica-a", replicaA), new ReadReplicas.Replica("replica-b", replicaB));
+
+        assertEquals("primary", readWriteTransaction.execute(status -> nodeName()));
+        assertEquals("primary", nodeName());
+    }
+
+    @Test
+    void testLaggingReplicaIsEjectedUntilItCatchesUp() {
+        ReadReplicas replicas = route(new ReadReplicas.Replica("replica-a", replicaA),
+                new ReadReplicas.Replica("replica-b", replicaB));
+
+        new JdbcTemplate(replicaA).update("update replica_lag set seconds = 60");
+        replicas.check();
+        assertEquals(List.of("replica-b", "replica-b"), List.of(readOnly(), readOnly()));
+
+        new JdbcTemplate(replicaA).update("update replica_lag set seconds = 2");
+        replicas.check();
+        assertEquals(Set.of("replica-a", "replica-b"), Set.of(readOnly(), readOnly()));
+    }
+
+    @Test
+    void testUnreachableReplicaIsEjectedAndSkipped() {
+        ReadReplicas.Replica unreachable = new ReadReplicas.Replica("unreachable",
+                new DriverManagerDataSource("jdbc:unknown:replica"));
+        route(unreachable, new ReadReplicas.Replica("replica-b", replicaB));
+
+        assertEquals(List.of("replica-b", "replica-b"), List.of(readOnly(), readOnly()));
+        assertFalse(unreachable.isHealthy());
+    }
+
+    @Test
+    void testReadOnlyTransactionsUsePrimaryWithoutHealthyReplica() {
+        ReadReplicas replicas = route(new ReadReplicas.Replica("replica-a", replicaA));
+
+        new JdbcTemplate(replicaA).update("update replica_lag set seconds = null");
+        replicas.check();
+
+        assertEquals("primary", readOnly());
+    }
+
+    private ReadReplicas route(ReadReplicas.Replica... replicas) {
+        ReadReplicas readReplicas = new ReadReplicas(List.of(replicas), Duration.ofSeconds(10),
+                "select seconds from replica_lag", null);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, readReplicas));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        return readReplicas;
+    }
+
+    private String readOnly() {
+        return readOnlyTransaction.execute(status -> nodeName());
+    }
+
+    private String nodeName() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static DataSource database(String name, String run) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + run + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table node (name varchar(20))");
+        jdbcTemplate.update("insert into node values (?)", name);
+        jdbcTemplate.execute("create table replica_lag (seconds bigint)");
+        jdbcTemplate.update("insert into replica_lag values (0)");
+        return dataSource;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.miapp.api.config;
+
+import com.example.miapp.config.StatusCodeColumnsCheck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the status column check against in-memory H2 databases with converted and legacy status columns.
+ */
+class StatusCodeColumnsCheckTest {
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table room (id bigint primary key, occupancy_status char(1) not null)");
+    }
+
+    @Test
+    void testConvertedColumnsPass() {
+        jdbcTemplate.execute("create table appointment (id bigint primary key, status char(1) not null)");
+
+        assertDoesNotThrow(() -> new StatusCodeColumnsCheck(dataSource).afterPropertiesSet());
+    }
+
+    @Test
+    void testLegacyColumnFails() {
+        jdbcTemplate.execute("create table appointment (id bigint primary key, status varchar(255) not null)");
+        jdbcTemplate.update("insert into appointment values (1, 'Canceled')");
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> new StatusCodeColumnsCheck(dataSource).afterPropertiesSet());
+        assertTrue(ex.getMessage().startsWith("Column appointment.status is 255 characters wide"));
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.miapp.api.controller;
+
+import com.example.miapp.dto.PatientDto;
+import com.example.miapp.services.JsonMergePatch;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonMergePatchTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private ValidatorFactory validatorFactory;
+
+    private JsonMergePatch jsonMergePatch;
+
+    private PatientDto samplePatient;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        jsonMergePatch = new JsonMergePatch(objectMapper, validatorFactory.getValidator());
+
+        samplePatient = PatientDto.builder()
+                .id(1L)
+                .firstName("Jane")
+                .lastName("Doe")
+                .birthDate(new GregorianCalendar(1990, Calendar.MARCH, 15).getTime())
+                .phone("1234567890")
+                .address("123 Calle Falsa")
+                .version(3L)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void testApplyReplacesOnlyPatchedFields() {
+        PatientDto patched = jsonMergePatch.apply(samplePatient, json("{\"address\": \"456 Calle Real\"}"));
+
+        assertEquals("456 Calle Real", patched.getAddress());
+        assertEquals("Jane", patched.getFirstName());
+        assertEquals("1234567890", patched.getPhone());
+        assertEquals(samplePatient.getBirthDate(), patched.getBirthDate());
+        assertEquals("123 Calle Falsa", samplePatient.getAddress());
+    }
+
+    @Test
+    void testApplyNullRemovesField() {
+        PatientDto patched = jsonMergePatch.apply(samplePatient, json("{\"phone\": null}"));
+
+        assertNull(patched.getPhone());
+        assertEquals("123 Calle Falsa", patched.getAddress());
+    }
+
+    @Test
+    void testApplyMergesNestedObjects() {
+        Contact contact = new Contact("Jane", new Address("Bogota", "110111"));
+
+        Contact patched = jsonMergePatch.apply(contact,
+                json("{\"address\": {\"postalCode\": \"110221\"}, \"name\": \"Janet\"}"));
+
+        assertEquals("Janet", patched.getName());
+        assertEquals("Bogota", patched.getAddress().getCity());
+        assertEquals("110221", patched.getAddress().getPostalCode());
+    }
+
+    @Test
+    void testApplyNullInNestedObjectRemovesOnlyThatMember() {
+        Contact contact = new Contact("Jane", new Address("Bogota", "110111"));
+
+        Contact patched = jsonMergePatch.apply(contact, json("{\"address\": {\"postalCode\": null}}"));
+
+        assertEquals("Bogota", patched.getAddress().getCity());
+        assertNull(patched.getAddress().getPostalCode());
+    }
+
+    @Test
+    void testApplyRejectsIdChange() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> jsonMergePatch.apply(samplePatient, json("{\"id\": 2}")));
+
+        assertEquals("The ID cannot be changed by a patch.", ex.getMessage());
+    }
+
+    @Test
+    void testApplyAcceptsUnchangedId() {
+        PatientDto patched = jsonMergePatch.apply(samplePatient, json("{\"id\": 1, \"lastName\": \"Roe\"}"));
+
+        assertEquals(1L, patched.getId());
+        assertEquals("Roe", patched.getLastName());
+    }
+
+    @Test
+    void testApplyValidatesPatchedState() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> jsonMergePatch.apply(samplePatient, json("{\"address\": null, \"firstName\": \"J\"}")));
+
+        assertEquals("address: Address cannot be null; firstName: First name must be between 2 and 50 characters",
+                ex.getMessage());
+    }
+
+    @Test
+    void testApplyRejectsWrongValueType() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> jsonMergePatch.apply(samplePatient, json("{\"birthDate\": {\"year\": 1990}}")));
+
+        assertTrue(ex.getMessage().startsWith("Invalid merge patch: "));
+    }
+
+    @Test
+    void testApplyRejectsNonObjectPatch() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> jsonMergePatch.apply(samplePatient, json("[\"address\"]")));
+
+        assertEquals("A merge patch must be a JSON object.", ex.getMessage());
+    }
+
+    private JsonNode json(String content) {
+        try {
+            return objectMapper.readTree(content);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Contact {
+        private String name;
+        private Address address;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Address {
+        private String city;
+        private String postalCode;
+    }
+}
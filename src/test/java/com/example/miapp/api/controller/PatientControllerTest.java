@@ -1,12 +1,22 @@
 package com.example.miapp.api.controller;
 
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.MultiGetResult;
 import com.example.miapp.dto.PatientDto;
 import com.example.miapp.controller.PatientController;
+import com.example.miapp.entity.Patient;
+import com.example.miapp.services.EntityVersionCache;
 import com.example.miapp.services.PatientService;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.*;
 import org.mockito.*;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.*;
 
@@ -18,6 +28,9 @@ class PatientControllerTest {
     @Mock
     private PatientService patientService;
 
+    @Mock
+    private EntityVersionCache entityVersionCache;
+
     @InjectMocks
     private PatientController patientController;
 
@@ -36,6 +49,7 @@ class PatientControllerTest {
                 .birthDate(new GregorianCalendar(1990, Calendar.MARCH, 15).getTime())
                 .phone("1234567890")
                 .address("123 Calle Falsa")
+                .version(3L)
                 .build();
     }
 
@@ -46,49 +60,150 @@ class PatientControllerTest {
 
     @Test
     void testGetAllPatients() {
-        List<PatientDto> patients = List.of(samplePatient);
-        when(patientService.getAllPatients()).thenReturn(patients);
+        CursorPage<PatientDto> page = CursorPage.<PatientDto>builder()
+                .items(List.of(samplePatient))
+                .nextCursor("aWQ6MQ")
+                .limit(1)
+                .build();
+        when(patientService.getAllPatients(null, 1)).thenReturn(page);
 
-        ResponseEntity<List<PatientDto>> response = patientController.getAllPatients();
+        ResponseEntity<CursorPage<PatientDto>> response = patientController.getAllPatients(null, 1);
 
-        assertEquals(200, response.getStatusCode());
+        assertEquals(200, response.getStatusCode().value());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertEquals(samplePatient, response.getBody().get(0));
-        verify(patientService, times(1)).getAllPatients();
+        assertEquals(1, response.getBody().getItems().size());
+        assertEquals(samplePatient, response.getBody().getItems().get(0));
+        assertEquals("aWQ6MQ", response.getBody().getNextCursor());
+        verify(patientService, times(1)).getAllPatients(null, 1);
+    }
+
+    @Test
+    void testSearchPatients() {
+        when(patientService.searchPatients("jane 123", 10)).thenReturn(List.of(samplePatient));
+
+        ResponseEntity<List<PatientDto>> response = patientController.searchPatients("jane 123", 10);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(List.of(samplePatient), response.getBody());
+        verify(patientService).searchPatients("jane 123", 10);
+    }
+
+    @Test
+    void testGetPatientsByIds() {
+        MultiGetResult<PatientDto> result = MultiGetResult.<PatientDto>builder()
+                .items(List.of(samplePatient))
+                .missingIds(List.of(2L))
+                .build();
+        when(patientService.getPatientsByIds(List.of(2L, 1L))).thenReturn(result);
+
+        ResponseEntity<MultiGetResult<PatientDto>> response = patientController.getPatientsByIds(List.of(2L, 1L));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(result, response.getBody());
+        verify(patientService).getPatientsByIds(List.of(2L, 1L));
     }
 
     @Test
     void testGetPatientById() {
         when(patientService.getPatientById(1L)).thenReturn(samplePatient);
 
-        ResponseEntity<PatientDto> response = patientController.getPatientById(1L);
+        ResponseEntity<PatientDto> response = patientController.getPatientById(1L, null);
 
-        assertEquals(200, response.getStatusCode());
+        assertEquals(200, response.getStatusCode().value());
         assertEquals(samplePatient, response.getBody());
+        assertEquals("\"3\"", response.getHeaders().getETag());
         verify(patientService).getPatientById(1L);
     }
 
+    @Test
+    void testGetPatientByIdNotModifiedWithoutLoading() {
+        when(entityVersionCache.get(Patient.class, 1L)).thenReturn(3L);
+
+        ResponseEntity<PatientDto> response = patientController.getPatientById(1L, "\"3\"");
+
+        assertEquals(304, response.getStatusCode().value());
+        assertNull(response.getBody());
+        verifyNoInteractions(patientService);
+    }
+
+    @Test
+    void testGetPatientByIdStaleETag() {
+        when(entityVersionCache.get(Patient.class, 1L)).thenReturn(3L);
+        when(patientService.getPatientById(1L)).thenReturn(samplePatient);
+
+        ResponseEntity<PatientDto> response = patientController.getPatientById(1L, "\"2\"");
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(samplePatient, response.getBody());
+    }
+
     @Test
     void testCreatePatient() {
         when(patientService.savePatient(samplePatient)).thenReturn(samplePatient);
 
         ResponseEntity<PatientDto> response = patientController.createPatient(samplePatient);
 
-        assertEquals(200, response.getStatusCode());
+        assertEquals(200, response.getStatusCode().value());
         assertEquals(samplePatient, response.getBody());
         verify(patientService).savePatient(samplePatient);
     }
 
     @Test
     void testUpdatePatient() {
-        when(patientService.updatePatient(1L, samplePatient)).thenReturn(samplePatient);
+        when(patientService.updatePatient(1L, samplePatient, null)).thenReturn(samplePatient);
 
-        ResponseEntity<PatientDto> response = patientController.updatePatient(1L, samplePatient);
+        ResponseEntity<PatientDto> response = patientController.updatePatient(1L, null, samplePatient);
 
-        assertEquals(200, response.getStatusCode());
+        assertEquals(200, response.getStatusCode().value());
         assertEquals(samplePatient, response.getBody());
-        verify(patientService).updatePatient(1L, samplePatient);
+        verify(patientService).updatePatient(1L, samplePatient, null);
+    }
+
+    @Test
+    void testUpdatePatientWithIfMatch() {
+        when(patientService.updatePatient(1L, samplePatient, 2L)).thenReturn(samplePatient);
+
+        ResponseEntity<PatientDto> response = patientController.updatePatient(1L, "\"2\"", samplePatient);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        verify(patientService).updatePatient(1L, samplePatient, 2L);
+    }
+
+    @Test
+    void testPatchPatient() {
+        ObjectNode patch = JsonNodeFactory.instance.objectNode().put("address", "456 Calle Real");
+        when(patientService.patchPatient(1L, patch, 2L)).thenReturn(samplePatient);
+
+        ResponseEntity<PatientDto> response = patientController.patchPatient(1L, "\"2\"", patch);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(samplePatient, response.getBody());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        verify(patientService).patchPatient(1L, patch, 2L);
+    }
+
+    @Test
+    void testHandleOptimisticLockingFailureException() {
+        OptimisticLockingFailureException exception = new OptimisticLockingFailureException("Patient 1 is at version 3, not 2.");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_MATCH, "\"2\"");
+
+        ResponseEntity<String> response = patientController.handleOptimisticLockingFailureException(exception,
+                new ServletWebRequest(request));
+
+        assertEquals(412, response.getStatusCode().value());
+        assertEquals("Patient 1 is at version 3, not 2.", response.getBody());
+    }
+
+    @Test
+    void testHandleOptimisticLockingFailureExceptionWithoutIfMatch() {
+        OptimisticLockingFailureException exception = new OptimisticLockingFailureException("Row was updated by another transaction");
+
+        ResponseEntity<String> response = patientController.handleOptimisticLockingFailureException(exception,
+                new ServletWebRequest(new MockHttpServletRequest()));
+
+        assertEquals(409, response.getStatusCode().value());
     }
 
     @Test
@@ -97,10 +212,20 @@ class PatientControllerTest {
 
         ResponseEntity<Void> response = patientController.deletePatient(1L);
 
-        assertEquals(204, response.getStatusCode());
+        assertEquals(204, response.getStatusCode().value());
         verify(patientService).deletePatient(1L);
     }
 
+    @Test
+    void testHandleIllegalArgumentException() {
+        IllegalArgumentException exception = new IllegalArgumentException("Invalid cursor: abc");
+
+        ResponseEntity<String> response = patientController.handleIllegalArgumentException(exception);
+
+        assertEquals(400, response.getStatusCode().value());
+        assertEquals("Invalid cursor: abc", response.getBody());
+    }
+
     @Test
     void testHandleEntityNotFoundException() {
         String errorMessage = "Patient not found";
@@ -108,7 +233,7 @@ class PatientControllerTest {
 
         ResponseEntity<String> response = patientController.handleEntityNotFoundException(exception);
 
-        assertEquals(404, response.getStatusCode());
+        assertEquals(404, response.getStatusCode().value());
         assertEquals(errorMessage, response.getBody());
     }
 }
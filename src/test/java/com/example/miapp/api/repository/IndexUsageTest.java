@@ -0,0 +1,156 @@
+package com.example.miapp.api.repository;
+
+import com.example.miapp.entity.AppointmentStatus;
+import com.example.miapp.entity.OccupancyStatus;
+import com.example.miapp.repository.AppointmentRepository;
+import com.example.miapp.repository.PatientRepository;
+import com.example.miapp.repository.PatientRoomRepository;
+import com.example.miapp.repository.RoomRepository;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the hot query predicates are served by the indexes declared on the entities. Each test captures the
+ * SQL Hibernate generates for a repository call and reads its H2 query plan in MySQL compatibility mode.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:index-usage;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class IndexUsageTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private static final Limit PAGE = Limit.of(20);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecordingStatementInspector statementInspector;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private PatientRoomRepository patientRoomRepository;
+
+    @Test
+    void testAppointmentsByDoctorAndDateRangeUseDoctorDateIndex() {
+        assertUsesIndex("idx_appointment_doctor_date", captureSql(() ->
+                appointmentRepository.findDtoPageByDoctorAndDateRange(1L, FROM, FROM.plusMonths(1), null, FROM, 0L, PAGE)));
+    }
+
+    @Test
+    void testAppointmentsByDateRangeUseDateIndex() {
+        assertUsesIndex("idx_appointment_date", captureSql(() ->
+                appointmentRepository.findDtoPageByDateRange(FROM, FROM.plusDays(1), null, FROM, 0L, PAGE)));
+    }
+
+    @Test
+    void testAppointmentsByPatientUsePatientIndex() {
+        assertUsesIndex("idx_appointment_patient", captureSql(() -> appointmentRepository.findIdsByPatientId(1L)));
+    }
+
+    @Test
+    void testAppointmentsByStatusUseStatusIndex() {
+        assertUsesIndex("idx_appointment_status", captureSql(() ->
+                appointmentRepository.findDtoPageByStatus(AppointmentStatus.SCHEDULED, 0L, PAGE)));
+    }
+
+    @Test
+    void testPatientByPhoneUsesPhoneIndex() {
+        assertUsesIndex("idx_patient_phone", captureSql(() -> patientRepository.findByPhone("1234567890")));
+    }
+
+    @Test
+    void testRoomsByOccupancyStatusUseStatusIndex() {
+        assertUsesIndex("idx_room_occupancy_status", captureSql(() ->
+                roomRepository.findByOccupancyStatusAndIdGreaterThanOrderByIdAsc(OccupancyStatus.AVAILABLE, 0L, PAGE)));
+    }
+
+    @Test
+    void testStaysByRoomAndDateRangeUseRoomCheckInIndex() {
+        assertUsesIndex("idx_patient_room_room_check_in", captureSql(() ->
+                patientRoomRepository.findDtoPageByRoomAndDateRange(1L, java.sql.Date.valueOf(LocalDate.of(2030, 1, 1)),
+                        java.sql.Date.valueOf(LocalDate.of(2030, 2, 1)), 0L, PAGE)));
+    }
+
+    /**
+     * Runs a repository call and returns the single SQL statement Hibernate sent for it.
+     *
+     * @param query The repository call.
+     * @return The generated SQL, with its parameter placeholders.
+     */
+    private String captureSql(Runnable query) {
+        statementInspector.clear();
+        query.run();
+        List<String> statements = statementInspector.getStatements();
+        assertEquals(1, statements.size(), () -> "Expected one statement, got " + statements);
+        return statements.get(0);
+    }
+
+    private void assertUsesIndex(String index, String sql) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+        assertTrue(plan.contains(index), () -> "Expected " + index + " in plan:\n" + plan);
+    }
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        RecordingStatementInspector recordingStatementInspector() {
+            return new RecordingStatementInspector();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspectorCustomizer(RecordingStatementInspector statementInspector) {
+            return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, statementInspector);
+        }
+    }
+
+    /**
+     * Keeps the SQL of every statement Hibernate prepares, unchanged.
+     */
+    static class RecordingStatementInspector implements StatementInspector {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        List<String> getStatements() {
+            return List.copyOf(statements);
+        }
+
+        void clear() {
+            statements.clear();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.miapp.api.services;
+
+import com.example.miapp.dto.AppointmentDto;
+import com.example.miapp.dto.BatchItemResult;
+import com.example.miapp.entity.Doctor;
+import com.example.miapp.entity.Patient;
+import com.example.miapp.repository.AppointmentRepository;
+import com.example.miapp.repository.DoctorRepository;
+import com.example.miapp.repository.PatientRepository;
+import com.example.miapp.services.AppointmentService;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that writing an appointment attaches the patient and doctor as references without loading them, that a
+ * missing one is still reported as not found, and that a batch fails the items clashing with an earlier one.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:appointment-writes;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+class AppointmentServiceWriteTest {
+
+    private static final long MISSING_ID = 999_999L;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long patientId;
+
+    private Long doctorId;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository.deleteAll();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+        patientId = patientRepository.save(Patient.builder()
+                .firstName("Jane").lastName("Doe").birthDate(new GregorianCalendar(1990, Calendar.MARCH, 15).getTime())
+                .phone("3000000000").address("123 Calle Falsa").build()).getId();
+        doctorId = doctorRepository.save(Doctor.builder()
+                .firstName("John").lastName("Smith").phone("3000000001").email("john.smith@example.com").build()).getId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testSaveAppointmentDoesNotLoadReferences() {
+        AppointmentDto saved = appointmentService.saveAppointment(appointment(patientId, doctorId));
+
+        assertEquals(patientId, saved.getPatientId());
+        assertEquals(doctorId, saved.getDoctorId());
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testSaveAppointmentWithMissingDoctor() {
+        EntityNotFoundException ex = assertThrows(EntityNotFoundException.class,
+                () -> appointmentService.saveAppointment(appointment(patientId, MISSING_ID)));
+
+        assertEquals("Doctor not found with ID: " + MISSING_ID, ex.getMessage());
+        assertEquals(0, appointmentRepository.count());
+    }
+
+    @Test
+    void testUpdateAppointmentWithMissingPatient() {
+        Long id = appointmentService.saveAppointment(appointment(patientId, doctorId)).getId();
+
+        EntityNotFoundException ex = assertThrows(EntityNotFoundException.class,
+                () -> appointmentService.updateAppointment(id, appointment(MISSING_ID, doctorId)));
+
+        assertEquals("Patient not found with ID: " + MISSING_ID, ex.getMessage());
+        assertEquals(patientId, appointmentService.getAppointmentById(id).getPatientId());
+    }
+
+    @Test
+    void testSaveAppointmentsFailsItemClashingWithEarlierItem() {
+        AppointmentDto first = appointment(patientId, doctorId);
+        AppointmentDto clash = appointment(patientId, doctorId);
+        clash.setDate(first.getDate().plusMinutes(10));
+
+        List<BatchItemResult<AppointmentDto>> results = appointmentService.saveAppointments(List.of(first, clash));
+
+        assertEquals(BatchItemResult.Outcome.CREATED, results.get(0).getOutcome());
+        assertEquals(BatchItemResult.Outcome.FAILED, results.get(1).getOutcome());
+        assertEquals(1, appointmentRepository.count());
+    }
+
+    private AppointmentDto appointment(Long patientId, Long doctorId) {
+        return AppointmentDto.builder()
+                .date(LocalDateTime.now().plusDays(1).withNano(0))
+                .patientId(patientId).doctorId(doctorId)
+                .reason("Checkup visit").status("Scheduled").build();
+    }
+}
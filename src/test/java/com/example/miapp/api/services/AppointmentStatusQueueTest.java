@@ -0,0 +1,186 @@
+package com.example.miapp.api.services;
+
+import com.example.miapp.dto.StatusChangeDto;
+import com.example.miapp.entity.AppointmentStatus;
+import com.example.miapp.repository.AppointmentRepository;
+import com.example.miapp.repository.AppointmentSlot;
+import com.example.miapp.services.AppointmentStatusQueue;
+import com.example.miapp.services.ChangeEventLog;
+import com.example.miapp.services.DoctorScheduleIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks the status change queue against mocked repositories: coalescing of changes to the same appointment,
+ * chunked writes and the capacity limit, also under concurrent callers.
+ */
+class AppointmentStatusQueueTest {
+
+    private AppointmentRepository appointmentRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        when(appointmentRepository.findSlotsByIdIn(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream().map(AppointmentStatusQueueTest::slot).toList());
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testLaterChangeSupersedesQueuedChange() {
+        AppointmentStatusQueue queue = queue(10, 10);
+
+        StatusChangeDto first = queue.enqueue(1L, AppointmentStatus.COMPLETED);
+        StatusChangeDto second = queue.enqueue(1L, AppointmentStatus.CANCELED);
+        queue.flush();
+
+        assertEquals(StatusChangeDto.State.SUPERSEDED, queue.getChange(first.getTrackingId()).getState());
+        assertEquals(StatusChangeDto.State.APPLIED, queue.getChange(second.getTrackingId()).getState());
+        verify(appointmentRepository).updateStatus(List.of(1L), AppointmentStatus.CANCELED);
+        verify(appointmentRepository, never()).updateStatus(anyCollection(), eq(AppointmentStatus.COMPLETED));
+    }
+
+    @Test
+    void testFlushWritesOneUpdatePerStatusAndChunk() {
+        AppointmentStatusQueue queue = queue(10, 2);
+        for (long id = 1; id <= 5; id++) {
+            queue.enqueue(id, id == 3 ? AppointmentStatus.CANCELED : AppointmentStatus.COMPLETED);
+        }
+
+        queue.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> chunks = ArgumentCaptor.forClass(Collection.class);
+        verify(appointmentRepository, times(3)).findSlotsByIdIn(chunks.capture());
+        assertEquals(List.of(2, 2, 1), chunks.getAllValues().stream().map(Collection::size).toList());
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(appointmentRepository, times(4)).updateStatus(anyCollection(), any());
+        verify(appointmentRepository).updateStatus(List.of(3L), AppointmentStatus.CANCELED);
+        assertEquals(0, depth());
+    }
+
+    @Test
+    void testMissingAppointmentFailsWithoutFailingItsChunk() {
+        AppointmentStatusQueue queue = queue(10, 10);
+        when(appointmentRepository.findSlotsByIdIn(anyCollection())).thenReturn(List.of(slot(1L)));
+
+        StatusChangeDto found = queue.enqueue(1L, AppointmentStatus.COMPLETED);
+        StatusChangeDto missing = queue.enqueue(2L, AppointmentStatus.COMPLETED);
+        queue.flush();
+
+        assertEquals(StatusChangeDto.State.APPLIED, queue.getChange(found.getTrackingId()).getState());
+        StatusChangeDto failed = queue.getChange(missing.getTrackingId());
+        assertEquals(StatusChangeDto.State.FAILED, failed.getState());
+        assertEquals("Appointment not found with ID: 2", failed.getError());
+        verify(appointmentRepository).updateStatus(List.of(1L), AppointmentStatus.COMPLETED);
+    }
+
+    @Test
+    void testFullQueueRejectsNewAppointmentsUntilFlushed() {
+        AppointmentStatusQueue queue = queue(2, 10);
+        queue.enqueue(1L, AppointmentStatus.COMPLETED);
+        queue.enqueue(2L, AppointmentStatus.COMPLETED);
+
+        assertThrows(RejectedExecutionException.class, () -> queue.enqueue(3L, AppointmentStatus.COMPLETED));
+        StatusChangeDto replacement = queue.enqueue(1L, AppointmentStatus.CANCELED);
+        assertEquals(2, depth());
+
+        queue.flush();
+
+        assertEquals(StatusChangeDto.State.APPLIED, queue.getChange(replacement.getTrackingId()).getState());
+        queue.enqueue(3L, AppointmentStatus.COMPLETED);
+        queue.enqueue(4L, AppointmentStatus.COMPLETED);
+        assertThrows(RejectedExecutionException.class, () -> queue.enqueue(5L, AppointmentStatus.COMPLETED));
+    }
+
+    @Test
+    void testConcurrentEnqueuesNeverExceedCapacity() throws Exception {
+        int capacity = 100;
+        int threads = 16;
+        AppointmentStatusQueue queue = queue(capacity, 10);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> accepted = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                long firstId = thread * 1000L;
+                accepted.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    for (long id = firstId; id < firstId + 50; id++) {
+                        try {
+                            queue.enqueue(id, AppointmentStatus.COMPLETED);
+                            count++;
+                        } catch (RejectedExecutionException ex) {
+                            // Queue full.
+                        }
+                    }
+                    return count;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> future : accepted) {
+                total += future.get();
+            }
+
+            assertEquals(capacity, total);
+            assertEquals(capacity, depth());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private AppointmentStatusQueue queue(int capacity, int batchSize) {
+        return new AppointmentStatusQueue(appointmentRepository, mock(DoctorScheduleIndex.class), mock(ChangeEventLog.class),
+                transactionTemplate, meterRegistry, capacity, batchSize, Duration.ofMinutes(10));
+    }
+
+    private double depth() {
+        return meterRegistry.get("appointments.status.queue.depth").gauge().value();
+    }
+
+    private static AppointmentSlot slot(Long id) {
+        return new AppointmentSlot() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getDoctorId() {
+                return 1L;
+            }
+
+            @Override
+            public LocalDateTime getDate() {
+                return LocalDateTime.of(2030, 1, 1, 9, 0).plusHours(id);
+            }
+        };
+    }
+}
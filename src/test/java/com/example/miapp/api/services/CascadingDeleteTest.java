@@ -0,0 +1,265 @@
+package com.example.miapp.api.services;
+
+import com.example.miapp.dto.AppointmentDto;
+import com.example.miapp.dto.ChangeEventDto;
+import com.example.miapp.dto.DoctorDto;
+import com.example.miapp.dto.DoctorSpecialtyDto;
+import com.example.miapp.dto.PatientDto;
+import com.example.miapp.dto.PatientRoomDto;
+import com.example.miapp.dto.RoomDto;
+import com.example.miapp.entity.MedicalRecord;
+import com.example.miapp.entity.OccupancyStatus;
+import com.example.miapp.entity.Specialty;
+import com.example.miapp.repository.*;
+import com.example.miapp.services.*;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Checks the bulk deletes of patients and doctors: their children are removed and their deletion published, a
+ * missing parent is reported as not found, and the in-memory indexes released along the way are restored when
+ * the transaction rolls back.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cascading-delete;DB_CLOSE_DELAY=-1")
+class CascadingDeleteTest {
+
+    private static final long MISSING_ID = 999_999L;
+
+    private static final LocalDate CHECK_IN = LocalDate.now();
+
+    private static final LocalDateTime APPOINTMENT_DATE = CHECK_IN.plusDays(1).atTime(10, 0);
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PatientRoomService patientRoomService;
+
+    @Autowired
+    private DoctorSpecialtyService doctorSpecialtyService;
+
+    @MockitoSpyBean
+    private PatientRepository patientRepository;
+
+    @MockitoSpyBean
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private SpecialtyRepository specialtyRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRoomRepository patientRoomRepository;
+
+    @Autowired
+    private DoctorSpecialtyRepository doctorSpecialtyRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Autowired
+    private DoctorScheduleIndex doctorScheduleIndex;
+
+    @Autowired
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private ChangeEventLog changeEventLog;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long patientId;
+
+    private Long doctorId;
+
+    private Long roomId;
+
+    private Long appointmentId;
+
+    private Long patientRoomId;
+
+    private Long medicalRecordId;
+
+    private Long doctorSpecialtyId;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository.deleteAll();
+        patientRoomRepository.deleteAll();
+        doctorSpecialtyRepository.deleteAll();
+        medicalRecordRepository.deleteAll();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+        roomRepository.deleteAll();
+        specialtyRepository.deleteAll();
+        patientSearchIndex.rebuild();
+        roomOccupancyIndex.rebuild();
+        doctorScheduleIndex.rebuild();
+
+        patientId = patientService.savePatient(PatientDto.builder()
+                .firstName("Jane").lastName("Doe").birthDate(new GregorianCalendar(1990, Calendar.MARCH, 15).getTime())
+                .phone("3000000000").address("123 Calle Falsa").build()).getId();
+        doctorId = doctorService.saveDoctor(DoctorDto.builder()
+                .firstName("John").lastName("Smith").phone("3000000001").email("john.smith@example.com").build()).getId();
+        roomId = roomService.saveRoom(RoomDto.builder()
+                .number("101").floor("1").type("Single").occupancyStatus(OccupancyStatus.AVAILABLE.getLabel()).build()).getId();
+        appointmentId = appointmentService.saveAppointment(AppointmentDto.builder()
+                .date(APPOINTMENT_DATE).patientId(patientId).doctorId(doctorId)
+                .reason("Checkup visit").status("Scheduled").build()).getId();
+        patientRoomId = patientRoomService.savePatientRoom(PatientRoomDto.builder()
+                .patientId(patientId).roomId(roomId).checkInDate(date(CHECK_IN)).checkOutDate(date(CHECK_IN.plusDays(3)))
+                .observations("Observation").build()).getId();
+        medicalRecordId = medicalRecordRepository.save(MedicalRecord.builder()
+                .diagnosis("Flu").treatment("Rest").entryDate(new Date())
+                .patient(patientRepository.getReferenceById(patientId))
+                .responsibleDoctor(doctorRepository.getReferenceById(doctorId)).build()).getId();
+        Long specialtyId = specialtyRepository.save(Specialty.builder().name("Cardiology").description("Heart").build()).getId();
+        doctorSpecialtyId = doctorSpecialtyService.saveDoctorSpecialty(DoctorSpecialtyDto.builder()
+                .doctorId(doctorId).specialtyId(specialtyId).certificationDate(new Date()).experienceLevel("Senior").build()).getId();
+    }
+
+    @Test
+    void testDeletePatientRemovesChildrenAndPublishesTheirDeletion() {
+        long start = changeEventLog.lastSequence();
+
+        patientService.deletePatient(patientId);
+
+        assertFalse(patientRepository.existsById(patientId));
+        assertFalse(appointmentRepository.existsById(appointmentId));
+        assertFalse(patientRoomRepository.existsById(patientRoomId));
+        assertFalse(medicalRecordRepository.existsById(medicalRecordId));
+        assertEquals(List.of("Appointment " + appointmentId, "PatientRoom " + patientRoomId,
+                "MedicalRecord " + medicalRecordId, "Patient " + patientId), deletedSince(start));
+        assertEquals(List.of(), bookedSlots());
+        assertEquals(List.of(roomId), availableRooms());
+        assertEquals(List.of(), patientSearchIndex.search("jane", 10));
+    }
+
+    @Test
+    void testDeleteMissingPatientIsNotFound() {
+        long start = changeEventLog.lastSequence();
+
+        EntityNotFoundException ex = assertThrows(EntityNotFoundException.class,
+                () -> patientService.deletePatient(MISSING_ID));
+
+        assertEquals("Patient not found with ID: " + MISSING_ID, ex.getMessage());
+        assertEquals(start, changeEventLog.lastSequence());
+    }
+
+    @Test
+    void testDeletePatientNotFoundAfterReleasingRestoresIndexes() {
+        doReturn(0).when(patientRepository).deleteRowById(anyLong());
+        long start = changeEventLog.lastSequence();
+
+        assertThrows(EntityNotFoundException.class, () -> patientService.deletePatient(patientId));
+
+        assertTrue(appointmentRepository.existsById(appointmentId));
+        assertTrue(patientRoomRepository.existsById(patientRoomId));
+        assertTrue(medicalRecordRepository.existsById(medicalRecordId));
+        assertEquals(start, changeEventLog.lastSequence());
+        assertEquals(List.of(APPOINTMENT_DATE), bookedSlots());
+        assertEquals(List.of(), availableRooms());
+        assertEquals(List.of(patientId), patientSearchIndex.search("jane", 10));
+    }
+
+    @Test
+    void testDeletePatientRolledBackRestoresIndexes() {
+        long start = changeEventLog.lastSequence();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            patientService.deletePatient(patientId);
+            status.setRollbackOnly();
+        });
+
+        assertTrue(patientRepository.existsById(patientId));
+        assertTrue(appointmentRepository.existsById(appointmentId));
+        assertEquals(start, changeEventLog.lastSequence());
+        assertEquals(List.of(APPOINTMENT_DATE), bookedSlots());
+        assertEquals(List.of(), availableRooms());
+        assertEquals(List.of(patientId), patientSearchIndex.search("jane", 10));
+    }
+
+    @Test
+    void testDeleteDoctorRemovesChildrenAndPublishesTheirDeletion() {
+        medicalRecordRepository.deleteById(medicalRecordId);
+        long start = changeEventLog.lastSequence();
+
+        doctorService.deleteDoctor(doctorId);
+
+        assertFalse(appointmentRepository.existsById(appointmentId));
+        assertFalse(doctorSpecialtyRepository.existsById(doctorSpecialtyId));
+        assertEquals(List.of("Appointment " + appointmentId, "DoctorSpecialty " + doctorSpecialtyId, "Doctor " + doctorId),
+                deletedSince(start));
+        assertEquals(List.of(), bookedSlots());
+    }
+
+    @Test
+    void testDeleteDoctorNotFoundAfterReleasingRestoresIndexes() {
+        doReturn(0).when(doctorRepository).deleteRowById(anyLong());
+        long start = changeEventLog.lastSequence();
+
+        EntityNotFoundException ex = assertThrows(EntityNotFoundException.class, () -> doctorService.deleteDoctor(doctorId));
+
+        assertEquals("Doctor not found with ID: " + doctorId, ex.getMessage());
+        assertTrue(appointmentRepository.existsById(appointmentId));
+        assertTrue(doctorSpecialtyRepository.existsById(doctorSpecialtyId));
+        assertEquals(start, changeEventLog.lastSequence());
+        assertEquals(List.of(APPOINTMENT_DATE), bookedSlots());
+    }
+
+    private List<String> deletedSince(long start) {
+        return changeEventLog.since(start, 100).events().stream()
+                .filter(event -> event.getType() == ChangeEventDto.Type.DELETED)
+                .map(event -> event.getEntity() + " " + event.getEntityId())
+                .toList();
+    }
+
+    private List<LocalDateTime> bookedSlots() {
+        return doctorScheduleIndex.findBookedSlots(doctorId, APPOINTMENT_DATE.minusHours(1), APPOINTMENT_DATE.plusHours(1));
+    }
+
+    private List<Long> availableRooms() {
+        return roomOccupancyIndex.findAvailableRooms(CHECK_IN, CHECK_IN.plusDays(1), null, null).stream()
+                .map(RoomDto::getId)
+                .toList();
+    }
+
+    private static Date date(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
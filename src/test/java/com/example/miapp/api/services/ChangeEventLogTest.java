@@ -0,0 +1,130 @@
+package com.example.miapp.api.services;
+
+import com.example.miapp.dto.ChangeEventDto;
+import com.example.miapp.entity.Patient;
+import com.example.miapp.services.ChangeEventLog;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the ring buffer of committed changes: reading the events after a sequence, the reset answered to a
+ * subscriber whose position is gone, and publication tied to the outcome of the surrounding transaction.
+ */
+class ChangeEventLogTest {
+
+    @Test
+    void testSinceReturnsTheEventsAfterASequence() {
+        ChangeEventLog changeEventLog = new ChangeEventLog(10);
+        long start = changeEventLog.lastSequence();
+        publish(changeEventLog, 1L, 2L, 3L);
+
+        ChangeEventLog.Slice all = changeEventLog.since(start, 10);
+        assertTrue(all.complete());
+        assertEquals(List.of(1L, 2L, 3L), entityIds(all));
+        assertEquals(List.of(start + 1, start + 2, start + 3), all.events().stream().map(ChangeEventDto::getSequence).toList());
+        assertEquals(start + 3, all.lastSequence());
+
+        assertEquals(List.of(2L, 3L), entityIds(changeEventLog.since(start + 1, 10)));
+        assertEquals(List.of(1L, 2L), entityIds(changeEventLog.since(start, 2)));
+
+        ChangeEventLog.Slice upToDate = changeEventLog.since(start + 3, 10);
+        assertTrue(upToDate.complete());
+        assertEquals(List.of(), upToDate.events());
+    }
+
+    @Test
+    void testSinceResetsWhenEventsWereOverwritten() {
+        ChangeEventLog changeEventLog = new ChangeEventLog(3);
+        long start = changeEventLog.lastSequence();
+        publish(changeEventLog, 1L, 2L, 3L, 4L, 5L);
+
+        ChangeEventLog.Slice reset = changeEventLog.since(start + 1, 10);
+        assertFalse(reset.complete());
+        assertEquals(List.of(3L, 4L, 5L), entityIds(reset));
+        assertEquals(start + 5, reset.lastSequence());
+
+        ChangeEventLog.Slice oldestRetained = changeEventLog.since(start + 2, 10);
+        assertTrue(oldestRetained.complete());
+        assertEquals(List.of(3L, 4L, 5L), entityIds(oldestRetained));
+    }
+
+    @Test
+    void testSinceResetsForASequenceOfAnotherRun() {
+        ChangeEventLog changeEventLog = new ChangeEventLog(10);
+        long start = changeEventLog.lastSequence();
+        publish(changeEventLog, 1L, 2L);
+
+        ChangeEventLog.Slice earlierRun = changeEventLog.since(start - 1000, 10);
+        assertFalse(earlierRun.complete());
+        assertEquals(List.of(1L, 2L), entityIds(earlierRun));
+
+        ChangeEventLog.Slice laterRun = changeEventLog.since(start + 1000, 10);
+        assertFalse(laterRun.complete());
+        assertEquals(List.of(1L, 2L), entityIds(laterRun));
+    }
+
+    @Test
+    void testPublishAppendsOnlyWhenTheTransactionCommits() {
+        ChangeEventLog changeEventLog = new ChangeEventLog(10);
+        AtomicInteger notified = new AtomicInteger();
+        changeEventLog.addListener(notified::incrementAndGet);
+        long start = changeEventLog.lastSequence();
+
+        transactionTemplate().executeWithoutResult(status -> {
+            changeEventLog.publish(Patient.class, 1L, ChangeEventDto.Type.UPDATED);
+            assertEquals(start, changeEventLog.lastSequence());
+            assertEquals(0, notified.get());
+        });
+
+        ChangeEventLog.Slice slice = changeEventLog.since(start, 10);
+        assertEquals(List.of(1L), entityIds(slice));
+        assertEquals("Patient", slice.events().get(0).getEntity());
+        assertEquals(ChangeEventDto.Type.UPDATED, slice.events().get(0).getType());
+        assertEquals(1, notified.get());
+    }
+
+    @Test
+    void testPublishIsDroppedWhenTheTransactionRollsBack() {
+        ChangeEventLog changeEventLog = new ChangeEventLog(10);
+        AtomicInteger notified = new AtomicInteger();
+        changeEventLog.addListener(notified::incrementAndGet);
+        long start = changeEventLog.lastSequence();
+
+        transactionTemplate().executeWithoutResult(status -> {
+            changeEventLog.publish(Patient.class, 1L, ChangeEventDto.Type.DELETED);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(start, changeEventLog.lastSequence());
+        assertEquals(List.of(), changeEventLog.since(start, 10).events());
+        assertEquals(0, notified.get());
+    }
+
+    @Test
+    void testBufferSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new ChangeEventLog(0));
+    }
+
+    private static void publish(ChangeEventLog changeEventLog, Long... ids) {
+        for (Long id : ids) {
+            changeEventLog.publish(Patient.class, id, ChangeEventDto.Type.CREATED);
+        }
+    }
+
+    private static List<Long> entityIds(ChangeEventLog.Slice slice) {
+        return slice.events().stream().map(ChangeEventDto::getEntityId).toList();
+    }
+
+    private static TransactionTemplate transactionTemplate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID());
+        return new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+}
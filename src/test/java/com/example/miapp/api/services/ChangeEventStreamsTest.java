@@ -0,0 +1,100 @@
+package com.example.miapp.api.services;
+
+import com.example.miapp.services.ChangeEventLog;
+import com.example.miapp.services.ChangeEventStreams;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the limit on open change event streams, also under concurrent subscribers.
+ */
+class ChangeEventStreamsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testSubscribeRejectsStreamsBeyondTheMaximum() {
+        ChangeEventStreams changeEventStreams = streams(2);
+        changeEventStreams.subscribe(null);
+        changeEventStreams.subscribe(null);
+
+        assertThrows(RejectedExecutionException.class, () -> changeEventStreams.subscribe(null));
+        assertEquals(2, subscribers());
+    }
+
+    @Test
+    void testClosedStreamFreesItsSlot() {
+        ChangeEventStreams changeEventStreams = streams(1);
+        SseEmitter emitter = changeEventStreams.subscribe(null);
+
+        emitter.complete();
+        changeEventStreams.heartbeat();
+
+        assertEquals(0, subscribers());
+        changeEventStreams.subscribe(null);
+        assertThrows(RejectedExecutionException.class, () -> changeEventStreams.subscribe(null));
+    }
+
+    @Test
+    void testConcurrentSubscribersNeverExceedTheMaximum() throws Exception {
+        int maxSubscribers = 10;
+        int threads = 16;
+        ChangeEventStreams changeEventStreams = streams(maxSubscribers);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> accepted = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                accepted.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    for (int i = 0; i < 5; i++) {
+                        try {
+                            changeEventStreams.subscribe(null);
+                            count++;
+                        } catch (RejectedExecutionException ex) {
+                            // Too many streams.
+                        }
+                    }
+                    return count;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> future : accepted) {
+                total += future.get();
+            }
+
+            assertEquals(maxSubscribers, total);
+            assertEquals(maxSubscribers, subscribers());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ChangeEventStreams streams(int maxSubscribers) {
+        return new ChangeEventStreams(new ChangeEventLog(10), Runnable::run, meterRegistry, Duration.ofMinutes(1),
+                maxSubscribers);
+    }
+
+    private double subscribers() {
+        return meterRegistry.get("events.subscribers").gauge().value();
+    }
+}
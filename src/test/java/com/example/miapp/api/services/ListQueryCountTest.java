@@ -0,0 +1,169 @@
+package com.example.miapp.api.services;
+
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.entity.*;
+import com.example.miapp.repository.*;
+import com.example.miapp.services.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that every list endpoint reads its page with a single statement, whatever the number of rows and of
+ * referenced entities, by counting the statements Hibernate prepares. An N+1 regression fails these tests.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:list-query-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+class ListQueryCountTest {
+
+    private static final int ROWS = 3;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private SpecialtyService specialtyService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PatientRoomService patientRoomService;
+
+    @Autowired
+    private DoctorSpecialtyService doctorSpecialtyService;
+
+    @Autowired
+    private MedicalRecordService medicalRecordService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private SpecialtyRepository specialtyRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRoomRepository patientRoomRepository;
+
+    @Autowired
+    private DoctorSpecialtyRepository doctorSpecialtyRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository.deleteAll();
+        patientRoomRepository.deleteAll();
+        doctorSpecialtyRepository.deleteAll();
+        medicalRecordRepository.deleteAll();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+        roomRepository.deleteAll();
+        specialtyRepository.deleteAll();
+        Date birthDate = new GregorianCalendar(1990, Calendar.MARCH, 15).getTime();
+        for (int i = 0; i < ROWS; i++) {
+            Patient patient = patientRepository.save(Patient.builder()
+                    .firstName("Jane").lastName("Doe " + i).birthDate(birthDate)
+                    .phone("300000000" + i).address("123 Calle Falsa").build());
+            Doctor doctor = doctorRepository.save(Doctor.builder()
+                    .firstName("John").lastName("Smith " + i).phone("310000000" + i).email("doctor" + i + "@example.com").build());
+            Room room = roomRepository.save(Room.builder()
+                    .number("10" + i).floor("1").type("Single").occupancyStatus(OccupancyStatus.AVAILABLE).build());
+            Specialty specialty = specialtyRepository.save(Specialty.builder()
+                    .name("Specialty " + i).description("Description " + i).build());
+            appointmentRepository.save(Appointment.builder()
+                    .date(LocalDateTime.now().plusDays(i + 1)).patient(patient).doctor(doctor)
+                    .reason("Checkup visit").status(AppointmentStatus.SCHEDULED).build());
+            patientRoomRepository.save(PatientRoom.builder()
+                    .patient(patient).room(room).checkInDate(new Date()).observations("Observation").build());
+            doctorSpecialtyRepository.save(DoctorSpecialty.builder()
+                    .doctor(doctor).specialty(specialty).certificationDate(birthDate).experienceLevel("Senior").build());
+            medicalRecordRepository.save(MedicalRecord.builder()
+                    .diagnosis("Flu").treatment("Rest").entryDate(new Date())
+                    .patient(patient).responsibleDoctor(doctor).build());
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testGetAllPatientsIsOneStatement() {
+        assertOneStatement(() -> patientService.getAllPatients(null, 20));
+    }
+
+    @Test
+    void testGetAllDoctorsIsOneStatement() {
+        assertOneStatement(() -> doctorService.getAllDoctors(null, 20));
+    }
+
+    @Test
+    void testGetAllRoomsIsOneStatement() {
+        assertOneStatement(() -> roomService.getAllRooms(null, null, 20));
+    }
+
+    @Test
+    void testGetAllSpecialtiesIsOneStatement() {
+        assertOneStatement(() -> specialtyService.getAllSpecialties(null, 20));
+    }
+
+    @Test
+    void testGetAllAppointmentsIsOneStatement() {
+        assertOneStatement(() -> appointmentService.getAllAppointments(null, null, null, null, null, 20));
+    }
+
+    @Test
+    void testGetAllPatientRoomsIsOneStatement() {
+        assertOneStatement(() -> patientRoomService.getAllPatientRooms(null, null, null, null, 20));
+    }
+
+    @Test
+    void testGetAllDoctorSpecialtiesIsOneStatement() {
+        assertOneStatement(() -> doctorSpecialtyService.getAllDoctorSpecialties(null, 20));
+    }
+
+    @Test
+    void testGetAllMedicalRecordsIsOneStatement() {
+        assertOneStatement(() -> medicalRecordService.getAllMedicalRecords(null, 20));
+    }
+
+    private void assertOneStatement(Supplier<CursorPage<?>> listCall) {
+        CursorPage<?> page = listCall.get();
+
+        assertEquals(ROWS, page.getItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.miapp.api.services;
+
+import com.example.miapp.repository.PatientName;
+import com.example.miapp.repository.PatientRepository;
+import com.example.miapp.services.PatientSearchIndex;
+import org.junit.jupiter.api.*;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks the trigram index behind the patient search: which names and phones match a query, in which order,
+ * and that updated or deleted patients no longer match their old values.
+ */
+class PatientSearchIndexTest {
+
+    private PatientRepository patientRepository;
+
+    private PatientSearchIndex patientSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        patientRepository = mock(PatientRepository.class);
+        patientSearchIndex = new PatientSearchIndex(patientRepository, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testSearchMatchesWholeNamesPrefixesAndInfixes() {
+        patientSearchIndex.track(1L, "Jane", "Doe", "300 123 4567");
+        patientSearchIndex.track(2L, "Mariana", "Gómez", "310 555 0000");
+
+        assertEquals(List.of(1L), patientSearchIndex.search("jane", 10));
+        assertEquals(List.of(2L), patientSearchIndex.search("mari", 10));
+        assertEquals(List.of(2L), patientSearchIndex.search("ria", 10));
+        assertEquals(List.of(2L), patientSearchIndex.search("GOMEZ", 10));
+        assertEquals(List.of(1L), patientSearchIndex.search("jane doe", 10));
+        assertEquals(List.of(), patientSearchIndex.search("jane gomez", 10));
+    }
+
+    @Test
+    void testSearchMatchesPhoneDigitsAcrossSeparators() {
+        patientSearchIndex.track(1L, "Jane", "Doe", "300 123 4567");
+        patientSearchIndex.track(2L, "John", "Doe", "310-555-0000");
+
+        assertEquals(List.of(1L), patientSearchIndex.search("3001234567", 10));
+        assertEquals(List.of(1L), patientSearchIndex.search("300 123", 10));
+        assertEquals(List.of(2L), patientSearchIndex.search("555", 10));
+        assertEquals(List.of(2L), patientSearchIndex.search("doe 555", 10));
+        assertEquals(List.of(), patientSearchIndex.search("999", 10));
+    }
+
+    @Test
+    void testTwoLetterQueryMatchesOnlyTheStartOfAWord() {
+        patientSearchIndex.track(1L, "Jane", "Doe", "3001234567");
+        patientSearchIndex.track(2L, "Ana", "Ruiz", "3001234568");
+
+        assertEquals(List.of(1L), patientSearchIndex.search("ja", 10));
+        assertEquals(List.of(2L), patientSearchIndex.search("an", 10));
+        assertEquals(List.of(1L), patientSearchIndex.search("do", 10));
+    }
+
+    @Test
+    void testQueryShorterThanATrigramIsRejected() {
+        patientSearchIndex.track(1L, "Jane", "Doe", "3001234567");
+
+        assertThrows(IllegalArgumentException.class, () -> patientSearchIndex.search("j", 10));
+        assertThrows(IllegalArgumentException.class, () -> patientSearchIndex.search("30", 10));
+        assertThrows(IllegalArgumentException.class, () -> patientSearchIndex.search(" - ", 10));
+    }
+
+    @Test
+    void testSearchRanksWholeWordsThenPrefixesThenInfixesThenShorterNames() {
+        patientSearchIndex.track(1L, "Mariana", "Diaz", "3000000001");
+        patientSearchIndex.track(2L, "Anabel", "Ruiz", "3000000002");
+        patientSearchIndex.track(3L, "Ana", "Lopez", "3000000003");
+        patientSearchIndex.track(4L, "Ana", "Li", "3000000004");
+
+        assertEquals(List.of(4L, 3L, 2L, 1L), patientSearchIndex.search("ana", 10));
+        assertEquals(List.of(4L, 3L), patientSearchIndex.search("ana", 2));
+    }
+
+    @Test
+    void testSearchAgreesWithAScanOverManyPatients() {
+        String[] firstNames = {"Jane", "John", "Maria", "Mariana", "Ana", "Andres", "Juan", "Julia"};
+        String[] lastNames = {"Doe", "Gomez", "Garcia", "Lopez", "Diaz", "Ruiz", "Perez", "Rojas"};
+        List<String[]> patients = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            String[] patient = {firstNames[id % firstNames.length], lastNames[(id / 7) % lastNames.length]};
+            patients.add(patient);
+            patientSearchIndex.track((long) id, patient[0], patient[1], String.format("300%07d", id));
+        }
+
+        for (String query : List.of("mar", "ana gar", "juli rojas", "ez", "ria ez", "pez an")) {
+            List<Long> expected = new ArrayList<>();
+            for (int id = 1; id <= patients.size(); id++) {
+                if (matches(patients.get(id - 1), query)) {
+                    expected.add((long) id);
+                }
+            }
+            List<Long> found = new ArrayList<>(patientSearchIndex.search(query, 1000));
+            found.sort(null);
+            assertEquals(expected, found, query);
+        }
+    }
+
+    @Test
+    void testUpdateRemovesTheOldTrigrams() {
+        patientSearchIndex.track(1L, "Jane", "Doe", "3001234567");
+        patientSearchIndex.track(2L, "John", "Doe", "3109876543");
+
+        patientSearchIndex.track(1L, "Mary", "Smith", "3205550000");
+
+        assertEquals(List.of(), patientSearchIndex.search("jane", 10));
+        assertEquals(List.of(), patientSearchIndex.search("1234567", 10));
+        assertEquals(List.of(2L), patientSearchIndex.search("doe", 10));
+        assertEquals(List.of(1L), patientSearchIndex.search("mary smith", 10));
+        assertEquals(List.of(1L), patientSearchIndex.search("555", 10));
+    }
+
+    @Test
+    void testReleaseRemovesThePatient() {
+        patientSearchIndex.track(1L, "Jane", "Doe", "3001234567");
+        patientSearchIndex.track(2L, "John", "Doe", "3109876543");
+
+        patientSearchIndex.release(1L);
+
+        assertEquals(List.of(), patientSearchIndex.search("jane", 10));
+        assertEquals(List.of(2L), patientSearchIndex.search("doe", 10));
+        assertEquals(List.of(), patientSearchIndex.search("300", 10));
+    }
+
+    @Test
+    void testTrackIsAppliedOnlyOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        patientSearchIndex.track(1L, "Jane", "Doe", "3001234567");
+
+        assertEquals(List.of(), patientSearchIndex.search("jane", 10));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertEquals(List.of(1L), patientSearchIndex.search("jane", 10));
+    }
+
+    @Test
+    void testRebuildIndexesStoredPatients() {
+        when(patientRepository.streamNames()).thenReturn(Stream.of(
+                name(1L, "Jane", "Doe", "3001234567"),
+                name(2L, "John", "Doe", "3109876543")));
+        patientSearchIndex.track(3L, "Stale", "Entry", "3200000000");
+
+        patientSearchIndex.rebuild();
+
+        assertEquals(List.of(1L, 2L), patientSearchIndex.search("doe", 10));
+        assertEquals(List.of(), patientSearchIndex.search("stale", 10));
+    }
+
+    /**
+     * Reference implementation of the matching rule: every query word of two or more letters starts a name word
+     * (two letters) or occurs in one (three or more).
+     */
+    private static boolean matches(String[] patient, String query) {
+        for (String token : query.split(" ")) {
+            boolean found = false;
+            for (String word : patient) {
+                String lower = word.toLowerCase(Locale.ROOT);
+                found |= token.length() < 3 ? lower.startsWith(token) : lower.contains(token);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static PatientName name(Long id, String firstName, String lastName, String phone) {
+        return new PatientName() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getFirstName() {
+                return firstName;
+            }
+
+            @Override
+            public String getLastName() {
+                return lastName;
+            }
+
+            @Override
+            public String getPhone() {
+                return phone;
+            }
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.miapp.api.services;
+
+import com.example.miapp.dto.CursorPage;
+import com.example.miapp.dto.PatientDto;
+import com.example.miapp.entity.Doctor;
+import com.example.miapp.entity.MedicalRecord;
+import com.example.miapp.entity.Patient;
+import com.example.miapp.repository.DoctorRepository;
+import com.example.miapp.repository.MedicalRecordRepository;
+import com.example.miapp.repository.PatientRepository;
+import com.example.miapp.services.PatientService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that reading patients issues a single statement, whether or not they have a medical record,
+ * by counting the statements Hibernate prepares.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:patient-query-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+class PatientServiceQueryCountTest {
+
+    private static final int PATIENTS = 5;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long patientId;
+
+    @BeforeEach
+    void setUp() {
+        medicalRecordRepository.deleteAll();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+        Date birthDate = new GregorianCalendar(1990, Calendar.MARCH, 15).getTime();
+        Doctor doctor = doctorRepository.save(Doctor.builder()
+                .firstName("John").lastName("Smith").phone("3000000000").email("john.smith@example.com").build());
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient patient = patientRepository.save(Patient.builder()
+                    .firstName("Jane").lastName("Doe " + i).birthDate(birthDate)
+                    .phone("300000000" + i).address("123 Calle Falsa").build());
+            medicalRecordRepository.save(MedicalRecord.builder()
+                    .diagnosis("Flu").treatment("Rest").entryDate(new Date())
+                    .patient(patient).responsibleDoctor(doctor).build());
+            patientId = patient.getId();
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testGetAllPatientsIsOneStatement() {
+        CursorPage<PatientDto> page = patientService.getAllPatients(null, 20);
+
+        assertEquals(PATIENTS, page.getItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetPatientByIdIsOneStatement() {
+        PatientDto patient = patientService.getPatientById(patientId);
+
+        assertEquals(patientId, patient.getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
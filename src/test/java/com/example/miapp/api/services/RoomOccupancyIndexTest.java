@@ -0,0 +1,198 @@
+package com.example.miapp.api.services;
+
+import com.example.miapp.dto.RoomDto;
+import com.example.miapp.entity.OccupancyStatus;
+import com.example.miapp.entity.PatientRoom;
+import com.example.miapp.entity.Room;
+import com.example.miapp.repository.PatientRoomRepository;
+import com.example.miapp.repository.RoomRepository;
+import com.example.miapp.services.OccupancyConflictException;
+import com.example.miapp.services.RoomOccupancyIndex;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks the per-room day bitmaps of the occupancy index over a ten-day window: overlapping stays, days shared by
+ * several stays, rolling the window forward and open-ended stays.
+ */
+class RoomOccupancyIndexTest {
+
+    private static final int WINDOW_DAYS = 10;
+
+    private final LocalDate today = LocalDate.now();
+
+    private RoomRepository roomRepository;
+
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    @BeforeEach
+    void setUp() {
+        roomRepository = mock(RoomRepository.class);
+        roomOccupancyIndex = new RoomOccupancyIndex(roomRepository, mock(PatientRoomRepository.class), WINDOW_DAYS);
+        roomOccupancyIndex.trackRoom(room(1L, "Single"));
+        roomOccupancyIndex.trackRoom(room(2L, "Double"));
+    }
+
+    @Test
+    void testOverlappingStayIsRejected() {
+        roomOccupancyIndex.track(stay(10L, 1L, 2, 5));
+
+        assertThrows(OccupancyConflictException.class, () -> roomOccupancyIndex.track(stay(11L, 1L, 4, 6)));
+        assertThrows(OccupancyConflictException.class, () -> roomOccupancyIndex.track(stay(11L, 1L, 0, 3)));
+        assertThrows(OccupancyConflictException.class, () -> roomOccupancyIndex.track(stay(11L, 1L, 3, 4)));
+        assertEquals(List.of(2L), availableRooms(2, 5));
+    }
+
+    @Test
+    void testCheckOutDayIsFreeForTheNextStay() {
+        roomOccupancyIndex.track(stay(10L, 1L, 2, 5));
+        roomOccupancyIndex.track(stay(11L, 1L, 5, 7));
+        roomOccupancyIndex.track(stay(12L, 1L, 0, 2));
+
+        assertEquals(List.of(2L), availableRooms(0, 7));
+        assertEquals(List.of(1L, 2L), availableRooms(7, 10));
+    }
+
+    @Test
+    void testRemovedStayFreesOnlyItsOwnDays() {
+        roomOccupancyIndex.track(stay(10L, 1L, 2, 5));
+        roomOccupancyIndex.track(stay(11L, 1L, 5, 8));
+
+        roomOccupancyIndex.release(10L);
+
+        assertEquals(List.of(1L, 2L), availableRooms(2, 5));
+        assertEquals(List.of(2L), availableRooms(4, 6));
+        roomOccupancyIndex.track(stay(12L, 1L, 3, 5));
+        assertEquals(List.of(2L), availableRooms(3, 5));
+    }
+
+    @Test
+    void testMovedStayReleasesItsOldDays() {
+        roomOccupancyIndex.track(stay(10L, 1L, 2, 5));
+
+        roomOccupancyIndex.track(stay(10L, 1L, 6, 8));
+
+        assertEquals(List.of(1L, 2L), availableRooms(2, 5));
+        assertEquals(List.of(2L), availableRooms(6, 8));
+        roomOccupancyIndex.track(stay(11L, 1L, 2, 6));
+    }
+
+    @Test
+    void testMovedStayToAnotherRoomReleasesTheFirstRoom() {
+        roomOccupancyIndex.track(stay(10L, 1L, 2, 5));
+
+        roomOccupancyIndex.track(stay(10L, 2L, 2, 5));
+
+        assertEquals(List.of(1L), availableRooms(2, 5));
+    }
+
+    @Test
+    void testRejectedMoveKeepsThePreviousStay() {
+        roomOccupancyIndex.track(stay(10L, 1L, 2, 5));
+        roomOccupancyIndex.track(stay(11L, 1L, 6, 8));
+
+        assertThrows(OccupancyConflictException.class, () -> roomOccupancyIndex.track(stay(10L, 1L, 5, 7)));
+
+        assertEquals(List.of(2L), availableRooms(2, 5));
+        assertEquals(List.of(1L, 2L), availableRooms(5, 6));
+    }
+
+    @Test
+    void testOpenEndedStayOccupiesTheRestOfTheWindow() {
+        roomOccupancyIndex.track(stay(10L, 1L, 4, null));
+
+        assertEquals(List.of(1L, 2L), availableRooms(0, 4));
+        assertEquals(List.of(2L), availableRooms(9, 10));
+        assertThrows(OccupancyConflictException.class, () -> roomOccupancyIndex.track(stay(11L, 1L, 30, 31)));
+        roomOccupancyIndex.track(stay(11L, 1L, 1, 4));
+    }
+
+    @Test
+    void testStayBeyondTheWindowIsStillChecked() {
+        roomOccupancyIndex.track(stay(10L, 1L, 20, 25));
+
+        assertEquals(List.of(1L, 2L), availableRooms(0, 10));
+        assertThrows(OccupancyConflictException.class, () -> roomOccupancyIndex.track(stay(11L, 1L, 24, null)));
+        roomOccupancyIndex.track(stay(11L, 1L, 25, 30));
+    }
+
+    @Test
+    void testRollMovesTheWindowAndDropsEndedStays() {
+        roomOccupancyIndex.track(stay(10L, 1L, 0, 3));
+        roomOccupancyIndex.track(stay(11L, 1L, 4, 6));
+        roomOccupancyIndex.track(stay(12L, 2L, 12, null));
+
+        roomOccupancyIndex.roll(today.plusDays(3));
+
+        assertThrows(IllegalArgumentException.class, () -> availableRooms(2, 4));
+        assertEquals(List.of(1L, 2L), availableRooms(3, 4));
+        assertEquals(List.of(2L), availableRooms(4, 6));
+        assertEquals(List.of(1L), availableRooms(12, 13));
+        roomOccupancyIndex.track(stay(13L, 1L, 8, 13));
+        assertEquals(List.of(), availableRooms(12, 13));
+    }
+
+    @Test
+    void testRollBackwardsIsIgnored() {
+        roomOccupancyIndex.track(stay(10L, 1L, 0, 3));
+
+        roomOccupancyIndex.roll(today.minusDays(1));
+
+        assertEquals(List.of(2L), availableRooms(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> availableRooms(-1, 0));
+    }
+
+    @Test
+    void testTrackReadsOnlyTheRoomId() {
+        Room reference = mock(Room.class);
+        when(reference.getId()).thenReturn(1L);
+
+        roomOccupancyIndex.track(PatientRoom.builder().id(10L).room(reference).checkInDate(day(2)).checkOutDate(day(5)).build());
+
+        verify(reference, atLeastOnce()).getId();
+        verifyNoMoreInteractions(reference);
+        verifyNoInteractions(roomRepository);
+        assertEquals(List.of(2L), availableRooms(2, 5));
+    }
+
+    @Test
+    void testTrackLoadsRoomMissingFromTheIndex() {
+        when(roomRepository.findById(3L)).thenReturn(Optional.of(room(3L, "Suite")));
+
+        roomOccupancyIndex.track(stay(10L, 3L, 2, 5));
+
+        assertEquals(List.of(1L, 2L), availableRooms(2, 5));
+        assertEquals(List.of(1L, 2L, 3L), availableRooms(5, 6));
+        assertEquals(List.of(3L), roomOccupancyIndex.findAvailableRooms(today.plusDays(5), today.plusDays(6), "suite", null)
+                .stream().map(RoomDto::getId).toList());
+    }
+
+    private List<Long> availableRooms(int from, int to) {
+        return roomOccupancyIndex.findAvailableRooms(today.plusDays(from), today.plusDays(to), null, null).stream()
+                .map(RoomDto::getId)
+                .toList();
+    }
+
+    private PatientRoom stay(Long id, Long roomId, int checkIn, Integer checkOut) {
+        return PatientRoom.builder()
+                .id(id)
+                .room(Room.builder().id(roomId).build())
+                .checkInDate(day(checkIn))
+                .checkOutDate(checkOut == null ? null : day(checkOut))
+                .build();
+    }
+
+    private java.sql.Date day(int offset) {
+        return java.sql.Date.valueOf(today.plusDays(offset));
+    }
+
+    private static Room room(Long id, String type) {
+        return Room.builder().id(id).number("10" + id).floor("1").type(type).occupancyStatus(OccupancyStatus.AVAILABLE).build();
+    }
+}